@@ -0,0 +1,26 @@
+package Benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+//Startet die JMH-Benchmarks mit denselben Parametern wie org.openjdk.jmh.Main, hängt aber immer den
+//GC-Profiler an. So steht neben den Perzentilen (Mode.SampleTime) auch die Allokationsrate
+//(gc.alloc.rate.norm = Bytes pro Aufruf) in jedem Ergebnis.
+//
+//  java -jar benchmarks/target/benchmarks.jar                          alle Benchmarks
+//  java -jar benchmarks/target/benchmarks.jar CardLookup -p size=1000  nur einen, mit einer Stapelgröße
+//  java -jar benchmarks/target/benchmarks.jar -rf json -rff result.json
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws Exception {
+
+        Options options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
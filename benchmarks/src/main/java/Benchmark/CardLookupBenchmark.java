@@ -0,0 +1,84 @@
+package Benchmark;
+
+import Model.Deck;
+import Model.DeckCodec;
+import Model.Flashcard;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+//Deck.getCardByName() und getCardById() für beide Arten, die Karten im Speicher zu halten.
+//Der Stapel wird wie im Programm über Model.DeckCodec eingelesen; columnarThreshold legt fest, ob dabei
+//der spaltenweise Speicher benutzt wird. JMH startet für jede Parameterkombination eine eigene JVM.
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CardLookupBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    private int size;
+
+    @Param({"false", "true"})
+    private boolean columnar;
+
+    private Deck deck;
+    private String[] fronts;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+
+        Path home = SampleDecks.useTemporaryHome();
+        System.setProperty("flashcards.columnarThreshold", columnar ? "0" : Integer.toString(Integer.MAX_VALUE));
+        System.setProperty("flashcards.mappedThreshold", Integer.toString(Integer.MAX_VALUE));
+        Path file = home.resolve("lookup" + size + ".txt");
+        DeckCodec.write(SampleDecks.createDeck("Benchmark", size), file);
+        deck = DeckCodec.read(file);
+        if (deck.isColumnar() != columnar) {
+            throw new IllegalStateException("Model.DeckCodec wurde vor dem Setzen von columnarThreshold geladen.");
+        }
+
+        fronts = new String[size];
+        for (int i = 0; i < size; i++) {
+            //Neue Objekte, damit nicht nur die Referenz verglichen wird
+            fronts[i] = new String(SampleDecks.front(i));
+        }
+    }
+
+    @Benchmark
+    public Flashcard getCardByName() {
+        return deck.getCardByName(fronts[nextIndex()]);
+    }
+
+    @Benchmark
+    public Flashcard getCardByNameMissing() {
+        return deck.getCardByName("Keine Karte");
+    }
+
+    @Benchmark
+    public Flashcard getCardById() {
+        return deck.getCardById(nextIndex() + 1);
+    }
+
+    private int nextIndex() {
+
+        int index = next;
+        next = index + 1 == size ? 0 : index + 1;
+        return index;
+    }
+}
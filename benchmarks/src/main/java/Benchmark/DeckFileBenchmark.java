@@ -0,0 +1,68 @@
+package Benchmark;
+
+import Model.Deck;
+import Model.DeckWriter;
+import Model.Helper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+//Speichern und Einlesen eines Stapels über Model.Helper, so wie es die Oberfläche macht.
+//saveDeckToFile() schreibt nur im Hintergrund, daher wird mit DeckWriter.flush() auf das Schreiben gewartet.
+//fsync ist abgeschaltet (ON_EXIT), damit die Messung nicht von der Festplatte abhängt.
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dflashcards.fsync=ON_EXIT")
+@State(Scope.Benchmark)
+public class DeckFileBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    private int size;
+
+    private Helper helper;
+    private Deck deck;
+    private String fileName;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+
+        SampleDecks.useTemporaryHome();
+        helper = new Helper();
+        helper.createDirectories();
+        deck = SampleDecks.createDeck("Benchmark" + size, size);
+        fileName = deck.getName() + ".txt";
+        save();
+    }
+
+    @Benchmark
+    public void save() {
+
+        helper.saveDeckToFile(deck);
+        DeckWriter.getInstance().flush();
+    }
+
+    @Benchmark
+    public Deck load() {
+        return helper.getDeckFromFile(fileName);
+    }
+
+    @Benchmark
+    public Deck roundTrip() {
+
+        save();
+        return load();
+    }
+}
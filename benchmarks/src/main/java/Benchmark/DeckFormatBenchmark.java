@@ -0,0 +1,141 @@
+package Benchmark;
+
+import Model.Deck;
+import Model.DeckCodec;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+
+//Vergleicht das bisherige Speicherformat (Java-Serialisierung wie im alten Helper.saveDeckToFile)
+//mit dem binären Format aus Model.DeckCodec: Zeit zum Speichern und Laden sowie die Dateigröße. "gemappt" blendet
+//die binäre Datei nur ein (DeckCodec.map()); gemessen wird zusätzlich der belegte Heap nach dem Laden.
+//
+//Kein JMH-Benchmark, sondern ein einfacher Vergleich mit wenigen Runden. Ausführen (aus dem Projektordner):
+//  mvn -B package
+//  java -Xmx4g -cp benchmarks/target/benchmarks.jar Benchmark.DeckFormatBenchmark [Kartenanzahl ...]
+public class DeckFormatBenchmark {
+
+    private static final int[] DEFAULT_SIZES = {10_000, 100_000, 1_000_000};
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws Exception {
+
+        int[] sizes = DEFAULT_SIZES;
+        if (args.length > 0) {
+            sizes = new int[args.length];
+            for (int i = 0; i < args.length; i++) {
+                sizes[i] = Integer.parseInt(args[i]);
+            }
+        }
+
+        //"binär" liest immer ein, auch große Stapel
+        System.setProperty("flashcards.mappedThreshold", Integer.toString(Integer.MAX_VALUE));
+        Path directory = Files.createTempDirectory("deckbenchmark");
+        System.out.printf("%-10s %-8s %12s %12s %14s %12s%n", "Karten", "Format", "Speichern", "Laden", "Dateigröße",
+                "Heap");
+
+        for (int size : sizes) {
+            Deck deck = SampleDecks.createDeck("Benchmark", size);
+            Path legacyFile = directory.resolve("legacy" + size + ".txt");
+            Path binaryFile = directory.resolve("binary" + size + ".txt");
+
+            long[] legacy = measure(deck, legacyFile, Format.SERIAL);
+            long[] binary = measure(deck, binaryFile, Format.BINARY);
+            long[] mapped = measure(deck, binaryFile, Format.MAPPED);
+
+            print(size, "serial", legacy, Files.size(legacyFile));
+            print(size, "binär", binary, Files.size(binaryFile));
+            print(size, "gemappt", mapped, Files.size(binaryFile));
+
+            Files.delete(legacyFile);
+            Files.delete(binaryFile);
+        }
+        Files.delete(directory);
+    }
+
+    private enum Format {
+        SERIAL,
+        BINARY,
+        MAPPED
+    }
+
+    //Gibt den Median von Speicher- und Ladezeit in Nanosekunden und den Heap des geladenen Stapels in Bytes zurück.
+    //Die erste Runde dient zum Aufwärmen.
+    private static long[] measure(Deck deck, Path file, Format format) throws Exception {
+
+        long[] saveTimes = new long[ROUNDS];
+        long[] loadTimes = new long[ROUNDS];
+        long[] heapSizes = new long[ROUNDS];
+
+        for (int round = -1; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            if (format == Format.SERIAL) {
+                saveLegacy(deck, file);
+            } else {
+                //In eine neue Datei, eine eingeblendete darf nicht überschrieben werden
+                Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+                DeckCodec.write(deck, tempFile);
+                Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+            long written = System.nanoTime();
+            long heapBefore = usedHeap();
+            long saved = System.nanoTime();
+            Deck loaded = format == Format.SERIAL ? loadLegacy(file)
+                    : format == Format.BINARY ? DeckCodec.read(file) : DeckCodec.map(file);
+            long end = System.nanoTime();
+
+            if (loaded.getLength() != deck.getLength()) {
+                throw new IllegalStateException("Stapel wurde nicht vollständig gelesen.");
+            }
+            if (round >= 0) {
+                saveTimes[round] = written - start;
+                loadTimes[round] = end - saved;
+                heapSizes[round] = usedHeap() - heapBefore;
+            }
+        }
+        return new long[]{median(saveTimes), median(loadTimes), median(heapSizes)};
+    }
+
+    private static long usedHeap() {
+
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static void saveLegacy(Deck deck, Path file) throws Exception {
+
+        FileOutputStream fileStreamOut = new FileOutputStream(file.toString());
+        ObjectOutputStream objectStream = new ObjectOutputStream(fileStreamOut);
+        objectStream.writeObject(deck);
+        objectStream.close();
+    }
+
+    private static Deck loadLegacy(Path file) throws Exception {
+
+        FileInputStream fileStreamIn = new FileInputStream(file.toString());
+        ObjectInputStream objectStream = new ObjectInputStream(fileStreamIn);
+        Deck deck = (Deck) objectStream.readObject();
+        objectStream.close();
+        return deck;
+    }
+
+    private static long median(long[] values) {
+
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+
+    private static void print(int size, String format, long[] times, long fileSize) {
+        System.out.printf("%-10d %-8s %9.1f ms %9.1f ms %11.1f KB %9.1f MB%n", size, format, times[0] / 1e6,
+                times[1] / 1e6, fileSize / 1024.0, times[2] / 1048576.0);
+    }
+}
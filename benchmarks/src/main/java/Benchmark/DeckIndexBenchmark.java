@@ -0,0 +1,99 @@
+package Benchmark;
+
+import Model.Data;
+import Model.DeckHeader;
+import Model.DeckIndex;
+import Model.DeckRepository;
+import Model.Helper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+//Was früher der Konstruktor von Model.Data erledigt hat: die Stapelliste des Benutzers über N Stapel.
+//  withIndex:       Programmstart mit vorhandenem Model.DeckIndex, es werden keine Stapel gelesen
+//  withoutIndex:    erster Start bzw. verlorener Index, alle Stapel werden komplett eingelesen, mit loadThreads
+//                   Threads des Model.DeckLoader (1 = nacheinander wie früher)
+//  loadDeckHeaders: Data.loadDeckHeaders() bei einem Szenenwechsel, der Index ist bereits im Speicher
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dflashcards.fsync=ON_EXIT")
+@State(Scope.Benchmark)
+public class DeckIndexBenchmark {
+
+    private static final int CARDS_PER_DECK = 200;
+
+    @Param({"10", "100", "1000"})
+    private int decks;
+
+    @Param({"1", "4"})
+    private int loadThreads;
+
+    private Helper helper;
+    private Path indexFile;
+    private Data data;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+
+        //Vor dem ersten Zugriff auf den Model.DeckLoader
+        System.setProperty("flashcards.loadThreads", String.valueOf(loadThreads));
+        SampleDecks.useTemporaryHome();
+        helper = new Helper();
+        helper.createDirectories();
+        for (int i = 0; i < decks; i++) {
+            helper.saveDeckToFile(SampleDecks.createDeck("Stapel" + i, CARDS_PER_DECK));
+        }
+        DeckRepository.getInstance().close();
+        indexFile = helper.getFlashcardsDirectory().resolve(DeckIndex.INDEX_FILE_NAME);
+
+        Data.setCurrentUser(SampleDecks.OWNER);
+        data = new Data();
+    }
+
+    @Benchmark
+    public List<DeckHeader> withIndex() {
+
+        DeckIndex index = new DeckIndex(helper.getFlashcardsDirectory());
+        index.load(helper, null);
+        return index.getHeaders();
+    }
+
+    @Benchmark
+    public List<DeckHeader> withoutIndex(IndexFile deletedIndex) {
+
+        DeckIndex index = new DeckIndex(helper.getFlashcardsDirectory());
+        index.load(helper, null);
+        return index.getHeaders();
+    }
+
+    @Benchmark
+    public List<DeckHeader> loadDeckHeaders() {
+        return data.loadDeckHeaders().join();
+    }
+
+    //Löscht den Index vor jedem Aufruf von withoutIndex(); load() legt ihn danach wieder an.
+    @State(Scope.Thread)
+    public static class IndexFile {
+
+        @Setup(Level.Invocation)
+        public void delete(DeckIndexBenchmark benchmark) throws Exception {
+            Files.deleteIfExists(benchmark.indexFile);
+        }
+    }
+}
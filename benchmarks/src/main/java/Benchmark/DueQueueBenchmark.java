@@ -0,0 +1,71 @@
+package Benchmark;
+
+import Model.Deck;
+import Model.DueQueue;
+import Model.Flashcard;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+//Ersatz für Deck.ready() + sort(): Aufbau der Model.DueQueue beim Öffnen eines Stapels, die nächste fällige
+//Karte abfragen und nach der Antwort neu einsortieren, und die Anzahl der fälligen Karten.
+//Die Hälfte der Karten ist fällig.
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DueQueueBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    private int size;
+
+    private Deck deck;
+    private DueQueue queue;
+    private long now;
+    private long reviewTime;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+
+        SampleDecks.useTemporaryHome();
+        deck = SampleDecks.createDeck("Benchmark", size);
+        queue = new DueQueue(deck);
+        now = System.currentTimeMillis();
+        reviewTime = now + 1_000_000_000L;
+    }
+
+    @Benchmark
+    public DueQueue build() {
+        return new DueQueue(deck);
+    }
+
+    //Beantwortet immer die früheste Karte und schiebt sie ans Ende, so bleibt der Anteil fälliger Karten gleich.
+    @Benchmark
+    public Flashcard reviewNext() {
+
+        Flashcard card = deck.getCardById(queue.peek());
+        card.setRepetitionDate(new Date(reviewTime++));
+        deck.updateCard(card);
+        queue.update(card);
+        return card;
+    }
+
+    @Benchmark
+    public int countDue() {
+        return queue.countDue(now);
+    }
+}
@@ -0,0 +1,53 @@
+package Benchmark;
+
+import Model.Flashcard;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+//Flashcard.updateInterval() für jede Schwierigkeit, also eine beantwortete Karte im Übungsfenster.
+//Enthalten ist die Logmeldung mit dem neuen Abfragedatum, die über den Model.LogHelper gepuffert wird.
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class FlashcardBenchmark {
+
+    private static final int START_LEVEL = 4;
+
+    @Param({"0", "1", "2", "3", "4"})
+    private int difficulty;
+
+    private Flashcard card;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+
+        SampleDecks.useTemporaryHome();
+        card = new Flashcard("Frage", "Antwort");
+        card.setDifficulty(difficulty);
+    }
+
+    //Das Level wird jedes Mal zurückgesetzt, sonst bliebe die Karte nach wenigen Aufrufen auf dem höchsten Level
+    @Benchmark
+    public Date updateInterval() {
+
+        card.setLevel(START_LEVEL);
+        card.updateInterval();
+        return card.getRepetitionDate();
+    }
+}
@@ -0,0 +1,90 @@
+package Benchmark;
+
+import Model.DeckWriter;
+import Model.Helper;
+import Model.ReviewLog;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+//Antworten der letzten 90 Tage zählen: über die Tagessummen des Model.ReviewLog und zum Vergleich durch Lesen
+//aller Einträge des Protokolls. Dazu eine einzelne Antwort anhängen.
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ReviewLogBenchmark {
+
+    private static final long DAY_MILLIS = 24 * 60 * 60 * 1000L;
+    private static final int DAYS = 90;
+
+    @Param({"10000", "100000", "1000000"})
+    private int events;
+
+    private ReviewLog log;
+    private long from;
+    private long to;
+    private long appendTime;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+
+        SampleDecks.useTemporaryHome();
+        log = ReviewLog.forDeck(new Helper().getFlashcardsDirectory(), "Benchmark" + events);
+        Random random = new Random(42);
+        to = System.currentTimeMillis();
+        from = to - DAYS * DAY_MILLIS;
+        for (int i = 0; i < events; i++) {
+            long time = from + (long) i * (DAYS * DAY_MILLIS / events);
+            log.append(time, random.nextInt(10000), 1 + random.nextInt(4), random.nextInt(10), random.nextInt(10),
+                    random.nextInt(1_000_000) * 1000L, random.nextInt(1_000_000) * 1000L, random.nextInt(20000));
+        }
+        DeckWriter.getInstance().flush();
+        appendTime = to;
+    }
+
+    @Benchmark
+    public int countWithRollups() {
+
+        int reviews = 0;
+        List<ReviewLog.Rollup> days = log.getRollups(ReviewLog.Resolution.DAY, from, to);
+        for (ReviewLog.Rollup day : days) {
+            reviews += day.getReviews();
+        }
+        return reviews;
+    }
+
+    @Benchmark
+    public int countByScanning() throws Exception {
+
+        int[] reviews = new int[1];
+        log.readEvents((time, cardId, grade, oldLevel, newLevel, previousInterval, nextInterval, responseMillis) -> {
+            if (time >= from && time < to) {
+                reviews[0]++;
+            }
+        });
+        return reviews[0];
+    }
+
+    @Benchmark
+    public ReviewLog append() {
+
+        log.append(appendTime++, 1, 2, 3, 4, DAY_MILLIS, 2 * DAY_MILLIS, 1500);
+        return log;
+    }
+}
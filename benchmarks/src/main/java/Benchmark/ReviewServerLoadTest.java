@@ -0,0 +1,210 @@
+package Benchmark;
+
+import Model.Deck;
+import Model.DeckRepository;
+import Model.Helper;
+import Server.ReviewServer;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+//Lasttest für Server.ReviewServer: startet den Server im selben Prozess auf einem freien Port und lässt
+//USERS Benutzer gleichzeitig über HTTP üben (nächste Karte holen, bewerten, nach ANSWERS Antworten die Runde
+//beenden). Jeder Benutzer hat einen eigenen Stapel. Nach der Aufwärmphase werden Anfragen pro Sekunde und die
+//Perzentile der Antwortzeit je Endpunkt ausgegeben. Kein JMH-Benchmark, da die Last von vielen Threads kommt.
+//Vorher wird die Stapelliste eines Benutzers mit einem leeren Stapel abgefragt (nextDue = null).
+//
+//  java -cp benchmarks/target/benchmarks.jar Benchmark.ReviewServerLoadTest [Benutzer] [Sekunden] [Serverthreads]
+//
+//Client und Server teilen sich die Kerne; die Zahlen sind also eine untere Grenze für den Server allein.
+public class ReviewServerLoadTest {
+
+    private static final int DECK_SIZE = 20000;
+    private static final int ANSWERS = 20;
+    private static final int WARMUP_SECONDS = 5;
+    private static final Pattern CARD_ID = Pattern.compile("\"card\":\\{\"id\":(\\d+)");
+
+    private enum Endpoint { NEXT, ANSWER, COMMIT }
+
+    public static void main(String[] args) throws Exception {
+
+        int users = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : ReviewServer.getDefaultThreads();
+
+        SampleDecks.useTemporaryHome();
+        Helper helper = new Helper();
+        helper.createDirectories();
+        List<String> userNames = new ArrayList<>();
+        for (int i = 1; i <= users; i++) {
+            String user = "Last" + i;
+            userNames.add(user);
+            helper.saveDeckToFile(SampleDecks.createDeck("Laststapel" + i, DECK_SIZE, user));
+        }
+        //Wie ein gerade über DeckAddController angelegter Stapel
+        helper.saveDeckToFile(new Deck("Leerer Stapel", new ArrayList<>(), userNames.get(0)));
+        helper.saveUsersToFile(userNames);
+        DeckRepository.getInstance().close();
+
+        ReviewServer server = new ReviewServer(0, threads);
+        server.start();
+        String baseUrl = "http://localhost:" + server.getPort() + "/users/";
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        checkEmptyDeck(client, baseUrl + userNames.get(0) + "/decks");
+
+        long start = System.nanoTime();
+        long measureFrom = start + WARMUP_SECONDS * 1_000_000_000L;
+        long end = measureFrom + seconds * 1_000_000_000L;
+        AtomicInteger errors = new AtomicInteger();
+        Recorder[] recorders = new Recorder[users];
+        CountDownLatch finished = new CountDownLatch(users);
+        for (int i = 0; i < users; i++) {
+            Recorder recorder = new Recorder();
+            recorders[i] = recorder;
+            String deckUrl = baseUrl + userNames.get(i) + "/decks/Laststapel" + (i + 1) + "/";
+            Thread thread = new Thread(() -> {
+                try {
+                    practice(client, deckUrl, recorder, measureFrom, end, errors);
+                } finally {
+                    finished.countDown();
+                }
+            }, "Lasttest-" + (i + 1));
+            thread.start();
+        }
+        finished.await();
+        server.stop();
+        DeckRepository.getInstance().close();
+
+        System.out.println(users + " Benutzer, " + threads + " Serverthreads, " + seconds + " s gemessen, "
+                + errors.get() + " Fehler");
+        System.out.printf("%-8s %10s %10s %10s %10s %10s %10s%n", "Endpunkt", "Anfragen", "pro s", "p50 µs",
+                "p99 µs", "p99.9 µs", "max µs");
+        long[] all = new long[0];
+        for (Endpoint endpoint : Endpoint.values()) {
+            long[] latencies = merge(recorders, endpoint);
+            print(endpoint.name(), latencies, seconds);
+            all = concat(all, latencies);
+        }
+        print("gesamt", all, seconds);
+        System.exit(0);
+    }
+
+    //Die Stapelliste muss auch mit einem leeren Stapel gelingen
+    private static void checkEmptyDeck(HttpClient client, String url) throws Exception {
+
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(url)).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        String expected = "{\"name\":\"Leerer Stapel\",\"owner\":\"Last1\",\"cards\":0,\"nextDue\":null}";
+        if (response.statusCode() != 200 || !response.body().contains(expected)) {
+            throw new IllegalStateException("Stapelliste mit leerem Stapel fehlerhaft: " + response.statusCode() + " "
+                    + response.body());
+        }
+    }
+
+    //Ein Benutzer: Karte holen und bewerten, bis die Zeit abgelaufen ist
+    private static void practice(HttpClient client, String deckUrl, Recorder recorder, long measureFrom, long end,
+                                 AtomicInteger errors) {
+
+        int grade = 0;
+        int answers = 0;
+        while (System.nanoTime() < end) {
+            try {
+                String next = send(client, HttpRequest.newBuilder(URI.create(deckUrl + "next")).GET(),
+                        Endpoint.NEXT, recorder, measureFrom, errors);
+                Matcher matcher = next == null ? null : CARD_ID.matcher(next);
+                if (matcher == null || !matcher.find() || ++answers > ANSWERS) {
+                    answers = 0;
+                    send(client, post(deckUrl + "commit", ""), Endpoint.COMMIT, recorder, measureFrom, errors);
+                    continue;
+                }
+                grade = grade == 4 ? 1 : grade + 1;
+                send(client, post(deckUrl + "answer", "{\"card\":" + matcher.group(1) + ",\"grade\":" + grade + "}"),
+                        Endpoint.ANSWER, recorder, measureFrom, errors);
+            } catch (Exception ex) {
+                errors.incrementAndGet();
+            }
+        }
+    }
+
+    private static HttpRequest.Builder post(String url, String body) {
+        return HttpRequest.newBuilder(URI.create(url)).POST(HttpRequest.BodyPublishers.ofString(body));
+    }
+
+    //Gibt den Text der Antwort zurück oder null bei einem Fehler
+    private static String send(HttpClient client, HttpRequest.Builder request, Endpoint endpoint, Recorder recorder,
+                               long measureFrom, AtomicInteger errors) throws Exception {
+
+        long start = System.nanoTime();
+        HttpResponse<String> response = client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+        long now = System.nanoTime();
+        if (start >= measureFrom) {
+            recorder.add(endpoint, (now - start) / 1000);
+        }
+        if (response.statusCode() != 200) {
+            //Eine leere Runde lässt sich nicht beenden, bevor next() sie gestartet hat
+            if (endpoint != Endpoint.COMMIT) {
+                errors.incrementAndGet();
+            }
+            return null;
+        }
+        return response.body();
+    }
+
+    private static void print(String name, long[] latencies, int seconds) {
+
+        Arrays.sort(latencies);
+        System.out.printf("%-8s %10d %10.0f %10d %10d %10d %10d%n", name, latencies.length,
+                latencies.length / (double) seconds, percentile(latencies, 0.5), percentile(latencies, 0.99),
+                percentile(latencies, 0.999), latencies.length == 0 ? 0 : latencies[latencies.length - 1]);
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        return sorted.length == 0 ? 0 : sorted[(int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1)];
+    }
+
+    private static long[] merge(Recorder[] recorders, Endpoint endpoint) {
+
+        long[] merged = new long[0];
+        for (Recorder recorder : recorders) {
+            merged = concat(merged, Arrays.copyOf(recorder.latencies[endpoint.ordinal()],
+                    recorder.counts[endpoint.ordinal()]));
+        }
+        return merged;
+    }
+
+    private static long[] concat(long[] first, long[] second) {
+
+        long[] result = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, result, first.length, second.length);
+        return result;
+    }
+
+    //Antwortzeiten eines Benutzers in Mikrosekunden, je Endpunkt. Wird nur von dessen Thread beschrieben.
+    private static final class Recorder {
+
+        private final long[][] latencies = new long[Endpoint.values().length][1024];
+        private final int[] counts = new int[Endpoint.values().length];
+
+        private void add(Endpoint endpoint, long micros) {
+
+            int index = endpoint.ordinal();
+            if (counts[index] == latencies[index].length) {
+                latencies[index] = Arrays.copyOf(latencies[index], 2 * counts[index]);
+            }
+            latencies[index][counts[index]++] = micros;
+        }
+    }
+}
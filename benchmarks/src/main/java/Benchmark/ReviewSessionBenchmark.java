@@ -0,0 +1,82 @@
+package Benchmark;
+
+import Model.DeckRepository;
+import Model.Flashcard;
+import Model.Helper;
+import Model.ReviewEngine;
+import Model.ReviewSession;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+//Simulierte Übungsrunden über Model.ReviewEngine ohne Oberfläche: Runde starten, ANSWERS Karten
+//beantworten, Runde beenden. Jeder JMH-Thread ist ein eigener Benutzer mit eigenem Stapel, mit "-t 8"
+//laufen also 8 Benutzer gleichzeitig. Gemessen wird die Zeit für SESSIONS Runden pro Thread und Durchgang.
+//
+//Da beantwortete Karten in der Zukunft liegen, wird der Stapel vor jedem Durchgang neu erzeugt.
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, batchSize = ReviewSessionBenchmark.SESSIONS)
+@Measurement(iterations = 10, batchSize = ReviewSessionBenchmark.SESSIONS)
+@Fork(value = 1, jvmArgsAppend = "-Dflashcards.fsync=ON_EXIT")
+@State(Scope.Thread)
+public class ReviewSessionBenchmark {
+
+    static final int SESSIONS = 1000;
+    private static final int ANSWERS = 10;
+    private static final AtomicInteger USERS = new AtomicInteger();
+
+    @Param({"50000"})
+    private int size;
+
+    private String user;
+    private String deckName;
+    private int grade;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+
+        SampleDecks.useTemporaryHome();
+        int number = USERS.incrementAndGet();
+        user = "Benutzer" + number;
+        deckName = "Sitzung" + number;
+        Helper helper = new Helper();
+        helper.createDirectories();
+        helper.saveDeckToFile(SampleDecks.createDeck(deckName, size, user));
+        DeckRepository.getInstance().close();
+    }
+
+    //Die Hälfte der Karten ist fällig, das reicht für alle Runden eines Durchgangs
+    @Setup(Level.Iteration)
+    public void resetDeck() {
+        DeckRepository.getInstance().put(SampleDecks.createDeck(deckName, size, user));
+    }
+
+    @Benchmark
+    public int session() {
+
+        ReviewSession session = ReviewEngine.getInstance().start(user, deckName);
+        for (int i = 0; i < ANSWERS; i++) {
+            Flashcard card = session.next();
+            if (card == null) {
+                break;
+            }
+            grade = grade == ReviewSession.MAX_GRADE ? 1 : grade + 1;
+            session.answer(card.getId(), grade);
+        }
+        session.commit();
+        return session.getReviewedCards();
+    }
+}
@@ -0,0 +1,61 @@
+package Benchmark;
+
+import Model.Deck;
+import Model.Flashcard;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+//Erzeugt Stapel für die Benchmarks und lenkt die Speicherdateien in einen temporären Ordner um.
+public final class SampleDecks {
+
+    public static final String OWNER = "Benchmark";
+
+    private static Path homeDirectory;
+
+    private SampleDecks() {
+    }
+
+    //Erzeugt Karten ähnlich wie Helper.createSampleDeck, aber mit eindeutigen Vorderseiten und
+    //unterschiedlichen Leveln und Abfragedaten. Gleiche Größe ergibt immer den gleichen Stapel.
+    public static Deck createDeck(String name, int size) {
+        return createDeck(name, size, OWNER);
+    }
+
+    public static Deck createDeck(String name, int size, String owner) {
+
+        Random random = new Random(42);
+        List<Flashcard> cards = new ArrayList<>(size);
+        long now = System.currentTimeMillis();
+
+        for (int i = 0; i < size; i++) {
+            Flashcard card = new Flashcard(front(i), "Antwort " + random.nextInt(100000));
+            card.setLevel(random.nextInt(10));
+            card.setDifficulty(random.nextInt(4));
+            card.setRepetitionDate(new Date(now + random.nextInt(1_000_000_000) - 500_000_000));
+            cards.add(card);
+        }
+        return new Deck(name, cards, owner);
+    }
+
+    //Vorderseite der i-ten Karte aus createDeck()
+    public static String front(int i) {
+        return "Frage " + i;
+    }
+
+    //Model.Helper legt die Stapel unterhalb von user.home ab. Der Ordner wird daher vor dem ersten Zugriff auf
+    //das Model umgestellt; JMH startet jeden Benchmark in einer eigenen JVM, dort gilt er dann für alle Klassen.
+    public static synchronized Path useTemporaryHome() throws IOException {
+
+        if (homeDirectory == null) {
+            homeDirectory = Files.createTempDirectory("flashcardsbenchmark");
+            System.setProperty("user.home", homeDirectory.toString());
+        }
+        return homeDirectory;
+    }
+}
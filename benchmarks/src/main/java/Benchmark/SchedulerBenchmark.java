@@ -0,0 +1,67 @@
+package Benchmark;
+
+import Model.Deck;
+import Model.DeckCodec;
+import Model.FsrsScheduler;
+import Model.LadderScheduler;
+import Model.Scheduler;
+import Model.Sm2Scheduler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+//Neuplanen eines ganzen Stapels beim Wechsel des Verfahrens (Deck.reschedule), für beide Arten, die Karten
+//im Speicher zu halten. Abwechselnd wird von ladder auf sm2, fsrs und zurück umgestellt.
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class SchedulerBenchmark {
+
+    @Param({"100000", "1000000"})
+    private int size;
+
+    @Param({"false", "true"})
+    private boolean columnar;
+
+    private final Scheduler[] schedulers = {new LadderScheduler(), new Sm2Scheduler(), new FsrsScheduler()};
+    private Deck deck;
+    private int current;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+
+        Path home = SampleDecks.useTemporaryHome();
+        System.setProperty("flashcards.columnarThreshold", columnar ? "0" : Integer.toString(Integer.MAX_VALUE));
+        System.setProperty("flashcards.mappedThreshold", Integer.toString(Integer.MAX_VALUE));
+        Path file = home.resolve("scheduler" + size + ".txt");
+        DeckCodec.write(SampleDecks.createDeck("Benchmark", size), file);
+        deck = DeckCodec.read(file);
+        if (deck.isColumnar() != columnar) {
+            throw new IllegalStateException("Model.DeckCodec wurde vor dem Setzen von columnarThreshold geladen.");
+        }
+    }
+
+    @Benchmark
+    public Deck reschedule() {
+
+        int next = (current + 1) % schedulers.length;
+        deck.reschedule(schedulers[current], schedulers[next]);
+        current = next;
+        return deck;
+    }
+}
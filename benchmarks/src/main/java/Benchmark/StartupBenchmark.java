@@ -0,0 +1,116 @@
+package Benchmark;
+
+import Model.DeckRepository;
+import Model.Helper;
+import Model.StartupTimer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+//Misst die Startzeit des Programms bis zum ersten Bild (time-to-first-frame, siehe Model.StartupTimer). Jeder
+//Start ist eine eigene JVM, daher kein JMH-Benchmark. Gemessen wird abwechselnd ohne und mit AppCDS-Archiv;
+//das Archiv entsteht vorher in einem Trainingslauf mit -XX:ArchiveClassesAtExit (Java 13 oder neuer).
+//
+//  java -cp benchmarks/target/benchmarks.jar Benchmark.StartupBenchmark [Starts]
+//
+//Braucht eine Anzeige, da das Hauptfenster wirklich geöffnet wird.
+public class StartupBenchmark {
+
+    private static final int DECKS = 200;
+    private static final int CARDS_PER_DECK = 200;
+    private static final long TIMEOUT_SECONDS = 60;
+
+    public static void main(String[] args) throws Exception {
+
+        int runs = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+
+        //Stapel und Benutzer in einem eigenen Ordner, wie bei einem Benutzer mit vielen Stapeln
+        Path home = SampleDecks.useTemporaryHome();
+        Helper helper = new Helper();
+        helper.createDirectories();
+        for (int i = 0; i < DECKS; i++) {
+            helper.saveDeckToFile(SampleDecks.createDeck("Start" + i, CARDS_PER_DECK));
+        }
+        helper.saveUsersToFile(new ArrayList<>(Collections.singletonList(SampleDecks.OWNER)));
+        DeckRepository.getInstance().close();
+
+        List<String> variants = new ArrayList<>();
+        variants.add("ohne AppCDS");
+        Path archive = home.resolve("flashcards.jsa");
+        if (Runtime.version().feature() >= 13) {
+            start(home, "-XX:ArchiveClassesAtExit=" + archive);
+            if (Files.exists(archive)) {
+                variants.add("mit AppCDS");
+            }
+        }
+        if (variants.size() == 1) {
+            System.out.println("Kein AppCDS-Archiv erstellt (Java " + Runtime.version().feature()
+                    + "), gemessen wird nur ohne Archiv.");
+        }
+
+        //Ein Start je Variante zum Aufwärmen von Festplatten-Cache und Archiv
+        long[][] millis = new long[variants.size()][runs];
+        for (int run = -1; run < runs; run++) {
+            for (int variant = 0; variant < variants.size(); variant++) {
+                long firstFrame = variant == 0 ? start(home) : start(home, "-XX:SharedArchiveFile=" + archive);
+                if (run >= 0) {
+                    millis[variant][run] = firstFrame;
+                }
+            }
+        }
+
+        System.out.println(runs + " Starts je Variante, " + DECKS + " Stapel");
+        System.out.printf("%-12s %8s %8s %8s %8s%n", "Variante", "min ms", "p50 ms", "p90 ms", "max ms");
+        for (int variant = 0; variant < variants.size(); variant++) {
+            long[] sorted = millis[variant].clone();
+            Arrays.sort(sorted);
+            System.out.printf("%-12s %8d %8d %8d %8d%n", variants.get(variant), sorted[0],
+                    sorted[(runs - 1) / 2], sorted[(int) Math.ceil(0.9 * runs) - 1], sorted[runs - 1]);
+        }
+    }
+
+    //Startet das Programm in einer neuen JVM und gibt die Zeit bis zum ersten Bild zurück
+    private static long start(Path home, String... jvmOptions) throws IOException, InterruptedException {
+
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(Arrays.asList(jvmOptions));
+        command.add("-Duser.home=" + home);
+        command.add("-Dflashcards.exitAfterFirstFrame=true");
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(StartupProbe.class.getName());
+
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        long firstFrame = -1;
+        List<String> output = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(),
+                StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith(StartupTimer.OUTPUT_PREFIX)) {
+                    firstFrame = Long.parseLong(line.substring(StartupTimer.OUTPUT_PREFIX.length()).trim());
+                } else if (output.size() < 20) {
+                    output.add(line);
+                }
+            }
+        }
+        if (!process.waitFor(TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            process.destroyForcibly();
+        }
+        if (firstFrame < 0) {
+            throw new IOException("Programm hat kein erstes Bild gemeldet:\n" + String.join("\n", output));
+        }
+        return firstFrame;
+    }
+}
@@ -0,0 +1,13 @@
+package Benchmark;
+
+import javafx.application.Application;
+
+//Startet das Programm (Main aus dem Standardpaket) aus dem Jar der Benchmarks, für Benchmark.StartupBenchmark.
+//Main selbst kann hier nicht die Hauptklasse sein: Erbt sie von Application, erwartet der Java-Launcher JavaFX
+//auf dem Modulpfad.
+public class StartupProbe {
+
+    public static void main(String[] args) throws Exception {
+        Application.launch(Class.forName("Main").asSubclass(Application.class), args);
+    }
+}
@@ -0,0 +1,262 @@
+package Server;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+//Minimales JSON für die Schnittstelle: Antworten werden mit einem StringBuilder geschrieben, Anfragen sind
+//immer ein flaches Objekt aus Texten und Zahlen, z.B. {"card": 12, "grade": 2}. Verschachtelte Objekte und
+//Listen werden in Anfragen nicht gebraucht und als Fehler behandelt.
+final class Json {
+
+    private final StringBuilder builder = new StringBuilder(256);
+    //Vor dem nächsten Wert bzw. Namen muss ein Komma stehen
+    private boolean needsComma;
+
+    Json beginObject() {
+
+        separate();
+        builder.append('{');
+        needsComma = false;
+        return this;
+    }
+
+    Json endObject() {
+
+        builder.append('}');
+        needsComma = true;
+        return this;
+    }
+
+    Json beginArray() {
+
+        separate();
+        builder.append('[');
+        needsComma = false;
+        return this;
+    }
+
+    Json endArray() {
+
+        builder.append(']');
+        needsComma = true;
+        return this;
+    }
+
+    Json name(String name) {
+
+        separate();
+        appendString(name);
+        builder.append(':');
+        needsComma = false;
+        return this;
+    }
+
+    Json value(String value) {
+
+        separate();
+        if (value == null) {
+            builder.append("null");
+        } else {
+            appendString(value);
+        }
+        needsComma = true;
+        return this;
+    }
+
+    Json value(long value) {
+
+        separate();
+        builder.append(value);
+        needsComma = true;
+        return this;
+    }
+
+    Json value(boolean value) {
+
+        separate();
+        builder.append(value);
+        needsComma = true;
+        return this;
+    }
+
+    Json field(String name, String value) {
+        return name(name).value(value);
+    }
+
+    Json field(String name, long value) {
+        return name(name).value(value);
+    }
+
+    Json field(String name, boolean value) {
+        return name(name).value(value);
+    }
+
+    @Override
+    public String toString() {
+        return builder.toString();
+    }
+
+    private void separate() {
+
+        if (needsComma) {
+            builder.append(',');
+        }
+    }
+
+    //Wie DeckExporter.writeJsonString()
+    private void appendString(String value) {
+
+        builder.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    builder.append("\\\"");
+                    break;
+                case '\\':
+                    builder.append("\\\\");
+                    break;
+                case '\n':
+                    builder.append("\\n");
+                    break;
+                case '\r':
+                    builder.append("\\r");
+                    break;
+                case '\t':
+                    builder.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        builder.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        builder.append(c);
+                    }
+            }
+        }
+        builder.append('"');
+    }
+
+    //Liest ein flaches Objekt. Zahlen bleiben Texte und werden erst beim Abfragen umgewandelt.
+    static Map<String, String> parseObject(String text) throws IOException {
+
+        Map<String, String> fields = new HashMap<>();
+        Parser parser = new Parser(text);
+        parser.expect('{');
+        if (parser.peek() == '}') {
+            parser.position++;
+        } else {
+            do {
+                String name = parser.readString();
+                parser.expect(':');
+                fields.put(name, parser.readValue());
+            } while (parser.next() == ',');
+            parser.position--;
+            parser.expect('}');
+        }
+        if (parser.peek() != 0) {
+            throw new IOException("Unerwartete Zeichen nach dem Objekt");
+        }
+        return fields;
+    }
+
+    private static final class Parser {
+
+        private final String text;
+        private int position;
+
+        private Parser(String text) {
+            this.text = text;
+        }
+
+        //Nächstes Zeichen ohne Leerzeichen, 0 am Ende
+        private char peek() {
+
+            while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+                position++;
+            }
+            return position < text.length() ? text.charAt(position) : 0;
+        }
+
+        private char next() {
+
+            char c = peek();
+            position++;
+            return c;
+        }
+
+        private void expect(char expected) throws IOException {
+
+            if (next() != expected) {
+                throw new IOException("'" + expected + "' erwartet an Position " + (position - 1));
+            }
+        }
+
+        private String readValue() throws IOException {
+
+            char c = peek();
+            if (c == '"') {
+                return readString();
+            }
+            int start = position;
+            while (position < text.length() && "+-.0123456789eE".indexOf(text.charAt(position)) >= 0) {
+                position++;
+            }
+            if (start == position) {
+                throw new IOException("Text oder Zahl erwartet an Position " + start);
+            }
+            return text.substring(start, position);
+        }
+
+        private String readString() throws IOException {
+
+            expect('"');
+            StringBuilder value = new StringBuilder();
+            while (position < text.length()) {
+                char c = text.charAt(position++);
+                if (c == '"') {
+                    return value.toString();
+                }
+                if (c != '\\') {
+                    value.append(c);
+                    continue;
+                }
+                if (position >= text.length()) {
+                    break;
+                }
+                char escaped = text.charAt(position++);
+                switch (escaped) {
+                    case 'n':
+                        value.append('\n');
+                        break;
+                    case 'r':
+                        value.append('\r');
+                        break;
+                    case 't':
+                        value.append('\t');
+                        break;
+                    case 'b':
+                        value.append('\b');
+                        break;
+                    case 'f':
+                        value.append('\f');
+                        break;
+                    case 'u':
+                        if (position + 4 > text.length()) {
+                            throw new IOException("Unvollständiges \\u an Position " + position);
+                        }
+                        try {
+                            value.append((char) Integer.parseInt(text.substring(position, position + 4), 16));
+                        } catch (NumberFormatException ex) {
+                            throw new IOException("Ungültiges \\u an Position " + position);
+                        }
+                        position += 4;
+                        break;
+                    default:
+                        value.append(escaped);
+                }
+            }
+            throw new IOException("Text nicht abgeschlossen");
+        }
+    }
+}
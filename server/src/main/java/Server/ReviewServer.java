@@ -0,0 +1,436 @@
+package Server;
+
+import Model.Data;
+import Model.Deck;
+import Model.DeckHeader;
+import Model.DeckMigrator;
+import Model.DeckRepository;
+import Model.Flashcard;
+import Model.Helper;
+import Model.LogHelper;
+import Model.ReviewEngine;
+import Model.ReviewSession;
+import Model.StatsService;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+
+//HTTP/JSON-Schnittstelle, über die viele Benutzer gleichzeitig üben, ohne JavaFX. Dahinter liegt dasselbe Model
+//wie in der Oberfläche: Stapel aus dem Model.DeckRepository (gespeichert über Model.Helper und den
+//Model.DeckWriter), Übungsrunden aus der Model.ReviewEngine. Jede Anfrage läuft auf einem Thread des Pools;
+//gleichzeitige Zugriffe auf denselben Stapel regelt die Sperre des Stapels im Model.DeckRepository.
+//Der Server prüft keine Anmeldung und ist daher nur über Loopback erreichbar, außer es wird mit
+//-Dflashcards.serverHost eine andere Adresse angegeben.
+//
+//  GET  /users                                   Benutzer
+//  GET  /users/{user}/decks                      Stapel des Benutzers inklusive Beispielstapel
+//  GET  /users/{user}/decks/{deck}/cards         Karten, mit ?offset=0&limit=100
+//  POST /users/{user}/decks/{deck}/cards         neue Karte, {"front": "...", "back": "..."}
+//  GET  /users/{user}/decks/{deck}/next          nächste fällige Karte der Übungsrunde (startet sie falls nötig)
+//  POST /users/{user}/decks/{deck}/answer        Karte bewerten, {"card": 12, "grade": 2}
+//  POST /users/{user}/decks/{deck}/commit        Übungsrunde beenden, wartet bis alle Antworten gespeichert sind
+//
+//Fehler werden mit passendem Statuscode als {"error": "..."} beantwortet.
+public class ReviewServer {
+
+    public static final int DEFAULT_PORT = 8080;
+    private static final int DEFAULT_LIMIT = 100;
+    private static final int MAX_LIMIT = 1000;
+    private static final int MAX_BODY_BYTES = 64 * 1024;
+    private static final int BACKLOG = 256;
+
+    static {
+        //Der Server schreibt Kopf und Inhalt der Antwort getrennt. Mit Nagle wartet der Inhalt auf das verzögerte
+        //ACK des Clients, jede Anfrage dauert dann ca. 40 ms. Muss vor dem ersten HttpServer gesetzt sein.
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    //Nur über Loopback erreichbar, port 0 = freier Port, siehe getPort()
+    public ReviewServer(int port, int threads) throws IOException {
+        this(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), threads);
+    }
+
+    public ReviewServer(InetSocketAddress address, int threads) throws IOException {
+
+        server = HttpServer.create(address, BACKLOG);
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "ReviewServer-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext("/users", this::handle);
+    }
+
+    public void start() {
+
+        server.start();
+        LogHelper.writeToLog(Level.INFO, "Server läuft auf Port " + getPort());
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    //Beendet den Server. Laufende Anfragen bekommen bis zu einer Sekunde Zeit.
+    public void stop() {
+
+        server.stop(1);
+        executor.shutdown();
+    }
+
+    //Port über -Dflashcards.serverPort, Anzahl der Threads über -Dflashcards.serverThreads. Ohne
+    //-Dflashcards.serverHost (z.B. 0.0.0.0 für alle Schnittstellen) ist der Server nur über Loopback erreichbar.
+    public static void main(String[] args) throws IOException {
+
+        Helper helper = new Helper();
+        helper.createDirectories();
+        new DeckMigrator(helper).migrateAll();
+        //Vor der ersten Antwort, damit Änderungen an den Stapeln nicht nur die Statistik verwerfen
+        StatsService.getInstance().load();
+
+        int port = Integer.getInteger("flashcards.serverPort", DEFAULT_PORT);
+        int threads = Integer.getInteger("flashcards.serverThreads", getDefaultThreads());
+        String host = System.getProperty("flashcards.serverHost");
+        ReviewServer server = host == null ? new ReviewServer(port, threads)
+                : new ReviewServer(new InetSocketAddress(host, port), threads);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop();
+            DeckRepository.getInstance().close();
+            LogHelper.flush();
+        }, "ReviewServerShutdown"));
+        server.start();
+        System.out.println("Server läuft auf http://localhost:" + server.getPort() + "/users mit " + threads
+                + " Threads");
+    }
+
+    //Die Anfragen warten kaum auf die Festplatte (geschrieben wird im Hintergrund), mehr Threads als Kerne
+    //helfen nur über kurze Wartezeiten auf die Sperren hinweg
+    public static int getDefaultThreads() {
+        return Math.max(4, 2 * Runtime.getRuntime().availableProcessors());
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+
+        int status;
+        String body;
+        try {
+            body = route(exchange);
+            status = 200;
+        } catch (RequestException ex) {
+            status = ex.status;
+            body = new Json().beginObject().field("error", ex.getMessage()).endObject().toString();
+        } catch (Exception ex) {
+            LogHelper.writeToLog(Level.INFO, "Fehler bei " + exchange.getRequestMethod() + " "
+                    + exchange.getRequestURI() + ": " + ex);
+            status = 500;
+            body = new Json().beginObject().field("error", "Interner Fehler").endObject().toString();
+        }
+
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(bytes);
+        }
+    }
+
+    private String route(HttpExchange exchange) throws Exception {
+
+        //Der Pfad ist bereits dekodiert, Stapelnamen dürfen also Leerzeichen enthalten
+        String[] parts = exchange.getRequestURI().getPath().split("/");
+        String method = exchange.getRequestMethod();
+        //parts[0] ist leer, parts[1] ist "users"
+        if (parts.length < 2 || !parts[1].equals("users")) {
+            throw new RequestException(404, "Unbekannter Pfad");
+        }
+        if (parts.length == 2) {
+            requireMethod(method, "GET");
+            return listUsers();
+        }
+        String user = parts[2];
+        requireUser(user);
+        if (parts.length == 4 && parts[3].equals("decks")) {
+            requireMethod(method, "GET");
+            return listDecks(user);
+        }
+        if (parts.length != 6 || !parts[3].equals("decks")) {
+            throw new RequestException(404, "Unbekannter Pfad");
+        }
+
+        String deckName = parts[4];
+        switch (parts[5]) {
+            case "cards":
+                if (method.equals("POST")) {
+                    return addCard(user, deckName, readBody(exchange));
+                }
+                requireMethod(method, "GET");
+                return listCards(user, deckName, parseQuery(exchange.getRequestURI().getRawQuery()));
+            case "next":
+                requireMethod(method, "GET");
+                return nextCard(user, deckName);
+            case "answer":
+                requireMethod(method, "POST");
+                return answer(user, deckName, readBody(exchange));
+            case "commit":
+                requireMethod(method, "POST");
+                return commit(user, deckName);
+            default:
+                throw new RequestException(404, "Unbekannter Pfad");
+        }
+    }
+
+    private String listUsers() throws Exception {
+
+        Json json = new Json().beginObject().name("users").beginArray();
+        for (String user : Data.loadAllUsers().get()) {
+            json.value(user);
+        }
+        return json.endArray().endObject().toString();
+    }
+
+    private String listDecks(String user) {
+
+        Json json = new Json().beginObject().name("decks").beginArray();
+        for (DeckHeader header : DeckRepository.getInstance().getHeadersOfOwner(user)) {
+            json.beginObject()
+                    .field("name", header.getName())
+                    .field("owner", header.getOwner())
+                    .field("cards", header.getCardCount())
+                    .name("nextDue");
+            //Leere Stapel (z.B. gerade angelegte) haben kein nächstes Abfragedatum
+            Date nextDue = header.getEarliestRepetitionDate();
+            if (nextDue == null) {
+                json.value((String) null);
+            } else {
+                json.value(nextDue.getTime());
+            }
+            json.endObject();
+        }
+        return json.endArray().endObject().toString();
+    }
+
+    private String listCards(String user, String deckName, Map<String, String> query) throws RequestException {
+
+        Deck deck = getDeck(user, deckName);
+        int offset = parseInt(query.getOrDefault("offset", "0"), "offset");
+        int limit = Math.min(MAX_LIMIT, parseInt(query.getOrDefault("limit", String.valueOf(DEFAULT_LIMIT)), "limit"));
+        if (offset < 0 || limit < 0) {
+            throw new RequestException(400, "offset und limit dürfen nicht negativ sein");
+        }
+
+        List<Flashcard> cards = new ArrayList<>(limit);
+        DeckRepository.getInstance().copyCards(deck, null, offset, cards, limit);
+        Json json = new Json().beginObject()
+                .field("deck", deckName)
+                .field("total", deck.getLength())
+                .name("cards").beginArray();
+        for (Flashcard card : cards) {
+            writeCard(json, card);
+        }
+        return json.endArray().endObject().toString();
+    }
+
+    private String addCard(String user, String deckName, Map<String, String> body) throws RequestException {
+
+        Deck deck = getDeck(user, deckName);
+        String front = requireField(body, "front");
+        String back = requireField(body, "back");
+        if (front.isEmpty() || back.isEmpty()) {
+            throw new RequestException(400, "Vorder- und Rückseite dürfen nicht leer sein");
+        }
+        Flashcard card = new Flashcard(front, back);
+        if (!DeckRepository.getInstance().addCardIfAbsent(deck, card)) {
+            throw new RequestException(409, "Karte " + front + " ist bereits vorhanden");
+        }
+        return writeCard(new Json(), card).toString();
+    }
+
+    private String nextCard(String user, String deckName) throws RequestException {
+
+        ReviewSession session = getOpenSession(user, deckName);
+        if (session == null) {
+            session = ReviewEngine.getInstance().start(user, deckName);
+            if (session == null) {
+                throw new RequestException(404, "Stapel " + deckName + " nicht gefunden");
+            }
+        }
+        Flashcard card = session.next();
+        Json json = new Json().beginObject().name("card");
+        if (card == null) {
+            json.value((String) null);
+        } else {
+            writeCard(json, card);
+        }
+        return json.field("remaining", session.countRemaining()).endObject().toString();
+    }
+
+    private String answer(String user, String deckName, Map<String, String> body) throws RequestException {
+
+        ReviewSession session = getOpenSession(user, deckName);
+        if (session == null) {
+            throw new RequestException(409, "Keine offene Übungsrunde mit " + deckName);
+        }
+        int cardId = parseInt(requireField(body, "card"), "card");
+        int grade = parseInt(requireField(body, "grade"), "grade");
+        if (!session.answer(cardId, grade)) {
+            throw new RequestException(409, "Karte " + cardId + " kann nicht mit " + grade + " bewertet werden");
+        }
+        return new Json().beginObject()
+                .field("reviewed", session.getReviewedCards())
+                .field("remaining", session.countRemaining())
+                .endObject().toString();
+    }
+
+    private String commit(String user, String deckName) throws Exception {
+
+        ReviewSession session = getOpenSession(user, deckName);
+        if (session == null) {
+            throw new RequestException(409, "Keine offene Übungsrunde mit " + deckName);
+        }
+        int reviewed = session.commit().get();
+        return new Json().beginObject().field("reviewed", reviewed).endObject().toString();
+    }
+
+    //Offene Runde des Benutzers mit diesem Stapel oder null
+    private static ReviewSession getOpenSession(String user, String deckName) {
+
+        ReviewSession session = ReviewEngine.getInstance().getSession(user);
+        if (session == null || session.isCommitted() || !session.getDeck().getName().equals(deckName)) {
+            return null;
+        }
+        return session;
+    }
+
+    private static Deck getDeck(String user, String deckName) throws RequestException {
+
+        DeckRepository repository = DeckRepository.getInstance();
+        for (DeckHeader header : repository.getHeadersOfOwner(user)) {
+            if (header.getName().equals(deckName)) {
+                Deck deck = repository.getDeck(deckName);
+                if (deck != null) {
+                    return deck;
+                }
+            }
+        }
+        throw new RequestException(404, "Stapel " + deckName + " nicht gefunden");
+    }
+
+    private static Json writeCard(Json json, Flashcard card) {
+
+        return json.beginObject()
+                .field("id", card.getId())
+                .field("front", card.getFront())
+                .field("back", card.getBack())
+                .field("level", card.getLevel())
+                .field("difficulty", card.getDifficulty())
+                .field("learned", card.getLearned())
+                .field("due", card.getRepetitionDate().getTime())
+                .endObject();
+    }
+
+    private static void requireUser(String user) throws Exception {
+
+        if (!Data.loadAllUsers().get().contains(user)) {
+            throw new RequestException(404, "Benutzer " + user + " nicht gefunden");
+        }
+    }
+
+    private static void requireMethod(String method, String expected) throws RequestException {
+
+        if (!method.equals(expected)) {
+            throw new RequestException(405, "Nur " + expected + " erlaubt");
+        }
+    }
+
+    private static String requireField(Map<String, String> body, String name) throws RequestException {
+
+        String value = body.get(name);
+        if (value == null) {
+            throw new RequestException(400, "Feld " + name + " fehlt");
+        }
+        return value;
+    }
+
+    private static int parseInt(String value, String name) throws RequestException {
+
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException ex) {
+            throw new RequestException(400, name + " ist keine Zahl: " + value);
+        }
+    }
+
+    private static Map<String, String> readBody(HttpExchange exchange) throws IOException, RequestException {
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (InputStream input = exchange.getRequestBody()) {
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                bytes.write(buffer, 0, read);
+                if (bytes.size() > MAX_BODY_BYTES) {
+                    throw new RequestException(413, "Anfrage ist zu groß");
+                }
+            }
+        }
+        try {
+            return Json.parseObject(bytes.toString(StandardCharsets.UTF_8));
+        } catch (IOException ex) {
+            throw new RequestException(400, "Ungültiges JSON: " + ex.getMessage());
+        }
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null) {
+            return query;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int separator = pair.indexOf('=');
+            if (separator > 0) {
+                query.put(URLDecoder.decode(pair.substring(0, separator), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(separator + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return query;
+    }
+
+    //Fehler, der mit dem Statuscode an den Aufrufer geht
+    private static final class RequestException extends Exception {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int status;
+
+        private RequestException(int status, String message) {
+
+            super(message);
+            this.status = status;
+        }
+    }
+}
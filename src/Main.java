@@ -1,35 +1,71 @@
 import java.io.IOException;
+import java.util.logging.Level;
+import Model.DeckMigrator;
+import Model.DeckRepository;
+import Model.LogHelper;
 import Model.Helper;
+import Model.PersistenceService;
+import Model.SceneCache;
+import Model.StartupTimer;
+import Model.StatsService;
 import javafx.application.Application;
-import javafx.fxml.FXMLLoader;
-import javafx.scene.Parent;
-import javafx.scene.Scene;
 import javafx.scene.image.Image;
 import javafx.stage.Stage;
 
+//Beim Start wird zuerst das Hauptfenster angezeigt. Ordner, Umwandlung alter Stapel, Stapelindex und Benutzer
+//werden danach im Hintergrund eingelesen, die Dauer bis zum ersten Bild misst Model.StartupTimer.
+//Mit einem AppCDS-Archiv startet die JVM selbst schneller, siehe Profil "cds" in app/pom.xml.
 public class Main extends Application {
 
-    private Helper helper = new Helper();
-
     @Override
     public void start(Stage stage) {
 
-        try {
-            helper.createDirectories();
+        //Läuft auf dem Thread des Model.PersistenceService. Alles, was die Szenen danach dort anfordern
+        //(Benutzer, Stapellisten), wird erst danach ausgeführt und sieht also schon die umgewandelten Stapel.
+        PersistenceService.getInstance().execute(Main::initializeInBackground);
 
-            Parent root = FXMLLoader.load(getClass().getClassLoader().getResource("View/MainWindow.fxml"));
-            Scene scene = new Scene(root);
-            stage.getIcons().add(new Image("View/icon.png"));
+        try {
+            SceneCache sceneCache = SceneCache.getInstance();
+            sceneCache.show(stage, "MainWindow.fxml");
+            //Das Icon wird im Hintergrund dekodiert und erscheint, sobald es fertig ist
+            stage.getIcons().add(new Image("View/icon.png", true));
             stage.setTitle("Flashcards - Projekt von Rafael, Kai & Silas");
-            stage.setScene(scene);
+            StartupTimer.recordFirstFrame(stage.getScene());
             stage.show();
             stage.setResizable(false);
 
+            //Die übrigen Szenen werden erst jetzt im Hintergrund vorgeladen, damit sie dem ersten Bild keine
+            //Rechenzeit wegnehmen; der erste Wechsel wartet trotzdem nicht darauf
+            sceneCache.prewarm("DeckOverview.fxml", "CardOverview.fxml", "PracticeWindow.fxml", "UserEdit.fxml",
+                    "StatsWindow.fxml", "CardAdd.fxml", "CardEdit.fxml", "DeckAdd.fxml", "UserAdd.fxml");
+
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
 
+    private static void initializeInBackground() {
+
+        long start = System.nanoTime();
+        Helper helper = new Helper();
+        helper.createDirectories();
+        new DeckMigrator(helper).migrateAll();
+        //Liest den Stapelindex, damit die erste Stapelliste nicht darauf wartet. Die Benutzer fordert das
+        //Hauptfenster selbst an (Data.loadAllUsers()), sie werden direkt nach diesem Schritt gelesen.
+        DeckRepository.getInstance().isEmpty();
+        //Die Statistik wird hier gelesen, damit die erste Änderung an einem Stapel nicht darauf wartet
+        StatsService.getInstance().load();
+        LogHelper.writeToLog(Level.INFO, () -> "Start im Hintergrund nach " + (System.nanoTime() - start) / 1_000_000
+                + " ms abgeschlossen.");
+    }
+
+    //Wird beim Schließen des Fensters aufgerufen
+    @Override
+    public void stop() {
+        DeckRepository.getInstance().close();
+        LogHelper.flush();
+    }
+
     public static void main(String[] args) {
 
         // In der Main Methode rufen wir launch auf, welches unser Fenster startet
@@ -0,0 +1,186 @@
+package Model;
+
+import javafx.collections.ObservableListBase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+//Karten eines Stapels für eine ListView, ohne alle Karten zu kopieren. Die Liste merkt sich nur die Ids der
+//angezeigten Karten (int[]). Die ListView fragt nur die sichtbaren Zeilen ab. Diese werden seitenweise (PAGE_SIZE
+//Karten) über ihre Id unter der Lesesperre des Stapels kopiert, es bleiben höchstens MAX_PAGES Seiten im Speicher.
+//
+//Welche Karten in welcher Reihenfolge angezeigt werden, steht beim Erstellen fest; die Liste löst keine Änderungen
+//aus. Der Inhalt einer Karte ist der Stand beim Kopieren ihrer Seite, Zeilen inzwischen gelöschter Karten sind
+//null. Nach Änderungen am Stapel wird eine neue Liste erstellt.
+public class CardList extends ObservableListBase<Flashcard> {
+
+    public static final int ALL_LEVELS = -1;
+    public static final long ALL_DATES = Long.MAX_VALUE;
+
+    private static final int PAGE_SIZE = 64;
+    private static final int MAX_PAGES = 16;
+
+    public enum Order {
+
+        DECK("Reihenfolge des Stapels"),
+        LEVEL("Nach Level"),
+        DUE_DATE("Nach Abfragedatum");
+
+        private final String label;
+
+        Order(String label) {
+            this.label = label;
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
+    private final Deck deck;
+    //Ids der angezeigten Karten
+    private final int[] ids;
+    private final Map<Integer, List<Flashcard>> pages = new LinkedHashMap<Integer, List<Flashcard>>(MAX_PAGES, 0.75f,
+            true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, List<Flashcard>> eldest) {
+            return size() > MAX_PAGES;
+        }
+    };
+
+    //Karten mit dem Level level (ALL_LEVELS = alle), die bis dueBefore fällig sind (ALL_DATES = alle),
+    //in der Reihenfolge order.
+    public CardList(Deck deck, int level, long dueBefore, Order order) {
+
+        this.deck = deck;
+        this.ids = DeckRepository.getInstance().selectCards(deck, level, dueBefore, order);
+    }
+
+    public Deck getDeck() {
+        return deck;
+    }
+
+    @Override
+    public Flashcard get(int index) {
+
+        if (index < 0 || index >= ids.length) {
+            throw new IndexOutOfBoundsException("Index " + index + ", Anzahl " + ids.length);
+        }
+        int page = index / PAGE_SIZE;
+        List<Flashcard> cards = pages.get(page);
+        if (cards == null) {
+            cards = new ArrayList<>(PAGE_SIZE);
+            DeckRepository.getInstance().copyCardsById(deck, ids, page * PAGE_SIZE, cards, PAGE_SIZE);
+            pages.put(page, cards);
+        }
+        return cards.get(index % PAGE_SIZE);
+    }
+
+    @Override
+    public int size() {
+        return ids.length;
+    }
+
+    //Sucht die Karten aus, siehe Konstruktor, und gibt ihre Ids zurück. Wird vom Model.DeckRepository unter der
+    //Lesesperre des Stapels aufgerufen.
+    static int[] select(Deck deck, int level, long dueBefore, Order order) {
+
+        int length = deck.getLength();
+        if (level == ALL_LEVELS && dueBefore == ALL_DATES && order == Order.DECK) {
+            int[] ids = new int[length];
+            for (int i = 0; i < length; i++) {
+                ids[i] = deck.getCardId(i);
+            }
+            return ids;
+        }
+
+        int[] selected = new int[length];
+        int count = 0;
+        for (int i = 0; i < length; i++) {
+            if ((level == ALL_LEVELS || deck.getLevel(i) == level) && deck.getRepetitionTime(i) <= dueBefore) {
+                selected[count++] = i;
+            }
+        }
+        if (count < length) {
+            selected = Arrays.copyOf(selected, count);
+        }
+
+        if (order == Order.LEVEL && level == ALL_LEVELS) {
+            selected = sortByLevel(deck, selected);
+        } else if (order == Order.DUE_DATE) {
+            long[] times = new long[selected.length];
+            for (int i = 0; i < selected.length; i++) {
+                times[i] = deck.getRepetitionTime(selected[i]);
+            }
+            sort(selected, times);
+        }
+        for (int i = 0; i < selected.length; i++) {
+            selected[i] = deck.getCardId(selected[i]);
+        }
+        return selected;
+    }
+
+    //Levels liegen zwischen 0 und Scheduler.MAX_LEVEL, daher reicht ein Zählen pro Level.
+    //Karten mit gleichem Level bleiben in der Reihenfolge des Stapels.
+    private static int[] sortByLevel(Deck deck, int[] selected) {
+
+        int[] starts = new int[Scheduler.MAX_LEVEL + 2];
+        for (int position : selected) {
+            starts[clampLevel(deck.getLevel(position)) + 1]++;
+        }
+        for (int i = 1; i < starts.length; i++) {
+            starts[i] += starts[i - 1];
+        }
+        int[] sorted = new int[selected.length];
+        for (int position : selected) {
+            sorted[starts[clampLevel(deck.getLevel(position))]++] = position;
+        }
+        return sorted;
+    }
+
+    private static int clampLevel(int level) {
+        return Math.max(0, Math.min(Scheduler.MAX_LEVEL, level));
+    }
+
+    //Sortiert positions nach keys (gleicher Index), Karten mit gleichem Schlüssel bleiben in ihrer Reihenfolge.
+    //Mergesort von unten nach oben auf primitiven Arrays, damit keine Objekte pro Karte entstehen.
+    private static void sort(int[] positions, long[] keys) {
+
+        int length = positions.length;
+        int[] positionsFrom = positions;
+        long[] keysFrom = keys;
+        int[] positionsTo = new int[length];
+        long[] keysTo = new long[length];
+
+        for (int width = 1; width < length; width *= 2) {
+            for (int from = 0; from < length; from += 2 * width) {
+                int middle = Math.min(from + width, length);
+                int to = Math.min(from + 2 * width, length);
+                int left = from;
+                int right = middle;
+                for (int out = from; out < to; out++) {
+                    if (right < to && (left >= middle || keysFrom[right] < keysFrom[left])) {
+                        positionsTo[out] = positionsFrom[right];
+                        keysTo[out] = keysFrom[right++];
+                    } else {
+                        positionsTo[out] = positionsFrom[left];
+                        keysTo[out] = keysFrom[left++];
+                    }
+                }
+            }
+            int[] positionsSwap = positionsFrom;
+            positionsFrom = positionsTo;
+            positionsTo = positionsSwap;
+            long[] keysSwap = keysFrom;
+            keysFrom = keysTo;
+            keysTo = keysSwap;
+        }
+        if (positionsFrom != positions) {
+            System.arraycopy(positionsFrom, 0, positions, 0, length);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package Model;
+
+import java.util.List;
+
+//Speicher für die Karten eines Model.Deck. Es gibt zwei Varianten:
+//  ObjectCardStore:   eine Model.Flashcard pro Karte (Standard)
+//  ColumnarCardStore: Spalten aus primitiven Arrays, für sehr große Stapel
+//Karten werden über ihre Id angesprochen. Eine zurückgegebene Model.Flashcard kann eine Kopie sein, Änderungen
+//daran müssen daher mit update() bzw. edit() zurückgeschrieben werden.
+interface CardStore {
+
+    int size();
+
+    Flashcard get(int index);
+
+    int getId(int index);
+
+    long getRepetitionTime(int index);
+
+    int getLevel(int index);
+
+    Flashcard getById(int id);
+
+    //Bei mehreren Karten mit gleicher Vorderseite die erste
+    Flashcard getByFront(String front);
+
+    boolean containsFront(String front);
+
+    //Vergibt eine neue Id, falls die Karte noch keine hat oder die Id schon vergeben ist.
+    void add(Flashcard card);
+
+    //Die letzte Karte rückt an die Stelle der gelöschten, Löschen kostet so O(1).
+    void remove(int id);
+
+    void edit(int id, String front, String back);
+
+    //Übernimmt Level, Schwierigkeit, gelernt und Abfragedatum der Karte.
+    void update(Flashcard card);
+
+    //Verschiebt das Abfragedatum jeder Karte um shifts[Scheduler.getShiftIndex(level, schwierigkeit)].
+    void reschedule(long[] shifts);
+
+    int getNextId();
+
+    void setNextId(int nextId);
+
+    //Unabhängige Kopie, z.B. zum Speichern im Hintergrund
+    CardStore copy();
+
+    //Nur lesbar
+    List<Flashcard> asList();
+}
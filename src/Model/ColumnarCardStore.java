@@ -0,0 +1,345 @@
+package Model;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+//Karten in Spalten aus primitiven Arrays statt als einzelne Objekte: Level und Schwierigkeit als byte[],
+//Abfragedaten als long[], Texte als Nummern in einem Model.StringPool. Die Spalten belegen rund 35 Bytes pro
+//Karte (ohne die Reserve beim Wachsen der Arrays), dazu kommen im Pool je verschiedenem Text rund 24 Bytes plus
+//2 Bytes pro Zeichen. Das Durchsuchen der Abfragedaten liest nur ein long[].
+//Beim Löschen rückt die letzte Karte an den frei gewordenen Platz, wie im Model.ObjectCardStore.
+//Kopien teilen sich den Pool, bis eine von beiden ihn ändert (siehe StringPool.copy()).
+//
+//Eine zurückgegebene Model.Flashcard ist eine Kopie der Spalten (Flyweight). Änderungen daran werden erst mit
+//update() bzw. edit() übernommen; das erledigen Model.Deck und Model.DeckRepository.
+class ColumnarCardStore implements CardStore {
+
+    private static final int MIN_CAPACITY = 16;
+
+    private StringPool pool;
+    private int size;
+    private int[] ids;
+    private int[] fronts;
+    private int[] backs;
+    private byte[] levels;
+    private byte[] difficulties;
+    private byte[] learned;
+    private long[] times;
+    //Position + 1 der Karte mit dieser Id, 0 = keine Karte
+    private int[] slotsById;
+    //Id der ersten Karte mit diesem Text als Vorderseite, 0 = keine Karte
+    private int[] firstIdByFront;
+    //Id der nächsten Karte mit derselben Vorderseite, 0 = keine Karte. Nur ältere Stapel haben solche Karten.
+    private int[] nextIdByFront;
+    private int nextId = 1;
+
+    ColumnarCardStore(int capacity) {
+
+        capacity = Math.max(MIN_CAPACITY, capacity);
+        pool = new StringPool();
+        ids = new int[capacity];
+        fronts = new int[capacity];
+        backs = new int[capacity];
+        levels = new byte[capacity];
+        difficulties = new byte[capacity];
+        learned = new byte[capacity];
+        times = new long[capacity];
+        nextIdByFront = new int[capacity];
+        slotsById = new int[capacity + 1];
+        firstIdByFront = new int[capacity];
+    }
+
+    private ColumnarCardStore(ColumnarCardStore anotherStore) {
+
+        pool = anotherStore.pool.copy();
+        size = anotherStore.size;
+        ids = Arrays.copyOf(anotherStore.ids, Math.max(MIN_CAPACITY, size));
+        fronts = Arrays.copyOf(anotherStore.fronts, ids.length);
+        backs = Arrays.copyOf(anotherStore.backs, ids.length);
+        levels = Arrays.copyOf(anotherStore.levels, ids.length);
+        difficulties = Arrays.copyOf(anotherStore.difficulties, ids.length);
+        learned = Arrays.copyOf(anotherStore.learned, ids.length);
+        times = Arrays.copyOf(anotherStore.times, ids.length);
+        nextIdByFront = Arrays.copyOf(anotherStore.nextIdByFront, ids.length);
+        slotsById = anotherStore.slotsById.clone();
+        firstIdByFront = anotherStore.firstIdByFront.clone();
+        nextId = anotherStore.nextId;
+    }
+
+    //Hängt eine Karte direkt aus den Feldern an, ohne eine Model.Flashcard zu erstellen (z.B. beim Einlesen).
+    //Gibt die Id zurück, die neu vergeben wird, falls id fehlt oder schon vergeben ist.
+    int append(int id, String front, String back, int level, int difficulty, boolean isLearned, long time) {
+
+        if (id <= 0 || getSlot(id) >= 0) {
+            id = nextId;
+        }
+        nextId = Math.max(nextId, id + 1);
+        if (size == ids.length) {
+            grow();
+        }
+
+        StringPool writablePool = getWritablePool();
+        int slot = size++;
+        ids[slot] = id;
+        fronts[slot] = writablePool.intern(front);
+        backs[slot] = writablePool.intern(back);
+        levels[slot] = (byte) level;
+        difficulties[slot] = (byte) difficulty;
+        learned[slot] = (byte) (isLearned ? 1 : 0);
+        times[slot] = time;
+        setSlot(id, slot);
+        indexFront(fronts[slot], id, slot);
+        return id;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Flashcard get(int index) {
+
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + ", Anzahl " + size);
+        }
+        return view(index);
+    }
+
+    @Override
+    public int getId(int index) {
+        return ids[index];
+    }
+
+    @Override
+    public long getRepetitionTime(int index) {
+        return times[index];
+    }
+
+    @Override
+    public int getLevel(int index) {
+        return levels[index];
+    }
+
+    @Override
+    public Flashcard getById(int id) {
+
+        int slot = getSlot(id);
+        return slot < 0 ? null : view(slot);
+    }
+
+    @Override
+    public Flashcard getByFront(String front) {
+
+        int id = getFirstIdByFront(front);
+        return id == 0 ? null : getById(id);
+    }
+
+    @Override
+    public boolean containsFront(String front) {
+        return getFirstIdByFront(front) != 0;
+    }
+
+    @Override
+    public void add(Flashcard card) {
+
+        int id = append(card.getId(), card.getFront(), card.getBack(), card.getLevel(), card.getDifficulty(),
+                card.getLearned(), card.getRepetitionDate().getTime());
+        card.setId(id);
+    }
+
+    @Override
+    public void remove(int id) {
+
+        int slot = getSlot(id);
+        if (slot < 0) {
+            return;
+        }
+        removeFromFrontIndex(fronts[slot], id, slot);
+        StringPool writablePool = getWritablePool();
+        writablePool.release(fronts[slot]);
+        writablePool.release(backs[slot]);
+
+        int last = --size;
+        if (slot != last) {
+            ids[slot] = ids[last];
+            fronts[slot] = fronts[last];
+            backs[slot] = backs[last];
+            levels[slot] = levels[last];
+            difficulties[slot] = difficulties[last];
+            learned[slot] = learned[last];
+            times[slot] = times[last];
+            nextIdByFront[slot] = nextIdByFront[last];
+            setSlot(ids[slot], slot);
+        }
+        slotsById[id] = 0;
+    }
+
+    @Override
+    public void edit(int id, String front, String back) {
+
+        int slot = getSlot(id);
+        if (slot < 0) {
+            return;
+        }
+        //Erst die neuen Texte eintragen, damit ein unveränderter Text nicht zwischendurch freigegeben wird
+        StringPool writablePool = getWritablePool();
+        int oldFront = fronts[slot];
+        int oldBack = backs[slot];
+        int newFront = writablePool.intern(front);
+        backs[slot] = writablePool.intern(back);
+        if (newFront != oldFront) {
+            removeFromFrontIndex(oldFront, id, slot);
+            fronts[slot] = newFront;
+            indexFront(newFront, id, slot);
+        }
+        writablePool.release(oldFront);
+        writablePool.release(oldBack);
+    }
+
+    @Override
+    public void update(Flashcard card) {
+
+        int slot = getSlot(card.getId());
+        if (slot >= 0) {
+            levels[slot] = (byte) card.getLevel();
+            difficulties[slot] = (byte) card.getDifficulty();
+            learned[slot] = (byte) (card.getLearned() ? 1 : 0);
+            times[slot] = card.getRepetitionDate().getTime();
+        }
+    }
+
+    //Eine Schleife über drei primitive Arrays ohne Objekte, eine Million Karten dauern nur wenige Millisekunden
+    @Override
+    public void reschedule(long[] shifts) {
+
+        int grades = Scheduler.MAX_GRADE + 1;
+        for (int i = 0; i < size; i++) {
+            int level = Math.min(levels[i], Scheduler.MAX_LEVEL);
+            int grade = difficulties[i];
+            if (grade < 0 || grade > Scheduler.MAX_GRADE) {
+                grade = 0;
+            }
+            times[i] += shifts[level * grades + grade];
+        }
+    }
+
+    @Override
+    public int getNextId() {
+        return nextId;
+    }
+
+    @Override
+    public void setNextId(int nextId) {
+        this.nextId = Math.max(this.nextId, nextId);
+    }
+
+    @Override
+    public CardStore copy() {
+        return new ColumnarCardStore(this);
+    }
+
+    @Override
+    public List<Flashcard> asList() {
+
+        return new AbstractList<Flashcard>() {
+            @Override
+            public Flashcard get(int index) {
+                return ColumnarCardStore.this.get(index);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    private Flashcard view(int slot) {
+
+        Flashcard card = new Flashcard(pool.get(fronts[slot]), pool.get(backs[slot]));
+        card.setId(ids[slot]);
+        card.setLevel(levels[slot]);
+        card.setDifficulty(difficulties[slot]);
+        card.setLearned(learned[slot] != 0);
+        card.setRepetitionDate(new Date(times[slot]));
+        return card;
+    }
+
+    private StringPool getWritablePool() {
+
+        if (pool.isShared()) {
+            pool = pool.mutableCopy();
+        }
+        return pool;
+    }
+
+    private int getSlot(int id) {
+        return id > 0 && id < slotsById.length ? slotsById[id] - 1 : -1;
+    }
+
+    private void setSlot(int id, int slot) {
+
+        if (id >= slotsById.length) {
+            slotsById = Arrays.copyOf(slotsById, Math.max(id + 1, slotsById.length * 2));
+        }
+        slotsById[id] = slot + 1;
+    }
+
+    private int getFirstIdByFront(String front) {
+
+        int index = pool.indexOf(front);
+        return index < 0 || index >= firstIdByFront.length ? 0 : firstIdByFront[index];
+    }
+
+    //Ältere Stapel können Karten mit gleicher Vorderseite enthalten, sie werden hinten angehängt
+    private void indexFront(int front, int id, int slot) {
+
+        if (front >= firstIdByFront.length) {
+            firstIdByFront = Arrays.copyOf(firstIdByFront, Math.max(front + 1, firstIdByFront.length * 2));
+        }
+        nextIdByFront[slot] = 0;
+        if (firstIdByFront[front] == 0) {
+            firstIdByFront[front] = id;
+            return;
+        }
+        int lastSlot = getSlot(firstIdByFront[front]);
+        while (nextIdByFront[lastSlot] != 0) {
+            lastSlot = getSlot(nextIdByFront[lastSlot]);
+        }
+        nextIdByFront[lastSlot] = id;
+    }
+
+    //Ohne Durchlauf über alle Karten, nur über die Karten mit derselben Vorderseite
+    private void removeFromFrontIndex(int front, int id, int slot) {
+
+        int next = nextIdByFront[slot];
+        if (firstIdByFront[front] == id) {
+            firstIdByFront[front] = next;
+            return;
+        }
+        for (int previous = firstIdByFront[front]; previous != 0; ) {
+            int previousSlot = getSlot(previous);
+            if (nextIdByFront[previousSlot] == id) {
+                nextIdByFront[previousSlot] = next;
+                return;
+            }
+            previous = nextIdByFront[previousSlot];
+        }
+    }
+
+    private void grow() {
+
+        int capacity = ids.length * 2;
+        ids = Arrays.copyOf(ids, capacity);
+        fronts = Arrays.copyOf(fronts, capacity);
+        backs = Arrays.copyOf(backs, capacity);
+        levels = Arrays.copyOf(levels, capacity);
+        difficulties = Arrays.copyOf(difficulties, capacity);
+        learned = Arrays.copyOf(learned, capacity);
+        times = Arrays.copyOf(times, capacity);
+        nextIdByFront = Arrays.copyOf(nextIdByFront, capacity);
+    }
+}
@@ -1,85 +1,180 @@
 package Model;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 
 //Diese Klasse ist sozusagen eine "Schnittstelle" zwischen allen Informationen
 // wie Model.User, Stapel und Statistiken, die hilft mit den Daten in der View zu arbeiten.
 //Diese Klasse muss nur einmal in jedem ViewModel instanziiert werden, um Zugriff auf alle
 //Daten zu haben.
+//
+//Benutzer, Stapel und Karte stehen in einer Model.UserSession. Die statischen Methoden und new Data() arbeiten
+//mit der Sitzung des in der Oberfläche angemeldeten Benutzers; new Data(session) arbeitet mit einer festen
+//Sitzung, z.B. für mehrere Benutzer gleichzeitig in einem Prozess.
 public class Data {
 
-    private static String currentUser;
-    private static String currentDeckName;
-    private static Flashcard currentFlashcard;
-    private static List<Deck> currentUserDecks = new ArrayList<>();
-    private static List<String> allUsers = new ArrayList<>();
-    public boolean isEmpty;
+    private static volatile UserSession currentSession = UserSession.forUser(null);
+    private static volatile List<String> allUsers = new ArrayList<>();
+    private static volatile boolean usersLoaded = false;
+    //null = jeweils die Sitzung des angemeldeten Benutzers
+    private final UserSession session;
+    public volatile boolean isEmpty;
 
     public Data() {
+        //Die Daten werden nicht mehr hier, sondern über loadDeckHeaders(), loadCurrentDeck() und
+        //loadAllUsers() im Hintergrund eingelesen, damit ein Szenenwechsel nicht auf die Festplatte wartet.
+        this(null);
+    }
 
-        try {
-            Helper helper = new Helper();
-            List<String> deckNames = new ArrayList<>();
-            deckNames.clear();
-            deckNames = helper.getDeckNames();
-
-            //Damit die Users File nicht in den Decks auftaucht.
-            List<String> toRemove = new ArrayList<>();
-            for (String file : deckNames) {
-                if (file.equals("Users.txt")) {
-                    toRemove.add(file);
-                }
-            }
-            deckNames.removeAll(toRemove);
+    public Data(UserSession session) {
+        this.session = session;
+    }
+
+    public UserSession getSession() {
+        return session != null ? session : currentSession;
+    }
 
-            if (deckNames.size() == 0) {
-                isEmpty = true;
+    //Liest die Stapelliste des aktuellen Benutzers. Für die Liste reicht der Index, die Karten werden
+    //erst beim Öffnen eines Stapels eingelesen.
+    public CompletableFuture<List<DeckHeader>> loadDeckHeaders() {
+
+        UserSession userSession = getSession();
+        String user = userSession.getUser();
+        return PersistenceService.getInstance().submit(() -> {
+            DeckRepository repository = DeckRepository.getInstance();
+            List<DeckHeader> headers = repository.getHeadersOfOwner(user);
+            isEmpty = repository.isEmpty();
+            if (isEmpty) {
                 LogHelper.writeToLog(Level.INFO, "Es sind keine Decks vorhanden.");
+            }
+            if (user != null) {
+                LogHelper.writeToLog(Level.INFO, "Aktueller Benutzer: " + user);
+            }
+            userSession.setDeckHeaders(headers);
+            return headers;
+        });
+    }
 
-            } else {
-                isEmpty = false;
-                //Für jeden Stapel Flashcards ein Model.Deck erstellen.
-                currentUserDecks.clear();
-                List<Deck> allDecks = new ArrayList<>();
-
-                for (String name : deckNames) {
-                    Deck deck = helper.getDeckFromFile(name);
-                    if(deck != null){
-                        allDecks.add(deck);
-                    }
-                }
+    //Liest den aktuellen Stapel komplett ein, falls er dem aktuellen Benutzer gehört.
+    public CompletableFuture<Deck> loadCurrentDeck() {
 
-                for (Deck deck : allDecks) {
-                    if(deck.getOwner().equals(Data.getCurrentUser()) || deck.getOwner().equals("Beispieldeck")){
-                        currentUserDecks.add(deck);
-                    }
+        String deckName = getSession().getCurrentDeckName();
+        return loadDeckHeaders().thenApply(headers -> {
+            for (DeckHeader header : headers) {
+                if (header.getName().equals(deckName)) {
+                    return DeckRepository.getInstance().getDeck(deckName);
                 }
             }
+            return null;
+        });
+    }
 
-            //Users
-            if (helper.getUsersFromFile() != null) {
-                allUsers = helper.getUsersFromFile();
-            } else {
-                LogHelper.writeToLog(Level.INFO, "Keine Usernamen vorhanden.");
+    //Startet eine Übungsrunde des aktuellen Benutzers mit dem aktuellen Stapel. null, falls der Stapel
+    //nicht geöffnet werden kann oder nicht dem Benutzer gehört.
+    public CompletableFuture<ReviewSession> startReviewSession() {
+
+        UserSession userSession = getSession();
+        String user = userSession.getUser();
+        String deckName = userSession.getCurrentDeckName();
+        return PersistenceService.getInstance().submit(() -> ReviewEngine.getInstance().start(user, deckName));
+    }
+
+    //Importiert Karten aus einer Datei in den aktuellen Stapel (siehe Model.DeckImporter). Läuft auf einem eigenen
+    //Thread, damit andere Festplattenzugriffe während eines langen Imports nicht warten müssen.
+    public CompletableFuture<DeckImporter.Progress> importCards(Path file, Consumer<DeckImporter.Progress> listener) {
+
+        UserSession userSession = getSession();
+        String user = userSession.getUser();
+        String deckName = userSession.getCurrentDeckName();
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return new DeckImporter(file).setProgressListener(listener).importInto(deckName, user);
+            } catch (IOException ex) {
+                LogHelper.writeToLog(Level.INFO, "Fehler beim Importieren von " + file + ": " + ex);
+                throw new CompletionException(ex);
             }
-            if (currentUser != null) {
-                LogHelper.writeToLog(Level.INFO, "Aktueller Benutzer: " + currentUser);
+        }, runnable -> {
+            Thread thread = new Thread(runnable, "DeckImport");
+            thread.setDaemon(true);
+            thread.start();
+        });
+    }
+
+    //Exportiert den aktuellen Stapel samt Abfragen (siehe Model.DeckExporter), das Format ergibt sich aus der
+    //Dateiendung. Läuft wie der Import auf einem eigenen Thread. Gibt die Anzahl der Karten zurück.
+    public CompletableFuture<Integer> exportCurrentDeck(Path file) {
+
+        String deckName = getSession().getCurrentDeckName();
+        return loadCurrentDeck().thenApplyAsync(deck -> {
+            if (deck == null) {
+                throw new CompletionException(new IOException("Stapel " + deckName + " nicht gefunden"));
             }
+            try {
+                return new DeckExporter(DeckExporter.Format.forFile(file)).exportTo(deck, file);
+            } catch (IOException ex) {
+                LogHelper.writeToLog(Level.INFO, "Fehler beim Exportieren nach " + file + ": " + ex);
+                throw new CompletionException(ex);
+            }
+        }, runnable -> {
+            Thread thread = new Thread(runnable, "DeckExport");
+            thread.setDaemon(true);
+            thread.start();
+        });
+    }
 
-        } catch (Exception ex) {
-            LogHelper.writeToLog(Level.INFO, "Fehler beim Initialisieren des Decks: " + ex);
+    //Karten des Stapels für die Kartenübersicht (siehe Model.CardList). Das Aussuchen und Sortieren läuft über
+    //alle Karten, daher wie das Laden über den Model.PersistenceService statt auf dem JavaFX-Thread.
+    public CompletableFuture<CardList> selectCards(Deck deck, int level, long dueBefore, CardList.Order order) {
+        return PersistenceService.getInstance().submit(() -> new CardList(deck, level, dueBefore, order));
+    }
+
+    //Statistik des aktuellen Benutzers (siehe Model.StatsService).
+    public CompletableFuture<UserStats> loadUserStats() {
+
+        String user = getSession().getUser();
+        return PersistenceService.getInstance().submit(() -> StatsService.getInstance().getUserStats(user));
+    }
+
+    //Volltextsuche in allen Stapeln des aktuellen Benutzers (siehe Model.SearchIndex).
+    public CompletableFuture<List<SearchIndex.Hit>> searchCards(String query, int limit) {
+
+        String user = getSession().getUser();
+        return PersistenceService.getInstance().submit(() -> SearchIndex.getInstance().search(user, query, limit));
+    }
+
+    //Users werden nur beim ersten Mal eingelesen
+    public static CompletableFuture<List<String>> loadAllUsers() {
+
+        if (usersLoaded) {
+            return CompletableFuture.completedFuture(allUsers);
         }
+        return PersistenceService.getInstance().submit(() -> {
+            List<String> users = new Helper().getUsersFromFile();
+            if (users != null) {
+                allUsers = users;
+            } else {
+                LogHelper.writeToLog(Level.INFO, "Keine Usernamen vorhanden.");
+            }
+            usersLoaded = true;
+            return allUsers;
+        });
     }
 
     public static String getCurrentUser() {
-        return currentUser;
+        return currentSession.getUser();
     }
 
+    //Wechselt zur Sitzung des Benutzers. Stapel und Karte eines vorher angemeldeten Benutzers bleiben in dessen
+    //Sitzung erhalten.
     public static void setCurrentUser(String currentUser) {
-        Data.currentUser = currentUser;
-        LogHelper.writeToLog(Level.INFO, "User neu gesetzt als: " + currentUser);
+        currentSession = UserSession.forUser(currentUser);
+        LogHelper.writeToLog(Level.INFO, () -> "User neu gesetzt als: " + currentUser);
     }
 
     public static List<String> getAllUsers() {
@@ -91,34 +186,37 @@ public class Data {
     }
 
     public static Flashcard getCurrentFlashcard() {
-        return currentFlashcard;
+        return currentSession.getCurrentFlashcard();
     }
 
     public static void setCurrentFlashcard(Flashcard currentFlashcard) {
-        Data.currentFlashcard = currentFlashcard;
+        currentSession.setCurrentFlashcard(currentFlashcard);
     }
 
     //Methoden
-    public List<Deck> getListOfDecks() {
-        return currentUserDecks;
+    public List<DeckHeader> getListOfDeckHeaders() {
+        return getSession().getDeckHeaders();
     }
 
-    public static String getCurrentDeckName() {
-        return currentDeckName;
-    }
+    //Liest alle Stapel des Benutzers komplett ein, gleichzeitig über den Model.DeckLoader. Für reine Listen
+    //reicht loadDeckHeaders().
+    public CompletableFuture<List<Deck>> loadListOfDecks() {
 
-    public static void setCurrentDeckName(String currentDeckName) {
-        Data.currentDeckName = currentDeckName;
+        return loadDeckHeaders().thenApply(headers -> {
+            List<String> names = new ArrayList<>(headers.size());
+            for (DeckHeader header : headers) {
+                names.add(header.getName());
+            }
+            return DeckRepository.getInstance().getDecks(names);
+        });
     }
 
-    public Deck getCurrentDeck() {
+    public static String getCurrentDeckName() {
+        return currentSession.getCurrentDeckName();
+    }
 
-        for (Deck deck : currentUserDecks) {
-            if (deck.getName().equals(currentDeckName)) {
-                return deck;
-            }
-        }
-        return null;
+    public static void setCurrentDeckName(String currentDeckName) {
+        currentSession.setCurrentDeckName(currentDeckName);
     }
 
 }
@@ -1,24 +1,54 @@
 package Model;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
-import java.util.Comparator;
-import java.util.Date;
 import java.util.List;
-import java.util.logging.Level;
 
 // Ein Model.Deck ist eine Zusammenfassung von mehreren Flashcards, die einem Model.User zugeteilt wurde.
+// Die Karten liegen in einem Model.CardStore mit Index nach Vorderseite und nach Id, sodass Suchen, Prüfen auf
+// doppelte Karten und Bearbeiten ohne Durchlaufen aller Karten auskommen. Karten dürfen daher nur über
+// addCard(), removeCard(), editCard() und updateCard() geändert werden.
+// Sehr große Stapel werden spaltenweise gespeichert (Model.ColumnarCardStore) oder direkt aus der eingeblendeten
+// Datei gelesen (Model.MappedCardStore). Die Karten, die man dann bekommt, sind Kopien; Änderungen an Level oder
+// Abfragedatum werden erst mit updateCard() übernommen.
 public class Deck implements Serializable {
 
+    //Fest vorgegeben, damit bereits gespeicherte Stapel nach Änderungen an der Klasse lesbar bleiben.
+    private static final long serialVersionUID = -7704944728126280302L;
+
     private String name;
+    //Wird nur für die Java-Serialisierung älterer Stapel benutzt, sonst liegen die Karten im store.
     private List<Flashcard> cards;
     private String owner;
+    //Laufnummer des letzten Eintrags aus dem Model.DeckJournal, der in diesem Stapel enthalten ist.
+    private transient long journalSequence;
+    private transient CardStore store;
 
     //Konstruktur
     public Deck(String name, List<Flashcard> cards, String owner) {
+        this(name, new ObjectCardStore(cards), owner);
+    }
+
+    Deck(String name, CardStore store, String owner) {
         this.owner = owner;
         setName(name);
-        this.cards = cards;
+        this.store = store;
+    }
+
+    //Copy Constructor. Die Karten werden kopiert.
+    public Deck(Deck anotherDeck) {
+        this.owner = anotherDeck.owner;
+        this.name = anotherDeck.name;
+        this.store = anotherDeck.store.copy();
+        this.journalSequence = anotherDeck.journalSequence;
+    }
+
+    //Erstellt eine unabhängige Kopie mit kopierten Karten, z.B. um den Stapel im Hintergrund zu speichern.
+    public Deck snapshot() {
+        return new Deck(this);
     }
 
     //Getter & Setter
@@ -35,73 +65,129 @@ public class Deck implements Serializable {
         }
     }
 
+    //Nur lesbar, damit der Index nicht an den Methoden vorbei veraltet
     public List<Flashcard> getCards() {
-        return cards;
+        return store.asList();
     }
 
     public void setCards(List<Flashcard> cards) {
-        this.cards = cards;
+        this.store = new ObjectCardStore(cards);
     }
 
     //Methoden
     public int getLength() {
-        return cards.size();
+        return store.size();
     }
 
-    //Entfernt alle Karten deren Abfragedatum noch nicht erreicht wurde
-    public void ready() {
+    //Id, Abfragedatum und Level der Karte an Position index, ohne eine Model.Flashcard zu erstellen.
+    public int getCardId(int index) {
+        return store.getId(index);
+    }
 
-        try {
-            Date date = new Date();
-            date.getTime();
-            List<Flashcard> toRemove = new ArrayList<>();
-            for (Flashcard card : cards) {
-                if (card.getRepetitionDate().after(date)) {
-                    toRemove.add(card);
-                }
-            }
-            cards.removeAll(toRemove);
+    public long getRepetitionTime(int index) {
+        return store.getRepetitionTime(index);
+    }
 
-        } catch (Exception ex) {
-            LogHelper.writeToLog(Level.INFO, "Fehler beim Aufbereiten des Decks. " + ex);
-        }
+    public int getLevel(int index) {
+        return store.getLevel(index);
+    }
+
+    //Gibt bei mehreren Karten mit gleicher Vorderseite die erste zurück.
+    public Flashcard getCardByName(String front) {
+        return store.getByFront(front);
+    }
+
+    public Flashcard getCardById(int id) {
+        return store.getById(id);
     }
 
-    //Sortiert das Model.Deck nach dem Datum. Kleinstes Datum zuerst.
-    public void sort() {
+    public boolean containsCard(String front) {
+        return store.containsFront(front);
+    }
 
-        try {
-            if (cards != null) {
-                cards.sort(Comparator.comparing(Flashcard::getRepetitionDate));
-                LogHelper.writeToLog(Level.INFO, "Karten von Model.Deck " + name + " sortiert.");
+    //Die Karte bekommt eine neue Id, falls sie noch keine hat oder die Id schon vergeben ist.
+    public void addCard(Flashcard card) {
+        store.add(card);
+    }
 
-            } else {
-                LogHelper.writeToLog(Level.INFO, "Karten von Model.Deck " + name + " nicht sortiert (null).");
-            }
-        } catch (Exception ex) {
-            LogHelper.writeToLog(Level.INFO, "Fehler beim Sortieren der Karten" + ex);
+    public void removeCard(Flashcard card) {
+
+        if (card != null) {
+            store.remove(card.getId());
         }
     }
 
-    public Flashcard getCardByName(String front){
-        for (Flashcard flashcard: cards)
-        {
-         if (front.equals(flashcard.getFront())){
-             return flashcard;
-         }
+    //Ändert Vorder- und Rückseite der Karte. Id und Position im Stapel bleiben erhalten.
+    public void editCard(Flashcard card, String front, String back) {
+
+        store.edit(card.getId(), front, back);
+        card.setFront(front);
+        card.setBack(back);
+    }
+
+    //Übernimmt Level, Schwierigkeit und Abfragedatum der Karte, z.B. nach dem Abfragen.
+    public void updateCard(Flashcard card) {
+        store.update(card);
+    }
+
+    //Plant alle Karten vom Verfahren from auf das Verfahren to um. Wie bei updateCard() muss danach die
+    //Model.DueQueue neu aufgebaut werden, das übernimmt DeckRepository.rescheduleAll().
+    public void reschedule(Scheduler from, Scheduler to) {
+        store.reschedule(Scheduler.getShifts(from, to));
+    }
+
+    //Long.MAX_VALUE, wenn der Stapel keine Karten enthält
+    public long getEarliestRepetitionTime() {
+
+        long earliest = Long.MAX_VALUE;
+        for (int i = 0; i < store.size(); i++) {
+            earliest = Math.min(earliest, store.getRepetitionTime(i));
         }
-        return null;
+        return earliest;
     }
 
-    public void addCard(Flashcard card) {
-        cards.add(card);
+    public boolean isColumnar() {
+        return store instanceof ColumnarCardStore;
     }
 
-    public void removeCard(Flashcard card) {
-        cards.remove(card);
+    //true, solange die Karten aus der eingeblendeten Stapeldatei gelesen werden
+    public boolean isMapped() {
+        return store instanceof MappedCardStore && ((MappedCardStore) store).isMapped();
     }
 
     public String getOwner() {
         return owner;
     }
+
+    public long getJournalSequence() {
+        return journalSequence;
+    }
+
+    public void setJournalSequence(long journalSequence) {
+        this.journalSequence = journalSequence;
+    }
+
+    //Id, die die nächste neue Karte bekommt. Ids werden nicht wiederverwendet.
+    public int getNextCardId() {
+        return store.getNextId();
+    }
+
+    //Wird beim Einlesen gesetzt, damit nach dem Löschen der neuesten Karte ihre Id nicht erneut vergeben wird.
+    public void setNextCardId(int nextCardId) {
+        store.setNextId(nextCardId);
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+
+        cards = new ArrayList<>(store.asList());
+        out.defaultWriteObject();
+        cards = null;
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+
+        in.defaultReadObject();
+        store = new ObjectCardStore(cards);
+        cards = null;
+    }
 }
@@ -0,0 +1,426 @@
+package Model;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+//Binäres Dateiformat für Stapel. Ersetzt die Java-Serialisierung, die langsam ist, viel Platz braucht
+//und bei jeder Änderung an Model.Deck oder Model.Flashcard unlesbar wird.
+//
+//Aufbau (alle Zahlen Big Endian, Texte als int-Länge + UTF-8 Bytes):
+//  int    MAGIC ("FCDK")
+//  short  VERSION
+//  text   Name
+//  text   Besitzer
+//  long   Laufnummer des letzten enthaltenen Journaleintrags (ab Version 2)
+//  int    Id der nächsten neuen Karte (ab Version 3)
+//  int    Anzahl Karten
+//  bis Version 3, pro Karte: int Id (ab Version 3), text Vorderseite, text Rückseite, byte Level,
+//             byte Schwierigkeit, byte gelernt, long Abfragedatum (Millisekunden seit 1970)
+//
+//Ab Version 4 haben alle Karten einen festen Aufbau, damit die Datei ohne Einlesen eingeblendet werden kann
+//(Model.MappedCardStore):
+//  long   Position der Kartentabelle
+//  pro Karte: text Vorderseite, text Rückseite
+//  Kartentabelle, pro Karte 24 Bytes: int Id, byte Level, byte Schwierigkeit, byte gelernt, byte (frei),
+//             long Abfragedatum, long Position der Vorderseite
+//  Id-Tabelle, nach Id sortiert: pro Karte int Id, int Position im Stapel
+//  int    Größe der Hashtabelle (Zweierpotenz, mindestens doppelt so groß wie die Anzahl Karten)
+//  Hashtabelle der Vorderseiten (lineares Sondieren): pro Eintrag int String.hashCode(), int Position + 1
+//             (0 = leer)
+public class DeckCodec {
+
+    public static final int MAGIC = 0x4643444B;
+    public static final short VERSION = 4;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    //Ab dieser Kartenanzahl wird ein Stapel spaltenweise (Model.ColumnarCardStore) eingelesen
+    private static final int COLUMNAR_THRESHOLD = Integer.getInteger("flashcards.columnarThreshold", 50_000);
+    //Ab dieser Kartenanzahl wird ein Stapel eingeblendet statt eingelesen (Model.MappedCardStore). Nicht unter
+    //Windows, dort lässt sich eine eingeblendete Datei nicht ersetzen, bis die Einblendung vom GC freigegeben wird.
+    private static final int MAPPED_THRESHOLD = Integer.getInteger("flashcards.mappedThreshold", 200_000);
+    private static final boolean CAN_MAP = !System.getProperty("os.name").toLowerCase().contains("win");
+
+    private DeckCodec() {
+    }
+
+    public static void write(Deck deck, Path file) throws IOException {
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+
+            Writer writer = new Writer(channel);
+            writer.putInt(MAGIC);
+            writer.putShort(VERSION);
+            writer.putString(deck.getName());
+            writer.putString(deck.getOwner());
+            writer.putLong(deck.getJournalSequence());
+            writer.putInt(deck.getNextCardId());
+            int count = deck.getLength();
+            writer.putInt(count);
+            long tableOffsetPosition = writer.position();
+            writer.putLong(0);
+
+            //Die Tabellen werden beim Schreiben der Texte gefüllt und danach angehängt
+            ByteBuffer table = ByteBuffer.allocate(count * MappedCardStore.CARD_RECORD_SIZE);
+            long[] idsAndSlots = new long[count];
+            int[] frontHashes = new int[count];
+            int slot = 0;
+            for (Flashcard card : deck.getCards()) {
+                table.putInt(card.getId());
+                table.put((byte) card.getLevel());
+                table.put((byte) card.getDifficulty());
+                table.put((byte) (card.getLearned() ? 1 : 0));
+                table.put((byte) 0);
+                table.putLong(card.getRepetitionDate().getTime());
+                table.putLong(writer.position());
+                writer.putString(card.getFront());
+                writer.putString(card.getBack());
+                idsAndSlots[slot] = (long) card.getId() << 32 | slot;
+                frontHashes[slot] = card.getFront().hashCode();
+                slot++;
+            }
+
+            long tableOffset = writer.position();
+            writer.putBytes(table.array());
+            Arrays.sort(idsAndSlots);
+            for (long idAndSlot : idsAndSlots) {
+                writer.putInt((int) (idAndSlot >>> 32));
+                writer.putInt((int) idAndSlot);
+            }
+            int capacity = Integer.highestOneBit(Math.max(1, count) * 2 - 1) << 1;
+            int[] frontTable = new int[capacity * 2];
+            for (int i = 0; i < count; i++) {
+                int entry = MappedCardStore.frontTableIndex(frontHashes[i], capacity);
+                while (frontTable[entry * 2 + 1] != 0) {
+                    entry = (entry + 1) & (capacity - 1);
+                }
+                frontTable[entry * 2] = frontHashes[i];
+                frontTable[entry * 2 + 1] = i + 1;
+            }
+            writer.putInt(capacity);
+            for (int value : frontTable) {
+                writer.putInt(value);
+            }
+            writer.flush();
+
+            ByteBuffer offset = ByteBuffer.allocate(8).putLong(0, tableOffset);
+            while (offset.hasRemaining()) {
+                channel.write(offset, tableOffsetPosition + offset.position());
+            }
+        }
+    }
+
+    public static Deck read(Path file) throws IOException {
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+
+            Reader reader = new Reader(channel);
+            if (reader.getInt() != MAGIC) {
+                throw new IOException("Keine Stapeldatei: " + file);
+            }
+            short version = reader.getShort();
+            if (version > VERSION) {
+                throw new IOException("Stapeldatei " + file + " hat die unbekannte Version " + version);
+            }
+
+            String name = reader.getString();
+            String owner = reader.getString();
+            long journalSequence = version >= 2 ? reader.getLong() : 0;
+            int nextCardId = version >= 3 ? reader.getInt() : 0;
+            int count = reader.getInt();
+            CardTable table = null;
+            if (version >= 4) {
+                long tableOffset = reader.getLong();
+                if (CAN_MAP && count >= MAPPED_THRESHOLD) {
+                    return createDeck(name, owner, journalSequence, nextCardId,
+                            MappedCardStore.map(channel, count, tableOffset, nextCardId));
+                }
+                long textsOffset = reader.position();
+                channel.position(tableOffset);
+                table = new CardTable(new Reader(channel), count);
+                channel.position(textsOffset);
+                reader = new Reader(channel);
+            }
+            CardStore store = count >= COLUMNAR_THRESHOLD
+                    ? readColumnar(reader, version, count, table)
+                    : new ObjectCardStore(readCards(reader, version, count, table));
+            return createDeck(name, owner, journalSequence, nextCardId, store);
+        }
+    }
+
+    //Blendet die Stapeldatei unabhängig von der Kartenanzahl ein, siehe Model.MappedCardStore. Die Datei muss
+    //mindestens Version 4 haben und darf danach nicht mehr überschrieben werden, nur ersetzt.
+    public static Deck map(Path file) throws IOException {
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+
+            Reader reader = new Reader(channel);
+            if (reader.getInt() != MAGIC) {
+                throw new IOException("Keine Stapeldatei: " + file);
+            }
+            short version = reader.getShort();
+            if (version < 4 || version > VERSION) {
+                throw new IOException("Stapeldatei " + file + " mit Version " + version + " kann nicht eingeblendet "
+                        + "werden");
+            }
+            String name = reader.getString();
+            String owner = reader.getString();
+            long journalSequence = reader.getLong();
+            int nextCardId = reader.getInt();
+            int count = reader.getInt();
+            return createDeck(name, owner, journalSequence, nextCardId,
+                    MappedCardStore.map(channel, count, reader.getLong(), nextCardId));
+        }
+    }
+
+    private static Deck createDeck(String name, String owner, long journalSequence, int nextCardId, CardStore store) {
+
+        Deck deck = new Deck(name, store, owner);
+        deck.setJournalSequence(journalSequence);
+        deck.setNextCardId(nextCardId);
+        return deck;
+    }
+
+    //Ältere Versionen ohne Id bekommen ihre Ids vom Model.Deck
+    private static List<Flashcard> readCards(Reader reader, short version, int count, CardTable table)
+            throws IOException {
+
+        List<Flashcard> cards = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            if (table != null) {
+                Flashcard card = new Flashcard(reader.getString(), reader.getString());
+                card.setId(table.ids[i]);
+                card.setLevel(table.levels[i]);
+                card.setDifficulty(table.difficulties[i]);
+                card.setLearned(table.learned[i] != 0);
+                card.setRepetitionDate(new Date(table.times[i]));
+                cards.add(card);
+                continue;
+            }
+            int id = version >= 3 ? reader.getInt() : 0;
+            Flashcard card = new Flashcard(reader.getString(), reader.getString());
+            card.setId(id);
+            card.setLevel(reader.getByte());
+            card.setDifficulty(reader.getByte());
+            card.setLearned(reader.getByte() != 0);
+            card.setRepetitionDate(new Date(reader.getLong()));
+            cards.add(card);
+        }
+        return cards;
+    }
+
+    //Liest die Karten direkt in die Spalten, ohne einzelne Model.Flashcard-Objekte zu erstellen.
+    private static CardStore readColumnar(Reader reader, short version, int count, CardTable table)
+            throws IOException {
+
+        ColumnarCardStore store = new ColumnarCardStore(count);
+        for (int i = 0; i < count; i++) {
+            if (table != null) {
+                store.append(table.ids[i], reader.getString(), reader.getString(), table.levels[i],
+                        table.difficulties[i], table.learned[i] != 0, table.times[i]);
+                continue;
+            }
+            int id = version >= 3 ? reader.getInt() : 0;
+            store.append(id, reader.getString(), reader.getString(), reader.getByte(), reader.getByte(),
+                    reader.getByte() != 0, reader.getLong());
+        }
+        return store;
+    }
+
+    //Kartentabelle ab Version 4, wird vor den Texten gelesen, wenn der Stapel nicht eingeblendet wird.
+    private static class CardTable {
+
+        private final int[] ids;
+        private final byte[] levels;
+        private final byte[] difficulties;
+        private final byte[] learned;
+        private final long[] times;
+
+        CardTable(Reader reader, int count) throws IOException {
+
+            ids = new int[count];
+            levels = new byte[count];
+            difficulties = new byte[count];
+            learned = new byte[count];
+            times = new long[count];
+            for (int i = 0; i < count; i++) {
+                ids[i] = reader.getInt();
+                levels[i] = (byte) reader.getByte();
+                difficulties[i] = (byte) reader.getByte();
+                learned[i] = (byte) reader.getByte();
+                reader.getByte();
+                times[i] = reader.getLong();
+                //Position der Vorderseite, die Texte werden der Reihe nach gelesen
+                reader.getLong();
+            }
+        }
+    }
+
+    //Prüft anhand der ersten vier Bytes, ob die Datei bereits im binären Format gespeichert ist.
+    public static boolean isBinaryDeckFile(Path file) {
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(4);
+            while (buffer.hasRemaining() && channel.read(buffer) != -1) {
+                //Lesen bis vier Bytes vorhanden sind oder die Datei zu Ende ist
+            }
+            return !buffer.hasRemaining() && buffer.getInt(0) == MAGIC;
+
+        } catch (IOException ex) {
+            return false;
+        }
+    }
+
+    //Schreibt über einen Puffer in den Channel, damit nicht jede Zahl einzeln geschrieben wird.
+    private static class Writer {
+
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+        Writer(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        void putByte(int value) throws IOException {
+            ensureSpace(1);
+            buffer.put((byte) value);
+        }
+
+        void putShort(short value) throws IOException {
+            ensureSpace(2);
+            buffer.putShort(value);
+        }
+
+        void putInt(int value) throws IOException {
+            ensureSpace(4);
+            buffer.putInt(value);
+        }
+
+        void putLong(long value) throws IOException {
+            ensureSpace(8);
+            buffer.putLong(value);
+        }
+
+        void putString(String value) throws IOException {
+
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            putInt(bytes.length);
+            putBytes(bytes);
+        }
+
+        void putBytes(byte[] bytes) throws IOException {
+
+            if (bytes.length <= buffer.capacity()) {
+                ensureSpace(bytes.length);
+                buffer.put(bytes);
+            } else {
+                //Sehr lange Texte direkt schreiben
+                flush();
+                ByteBuffer large = ByteBuffer.wrap(bytes);
+                while (large.hasRemaining()) {
+                    channel.write(large);
+                }
+            }
+        }
+
+        //Anzahl der bisher geschriebenen Bytes, inklusive Puffer
+        long position() throws IOException {
+            return channel.position() + buffer.position();
+        }
+
+        void flush() throws IOException {
+
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        private void ensureSpace(int length) throws IOException {
+
+            if (buffer.remaining() < length) {
+                flush();
+            }
+        }
+    }
+
+    //Liest über einen Puffer aus dem Channel und lädt nach, sobald der Puffer leer ist.
+    private static class Reader {
+
+        private final FileChannel channel;
+        private ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+        Reader(FileChannel channel) {
+            this.channel = channel;
+            buffer.flip();
+        }
+
+        int getByte() throws IOException {
+            require(1);
+            return buffer.get();
+        }
+
+        short getShort() throws IOException {
+            require(2);
+            return buffer.getShort();
+        }
+
+        int getInt() throws IOException {
+            require(4);
+            return buffer.getInt();
+        }
+
+        long getLong() throws IOException {
+            require(8);
+            return buffer.getLong();
+        }
+
+        //Position in der Datei hinter dem zuletzt gelesenen Wert
+        long position() throws IOException {
+            return channel.position() - buffer.remaining();
+        }
+
+        String getString() throws IOException {
+
+            int length = getInt();
+            if (length < 0) {
+                throw new IOException("Ungültige Textlänge " + length);
+            }
+            require(length);
+            String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length,
+                    StandardCharsets.UTF_8);
+            buffer.position(buffer.position() + length);
+            return value;
+        }
+
+        private void require(int length) throws IOException {
+
+            if (buffer.remaining() >= length) {
+                return;
+            }
+            if (length > buffer.capacity()) {
+                ByteBuffer larger = ByteBuffer.allocate(length);
+                larger.put(buffer);
+                buffer = larger;
+            } else {
+                buffer.compact();
+            }
+            while (buffer.position() < length) {
+                if (channel.read(buffer) == -1) {
+                    throw new EOFException("Stapeldatei ist unvollständig.");
+                }
+            }
+            buffer.flip();
+        }
+    }
+}
@@ -0,0 +1,291 @@
+package Model;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+
+//Schreibt einen Stapel als CSV (RFC 4180, Komma) oder JSON Lines (ein Objekt pro Zeile) in eine Datei.
+//Die Antworten aus dem Model.ReviewLog werden, falls vorhanden, in eine zweite Datei daneben geschrieben
+//(z.B. "Vokabeln.csv" und "Vokabeln.reviews.csv").
+//
+//Der CSV-Export beginnt mit Vorder- und Rückseite, damit ihn Model.DeckImporter und andere Programme wieder
+//einlesen können.
+//
+//Bis auf die Ids der Karten (4 Bytes pro Karte) hängt der Speicherbedarf nicht von der Größe des Stapels ab: Die
+//Ids werden einmal unter der Lesesperre des Stapels kopiert, die Karten dann blockweise (CHUNK_SIZE) über ihre Id.
+//So fehlt bei gleichzeitigem Löschen keine andere Karte und keine wird doppelt geschrieben. Die Karten werden Feld
+//für Feld in einen Puffer geschrieben und in Blöcken von WRITE_BUFFER_SIZE Zeichen auf die Festplatte übertragen.
+//Das Antwortprotokoll wird ebenfalls nur gestreamt.
+public class DeckExporter {
+
+    private static final int CHUNK_SIZE = 1024;
+    private static final int WRITE_BUFFER_SIZE = 1 << 16;
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ISO_INSTANT;
+
+    public enum Format {
+
+        CSV(".csv"),
+        JSONL(".jsonl");
+
+        private final String extension;
+
+        Format(String extension) {
+            this.extension = extension;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        //Erkennt das Format an der Dateiendung, ohne Endung wird CSV verwendet.
+        public static Format forFile(Path file) {
+            return file.getFileName().toString().toLowerCase().endsWith(JSONL.extension) ? JSONL : CSV;
+        }
+    }
+
+    private final Format format;
+
+    public DeckExporter(Format format) {
+        this.format = format;
+    }
+
+    //Schreibt den Stapel nach file und die Abfragen nach reviewsFileFor(file). Gibt die Anzahl der Karten zurück.
+    public int exportTo(Deck deck, Path file) throws IOException {
+
+        long start = System.nanoTime();
+        int cards;
+        try (Writer writer = open(file)) {
+            cards = writeCards(deck, writer);
+        }
+
+        Path reviewsFile = reviewsFileFor(file);
+        long reviews;
+        try (Writer writer = open(reviewsFile)) {
+            reviews = writeReviews(deck.getName(), writer);
+        }
+        if (reviews == 0) {
+            Files.deleteIfExists(reviewsFile);
+        }
+
+        LogHelper.writeToLog(Level.INFO, () -> "Stapel " + deck.getName() + " exportiert: " + cards + " Karten, "
+                + reviews + " Abfragen in " + (System.nanoTime() - start) / 1_000_000 + " ms.");
+        return cards;
+    }
+
+    //Datei für die Abfragen neben der Datei des Stapels
+    public Path reviewsFileFor(Path file) {
+
+        String name = file.getFileName().toString();
+        if (name.toLowerCase().endsWith(format.getExtension())) {
+            name = name.substring(0, name.length() - format.getExtension().length());
+        }
+        return file.resolveSibling(name + ".reviews" + format.getExtension());
+    }
+
+    //Schreibt alle Karten des Stapels. Der Writer wird nicht geschlossen.
+    public int writeCards(Deck deck, Writer writer) throws IOException {
+
+        if (format == Format.CSV) {
+            writer.write("front,back,level,difficulty,learned,repetitionDate,id\r\n");
+        }
+
+        DeckRepository repository = DeckRepository.getInstance();
+        int[] ids = repository.getCardIds(deck);
+        List<Flashcard> chunk = new ArrayList<>(CHUNK_SIZE);
+        int written = 0;
+        for (int from = 0; from < ids.length; from += CHUNK_SIZE) {
+            chunk.clear();
+            written += repository.copyCardsById(deck, ids, from, chunk, CHUNK_SIZE);
+            for (Flashcard card : chunk) {
+                if (card == null) {
+                    //Inzwischen gelöscht
+                    continue;
+                }
+                if (format == Format.CSV) {
+                    writeCsvCard(writer, card);
+                } else {
+                    writeJsonCard(writer, card);
+                }
+            }
+        }
+        return written;
+    }
+
+    //Schreibt alle Antworten aus dem Antwortprotokoll des Stapels, Abstände in Sekunden. Der Writer wird nicht
+    //geschlossen.
+    public long writeReviews(String deckName, Writer writer) throws IOException {
+
+        if (format == Format.CSV) {
+            writer.write("time,cardId,grade,oldLevel,newLevel,previousInterval,nextInterval,responseMillis\r\n");
+        }
+
+        long[] reviews = new long[1];
+        DeckRepository.getInstance().getReviewLog(deckName).readEvents(
+                (time, cardId, grade, oldLevel, newLevel, previousInterval, nextInterval, responseMillis) -> {
+                    if (format == Format.CSV) {
+                        DATE_FORMAT.formatTo(Instant.ofEpochMilli(time), writer);
+                        writeCsvNumber(writer, cardId);
+                        writeCsvNumber(writer, grade);
+                        writeCsvNumber(writer, oldLevel);
+                        writeCsvNumber(writer, newLevel);
+                        writeCsvNumber(writer, previousInterval / 1000);
+                        writeCsvNumber(writer, nextInterval / 1000);
+                        writeCsvNumber(writer, responseMillis);
+                        writer.write("\r\n");
+                    } else {
+                        writer.write("{\"time\":\"");
+                        DATE_FORMAT.formatTo(Instant.ofEpochMilli(time), writer);
+                        writer.write('"');
+                        writeJsonNumber(writer, "cardId", cardId);
+                        writeJsonNumber(writer, "grade", grade);
+                        writeJsonNumber(writer, "oldLevel", oldLevel);
+                        writeJsonNumber(writer, "newLevel", newLevel);
+                        writeJsonNumber(writer, "previousInterval", previousInterval / 1000);
+                        writeJsonNumber(writer, "nextInterval", nextInterval / 1000);
+                        writeJsonNumber(writer, "responseMillis", responseMillis);
+                        writer.write("}\n");
+                    }
+                    reviews[0]++;
+                });
+        return reviews[0];
+    }
+
+    private static void writeCsvNumber(Writer writer, long number) throws IOException {
+
+        writer.write(',');
+        writer.write(Long.toString(number));
+    }
+
+    private static void writeJsonNumber(Writer writer, String name, long number) throws IOException {
+
+        writer.write(",\"");
+        writer.write(name);
+        writer.write("\":");
+        writer.write(Long.toString(number));
+    }
+
+    private void writeCsvCard(Writer writer, Flashcard card) throws IOException {
+
+        writeCsvField(writer, card.getFront());
+        writer.write(',');
+        writeCsvField(writer, card.getBack());
+        writeCsvNumbers(writer, card.getLevel(), card.getDifficulty(), card.getLearned(),
+                card.getRepetitionDate().getTime(), card.getId());
+    }
+
+    private void writeCsvNumbers(Writer writer, int level, int difficulty, boolean isLearned, long repetitionTime,
+                                 int id) throws IOException {
+
+        writer.write(',');
+        writer.write(Integer.toString(level));
+        writer.write(',');
+        writer.write(Integer.toString(difficulty));
+        writer.write(',');
+        writer.write(isLearned ? "true" : "false");
+        writer.write(',');
+        DATE_FORMAT.formatTo(Instant.ofEpochMilli(repetitionTime), writer);
+        writeCsvNumber(writer, id);
+        writer.write("\r\n");
+    }
+
+    private void writeJsonCard(Writer writer, Flashcard card) throws IOException {
+
+        writer.write("{\"id\":");
+        writer.write(Integer.toString(card.getId()));
+        writer.write(",\"front\":");
+        writeJsonString(writer, card.getFront());
+        writer.write(",\"back\":");
+        writeJsonString(writer, card.getBack());
+        writeJsonNumbers(writer, card.getLevel(), card.getDifficulty(), card.getLearned(),
+                card.getRepetitionDate().getTime());
+    }
+
+    private void writeJsonNumbers(Writer writer, int level, int difficulty, boolean isLearned, long repetitionTime)
+            throws IOException {
+
+        writer.write(",\"level\":");
+        writer.write(Integer.toString(level));
+        writer.write(",\"difficulty\":");
+        writer.write(Integer.toString(difficulty));
+        writer.write(",\"learned\":");
+        writer.write(isLearned ? "true" : "false");
+        writer.write(",\"repetitionDate\":\"");
+        DATE_FORMAT.formatTo(Instant.ofEpochMilli(repetitionTime), writer);
+        writer.write("\"}\n");
+    }
+
+    //Felder mit Komma, Anführungszeichen oder Zeilenumbruch werden in Anführungszeichen gesetzt (RFC 4180).
+    static void writeCsvField(Writer writer, String value) throws IOException {
+
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+
+        writer.write('"');
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) == '"') {
+                writer.write(value, start, i + 1 - start);
+                writer.write('"');
+                start = i + 1;
+            }
+        }
+        writer.write(value, start, value.length() - start);
+        writer.write('"');
+    }
+
+    static void writeJsonString(Writer writer, String value) throws IOException {
+
+        writer.write('"');
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= 0x20 && c != '"' && c != '\\') {
+                continue;
+            }
+            writer.write(value, start, i - start);
+            start = i + 1;
+            switch (c) {
+                case '"':
+                    writer.write("\\\"");
+                    break;
+                case '\\':
+                    writer.write("\\\\");
+                    break;
+                case '\n':
+                    writer.write("\\n");
+                    break;
+                case '\r':
+                    writer.write("\\r");
+                    break;
+                case '\t':
+                    writer.write("\\t");
+                    break;
+                default:
+                    writer.write(String.format("\\u%04x", (int) c));
+            }
+        }
+        writer.write(value, start, value.length() - start);
+        writer.write('"');
+    }
+
+    private Writer open(Path file) throws IOException {
+        return new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(file), StandardCharsets.UTF_8),
+                WRITE_BUFFER_SIZE);
+    }
+}
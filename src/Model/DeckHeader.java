@@ -0,0 +1,88 @@
+package Model;
+
+import java.io.File;
+import java.io.Serializable;
+import java.util.Date;
+
+//Kurzbeschreibung eines Stapels (Name, Besitzer, Anzahl Karten, nächstes Abfragedatum, Dateigröße).
+//Damit kann eine Stapelliste angezeigt werden, ohne den ganzen Stapel mit allen Karten einzulesen.
+public class DeckHeader implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private String name;
+    private String owner;
+    private int cardCount;
+    private long earliestRepetitionTime;
+    private long sizeOnDisk;
+    private long lastModified;
+    private long journalSize;
+
+    //Konstruktor
+    public DeckHeader(String name, String owner, int cardCount, long earliestRepetitionTime, long sizeOnDisk,
+            long lastModified, long journalSize) {
+        this.name = name;
+        this.owner = owner;
+        this.cardCount = cardCount;
+        this.earliestRepetitionTime = earliestRepetitionTime;
+        this.sizeOnDisk = sizeOnDisk;
+        this.lastModified = lastModified;
+        this.journalSize = journalSize;
+    }
+
+    //Erstellt die Kurzbeschreibung aus einem eingelesenen Stapel, dessen Datei und dessen Journal.
+    public static DeckHeader fromDeck(Deck deck, File deckFile, File journalFile) {
+
+        return new DeckHeader(deck.getName(), deck.getOwner(), deck.getLength(), deck.getEarliestRepetitionTime(),
+                deckFile.length() + journalFile.length(), deckFile.lastModified(), journalFile.length());
+    }
+
+    //Kurzbeschreibung nach neuen Einträgen im Journal: Die Stapeldatei selbst ist unverändert, es ändern sich nur
+    //Anzahl der Karten, frühestes Abfragedatum und die Größe des Journals. Braucht weder Karten noch Dateizugriffe.
+    public DeckHeader withJournalChanges(int cardCount, long earliestRepetitionTime, long journalSize) {
+
+        return new DeckHeader(name, owner, cardCount, earliestRepetitionTime,
+                sizeOnDisk - this.journalSize + journalSize, lastModified, journalSize);
+    }
+
+    //Getter
+    public String getName() {
+        return name;
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    public int getCardCount() {
+        return cardCount;
+    }
+
+    //Gibt null zurück, wenn der Stapel keine Karten enthält.
+    public Date getEarliestRepetitionDate() {
+
+        if (earliestRepetitionTime == Long.MAX_VALUE) {
+            return null;
+        }
+        return new Date(earliestRepetitionTime);
+    }
+
+    public long getSizeOnDisk() {
+        return sizeOnDisk;
+    }
+
+    public long getLastModified() {
+        return lastModified;
+    }
+
+    //Methoden
+    public boolean isOwnedBy(String user) {
+        return owner.equals(user) || owner.equals("Beispieldeck");
+    }
+
+    //Prüft, ob die Kurzbeschreibung noch zu der Datei und dem Journal auf der Festplatte passt.
+    public boolean matches(File deckFile, File journalFile) {
+        return deckFile.length() + journalFile.length() == sizeOnDisk && deckFile.lastModified() == lastModified
+                && journalFile.length() == journalSize;
+    }
+}
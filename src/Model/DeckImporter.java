@@ -0,0 +1,536 @@
+package Model;
+
+import java.io.BufferedReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+
+//Liest Karten aus einer Textdatei in einen Stapel ein, z.B. Vokabellisten mit mehreren hunderttausend Zeilen.
+//Unterstützt werden CSV (Komma oder Semikolon), TSV und der Text-Export von Anki (Tabulator, Kopfzeilen mit "#").
+//Die erste Spalte wird zur Vorderseite, die zweite zur Rückseite, weitere Spalten werden ignoriert. Hat die erste
+//Zeile Spalten namens "front" und "back" (z.B. ein CSV-Export aus Model.DeckExporter), werden stattdessen diese
+//Spalten verwendet und die Zeile selbst nicht importiert.
+//
+//Die Datei wird nur einmal von vorne nach hinten gelesen. Das Zerlegen der Zeilen in Felder übernehmen mehrere
+//Threads, jeweils für Blöcke von BATCH_SIZE Zeilen; es sind höchstens zwei Blöcke pro Thread gleichzeitig
+//unterwegs. Karten, deren Vorderseite es im Stapel oder in der Datei schon gibt, werden übersprungen.
+//Geschrieben wird der Stapel erst am Ende und nur einmal.
+public class DeckImporter {
+
+    private static final int BATCH_SIZE = 2048;
+    private static final int READ_BUFFER_SIZE = 1 << 16;
+    private static final long PROGRESS_INTERVAL_NANOS = 200_000_000L;
+    private static final int THREADS = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+
+    //Zwischenstand und Ergebnis eines Imports
+    public static class Progress {
+
+        private final long rows;
+        private final long imported;
+        private final long duplicates;
+        private final long skipped;
+        private final long bytesRead;
+        private final long totalBytes;
+        private final long elapsedNanos;
+
+        Progress(long rows, long imported, long duplicates, long skipped, long bytesRead, long totalBytes,
+                 long elapsedNanos) {
+
+            this.rows = rows;
+            this.imported = imported;
+            this.duplicates = duplicates;
+            this.skipped = skipped;
+            this.bytesRead = bytesRead;
+            this.totalBytes = totalBytes;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public long getRows() {
+            return rows;
+        }
+
+        public long getImported() {
+            return imported;
+        }
+
+        public long getDuplicates() {
+            return duplicates;
+        }
+
+        //Zeilen ohne Vorder- oder Rückseite
+        public long getSkipped() {
+            return skipped;
+        }
+
+        public long getBytesRead() {
+            return bytesRead;
+        }
+
+        public long getTotalBytes() {
+            return totalBytes;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedNanos / 1_000_000;
+        }
+
+        //Anteil der gelesenen Datei zwischen 0 und 1
+        public double getFraction() {
+            return totalBytes <= 0 ? 1 : Math.min(1, (double) bytesRead / totalBytes);
+        }
+
+        public double getRowsPerSecond() {
+            return elapsedNanos == 0 ? 0 : rows * 1e9 / elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d Zeilen (%.0f%%), %d importiert, %d doppelt, %d übersprungen, %.0f Zeilen/s",
+                    rows, getFraction() * 100, imported, duplicates, skipped, getRowsPerSecond());
+        }
+    }
+
+    private final Path file;
+    private Consumer<Progress> progressListener = progress -> { };
+
+    private char separator;
+    private boolean html;
+    private int frontColumn = 0;
+    private int backColumn = 1;
+    //Nur die Vorderseiten aus der Datei; ob es sie im Stapel schon gibt, prüft DeckRepository.addCards()
+    private final Set<String> fronts = new HashSet<>();
+    private final List<Flashcard> cards = new ArrayList<>();
+    private long rows;
+    private long duplicates;
+    private long skipped;
+    private long startNanos;
+    private long lastProgressNanos;
+    private CountingInputStream input;
+    private boolean isFirstLine = true;
+    private boolean isFirstRecord = true;
+
+    public DeckImporter(Path file) {
+        this.file = file;
+    }
+
+    //Wird etwa alle 200 ms und am Ende auf dem importierenden Thread aufgerufen
+    public DeckImporter setProgressListener(Consumer<Progress> progressListener) {
+
+        this.progressListener = progressListener;
+        return this;
+    }
+
+    //Importiert in den Stapel deckName. Gibt es ihn noch nicht, wird er für owner angelegt.
+    //Liest und schreibt auf der Festplatte, also nicht auf dem JavaFX-Thread aufrufen (siehe Data.importCards()).
+    public Progress importInto(String deckName, String owner) throws IOException {
+
+        DeckRepository repository = DeckRepository.getInstance();
+        Deck deck = repository.getDeck(deckName);
+        long totalBytes = read();
+        int imported = cards.size();
+        if (deck == null) {
+            new Helper().saveDeckToFile(new Deck(deckName, cards, owner));
+        } else {
+            imported = repository.addCards(deck, cards);
+        }
+        //Vorderseiten, die es im Stapel schon gab, zählen als doppelt
+        duplicates += cards.size() - imported;
+        Progress result = new Progress(rows, imported, duplicates, skipped, input.getCount(), totalBytes,
+                System.nanoTime() - startNanos);
+        progressListener.accept(result);
+        LogHelper.writeToLog(Level.INFO, () -> "Import von " + file + " in " + deckName + ": " + result);
+        return result;
+    }
+
+    //Gibt die Größe der Datei zurück
+    private long read() throws IOException {
+
+        startNanos = System.nanoTime();
+        long totalBytes = Files.size(file);
+        AtomicInteger threadNumber = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "ImportWorker-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        input = new CountingInputStream(Files.newInputStream(file));
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8),
+                READ_BUFFER_SIZE)) {
+
+            ArrayDeque<Future<List<String[]>>> pending = new ArrayDeque<>();
+            List<String> batch = new ArrayList<>(BATCH_SIZE);
+            String record;
+            while ((record = readRecord(reader)) != null) {
+                if (separator == 0) {
+                    separator = detectSeparator(record);
+                }
+                if (isFirstRecord) {
+                    isFirstRecord = false;
+                    if (readColumnNames(record)) {
+                        continue;
+                    }
+                }
+                batch.add(record);
+                if (batch.size() == BATCH_SIZE) {
+                    pending.add(submit(workers, batch));
+                    batch = new ArrayList<>(BATCH_SIZE);
+                    if (pending.size() >= 2 * THREADS) {
+                        addCards(pending.poll(), totalBytes);
+                    }
+                }
+            }
+            if (!batch.isEmpty()) {
+                pending.add(submit(workers, batch));
+            }
+            while (!pending.isEmpty()) {
+                addCards(pending.poll(), totalBytes);
+            }
+
+        } finally {
+            workers.shutdownNow();
+        }
+        return totalBytes;
+    }
+
+    //Liest einen Datensatz. Felder in Anführungszeichen dürfen Zeilenumbrüche enthalten, der Datensatz geht dann
+    //über mehrere Zeilen. Kopfzeilen des Anki-Exports ("#separator:tab", "#html:true") werden ausgewertet.
+    private String readRecord(BufferedReader reader) throws IOException {
+
+        String line;
+        do {
+            line = reader.readLine();
+            if (line == null) {
+                return null;
+            }
+            //Byte Order Mark am Anfang der Datei, z.B. aus Excel
+            if (isFirstLine && !line.isEmpty() && line.charAt(0) == '\uFEFF') {
+                line = line.substring(1);
+            }
+            isFirstLine = false;
+        } while (line.isEmpty() || (line.startsWith("#") && readHeader(line)));
+
+        if (!startsQuotedField(line)) {
+            return line;
+        }
+        StringBuilder record = new StringBuilder(line);
+        while (countQuotes(record) % 2 != 0) {
+            String nextLine = reader.readLine();
+            if (nextLine == null) {
+                break;
+            }
+            record.append('\n').append(nextLine);
+        }
+        return record.toString();
+    }
+
+    //Gibt true zurück, wenn die Zeile eine Kopfzeile war
+    private boolean readHeader(String line) {
+
+        int colon = line.indexOf(':');
+        if (colon < 0) {
+            return false;
+        }
+        String key = line.substring(1, colon).trim().toLowerCase();
+        String value = line.substring(colon + 1).trim().toLowerCase();
+        switch (key) {
+            case "separator":
+                separator = parseSeparator(value);
+                return true;
+            case "html":
+                html = value.equals("true");
+                return true;
+            case "columns":
+            case "notetype":
+            case "deck":
+            case "tags":
+            case "guid column":
+            case "notetype column":
+            case "deck column":
+            case "tags column":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static char parseSeparator(String value) {
+
+        switch (value) {
+            case "tab":
+                return '\t';
+            case "comma":
+                return ',';
+            case "semicolon":
+                return ';';
+            case "pipe":
+                return '|';
+            case "space":
+                return ' ';
+            default:
+                return value.isEmpty() ? '\t' : value.charAt(0);
+        }
+    }
+
+    //Gibt true zurück, wenn der Datensatz eine Kopfzeile mit den Spalten "front" und "back" war
+    private boolean readColumnNames(String record) {
+
+        String[] names = splitRecord(record, separator, html, countSeparators(record) + 1);
+        int front = -1;
+        int back = -1;
+        for (int i = 0; i < names.length && names[i] != null; i++) {
+            if (front < 0 && names[i].equalsIgnoreCase("front")) {
+                front = i;
+            } else if (back < 0 && names[i].equalsIgnoreCase("back")) {
+                back = i;
+            }
+        }
+        if (front < 0 || back < 0) {
+            return false;
+        }
+        frontColumn = front;
+        backColumn = back;
+        return true;
+    }
+
+    private int countSeparators(String record) {
+
+        int count = 0;
+        for (int i = 0; i < record.length(); i++) {
+            if (record.charAt(i) == separator) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    //Der Trenner, der in der ersten Zeile außerhalb von Anführungszeichen am häufigsten vorkommt
+    private char detectSeparator(String record) {
+
+        if (file.getFileName().toString().toLowerCase().endsWith(".tsv")) {
+            return '\t';
+        }
+        char[] candidates = {'\t', ';', ','};
+        int[] counts = new int[candidates.length];
+        boolean quoted = false;
+        for (int i = 0; i < record.length(); i++) {
+            char c = record.charAt(i);
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (!quoted) {
+                for (int j = 0; j < candidates.length; j++) {
+                    if (c == candidates[j]) {
+                        counts[j]++;
+                    }
+                }
+            }
+        }
+        int best = 0;
+        for (int j = 1; j < candidates.length; j++) {
+            if (counts[j] > counts[best]) {
+                best = j;
+            }
+        }
+        return counts[best] > 0 ? candidates[best] : '\t';
+    }
+
+    //Nur Zeilen, in denen ein Feld mit einem Anführungszeichen beginnt, können über mehrere Zeilen gehen.
+    //So wird ein einzelnes Zeichen wie in 5" nicht als Beginn eines Felds verstanden.
+    private boolean startsQuotedField(String line) {
+
+        if (line.startsWith("\"")) {
+            return true;
+        }
+        if (separator != 0) {
+            return line.contains(separator + "\"");
+        }
+        return line.contains(",\"") || line.contains(";\"") || line.contains("\t\"");
+    }
+
+    private static int countQuotes(CharSequence text) {
+
+        int count = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '"') {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private Future<List<String[]>> submit(ExecutorService workers, List<String> batch) {
+
+        char batchSeparator = separator;
+        boolean batchHtml = html;
+        int batchFrontColumn = frontColumn;
+        int batchBackColumn = backColumn;
+        return workers.submit(() -> {
+            List<String[]> parsed = new ArrayList<>(batch.size());
+            for (String record : batch) {
+                parsed.add(parseRecord(record, batchSeparator, batchHtml, batchFrontColumn, batchBackColumn));
+            }
+            return parsed;
+        });
+    }
+
+    //Läuft auf dem importierenden Thread, daher braucht die Menge der Vorderseiten keine Sperre.
+    //Die Blöcke werden in der Reihenfolge der Datei übernommen.
+    private void addCards(Future<List<String[]>> future, long totalBytes) throws IOException {
+
+        List<String[]> parsed;
+        try {
+            parsed = future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Import unterbrochen", ex);
+        } catch (ExecutionException ex) {
+            throw new IOException("Fehler beim Zerlegen der Zeilen", ex.getCause());
+        }
+
+        for (String[] fields : parsed) {
+            rows++;
+            if (fields == null) {
+                skipped++;
+            } else if (!fronts.add(fields[0])) {
+                duplicates++;
+            } else {
+                cards.add(new Flashcard(fields[0], fields[1]));
+            }
+        }
+
+        long now = System.nanoTime();
+        if (now - lastProgressNanos >= PROGRESS_INTERVAL_NANOS) {
+            lastProgressNanos = now;
+            progressListener.accept(getProgress(totalBytes));
+        }
+    }
+
+    private Progress getProgress(long totalBytes) {
+        return new Progress(rows, cards.size(), duplicates, skipped, input.getCount(), totalBytes,
+                System.nanoTime() - startNanos);
+    }
+
+    //Vorder- und Rückseite eines Datensatzes oder null, wenn eine davon fehlt oder leer ist
+    static String[] parseRecord(String record, char separator, boolean html, int frontColumn, int backColumn) {
+
+        String[] fields = splitRecord(record, separator, html, Math.max(frontColumn, backColumn) + 1);
+        String front = fields[frontColumn];
+        String back = fields[backColumn];
+        if (front == null || back == null || front.isEmpty() || back.isEmpty()) {
+            return null;
+        }
+        return new String[] {front, back};
+    }
+
+    //Die ersten count Felder eines Datensatzes; fehlende Felder am Ende sind null
+    static String[] splitRecord(String record, char separator, boolean html, int count) {
+
+        String[] fields = new String[count];
+        int field = 0;
+        int position = 0;
+        int length = record.length();
+        StringBuilder value = new StringBuilder();
+
+        while (field < count && position <= length) {
+            value.setLength(0);
+            if (position < length && record.charAt(position) == '"') {
+                //Feld in Anführungszeichen, "" steht für ein Anführungszeichen
+                position++;
+                while (position < length) {
+                    char c = record.charAt(position++);
+                    if (c == '"') {
+                        if (position < length && record.charAt(position) == '"') {
+                            value.append('"');
+                            position++;
+                        } else {
+                            break;
+                        }
+                    } else {
+                        value.append(c);
+                    }
+                }
+                int end = record.indexOf(separator, position);
+                position = end < 0 ? length + 1 : end + 1;
+            } else {
+                int end = record.indexOf(separator, position);
+                if (end < 0) {
+                    end = length;
+                }
+                value.append(record, position, end);
+                position = end + 1;
+            }
+            String text = html ? stripHtml(value.toString()) : value.toString();
+            fields[field++] = text.trim();
+        }
+        return fields;
+    }
+
+    //Anki speichert Felder als HTML. Zeilenumbrüche bleiben erhalten, alle anderen Tags werden entfernt.
+    static String stripHtml(String text) {
+
+        if (text.indexOf('<') < 0 && text.indexOf('&') < 0) {
+            return text;
+        }
+        String withoutTags = text.replaceAll("(?i)<br\\s*/?>", "\n").replaceAll("<[^>]*>", "");
+        return withoutTags.replace("&nbsp;", " ").replace("&lt;", "<").replace("&gt;", ">")
+                .replace("&quot;", "\"").replace("&#39;", "'").replace("&amp;", "&");
+    }
+
+    //Zählt die gelesenen Bytes für die Fortschrittsanzeige
+    private static class CountingInputStream extends FilterInputStream {
+
+        private volatile long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        long getCount() {
+            return count;
+        }
+
+        @Override
+        public int read() throws IOException {
+
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
+}
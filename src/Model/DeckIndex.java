@@ -0,0 +1,245 @@
+package Model;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+
+//Index über alle Stapel, der neben den Stapeln gespeichert wird. Für jeden Stapel wird ein Model.DeckHeader
+//abgelegt, sodass beim Start nur Stapel eingelesen werden müssen, deren Datei sich seit dem letzten Mal geändert hat.
+//Die Einträge sind mit der Sperre des Index (this) geschützt. load() hält sie nur kurz, Einträge erscheinen also
+//schon während des Einlesens; isLoaded() bzw. awaitLoaded() sagen, ob der Index vollständig ist.
+public class DeckIndex {
+
+    public static final String INDEX_FILE_NAME = "DeckIndex.idx";
+
+    private final Path directory;
+    private final Map<String, DeckHeader> headers = new LinkedHashMap<>();
+    private final CountDownLatch loaded = new CountDownLatch(1);
+    //Dauer des letzten load() in Millisekunden, ein Teil der Startzeit des Programms
+    private volatile long loadMillis;
+
+    public DeckIndex(Path directory) {
+        this.directory = directory;
+    }
+
+    public synchronized List<DeckHeader> getHeaders() {
+        return new ArrayList<>(headers.values());
+    }
+
+    public synchronized DeckHeader getHeader(String name) {
+        return headers.get(name);
+    }
+
+    //Wie getHeader(), wartet aber während load(), bis der Eintrag erscheint oder der Index vollständig ist
+    public synchronized DeckHeader awaitHeader(String name) {
+
+        DeckHeader header = headers.get(name);
+        while (header == null && !isLoaded()) {
+            try {
+                wait();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                LogHelper.writeToLog(Level.INFO, "Warten auf den Stapelindex wurde unterbrochen.");
+                return null;
+            }
+            header = headers.get(name);
+        }
+        return header;
+    }
+
+    public long getLoadMillis() {
+        return loadMillis;
+    }
+
+    public boolean isLoaded() {
+        return loaded.getCount() == 0;
+    }
+
+    //Wartet, bis load() fertig ist
+    public void awaitLoaded() {
+
+        try {
+            loaded.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            LogHelper.writeToLog(Level.INFO, "Warten auf den Stapelindex wurde unterbrochen.");
+        }
+    }
+
+    //Liest den Index ein und gleicht ihn mit den Stapeldateien ab. Stapel, die dafür komplett eingelesen
+    //werden mussten, werden an onLoaded übergeben (auf einem Thread des Model.DeckLoader), damit sie nicht ein
+    //zweites Mal gelesen werden (null = keine Benachrichtigung). Diese Stapel werden gleichzeitig gelesen, ihr Eintrag erscheint, sobald der
+    //Stapel fertig ist; unveränderte Stapel sind sofort eingetragen.
+    public void load(Helper helper, Consumer<Deck> onLoaded) {
+
+        try {
+            loadHeaders(helper, onLoaded);
+        } finally {
+            loaded.countDown();
+            synchronized (this) {
+                notifyAll();
+            }
+        }
+    }
+
+    private void loadHeaders(Helper helper, Consumer<Deck> onLoaded) {
+
+        long start = System.nanoTime();
+        Map<String, DeckHeader> storedHeaders = readIndexFile();
+        synchronized (this) {
+            headers.clear();
+        }
+
+        List<String> deckNames = helper.getDeckNames();
+        if (deckNames == null) {
+            return;
+        }
+
+        List<String> changedFileNames = new ArrayList<>();
+        Map<String, DeckHeader> unchangedHeaders = new LinkedHashMap<>();
+        for (String fileName : deckNames) {
+            String name = fileName.replace(".txt", "");
+            DeckHeader header = storedHeaders.get(name);
+            if (header != null && header.matches(getDeckFile(name), getJournalFile(name))) {
+                unchangedHeaders.put(name, header);
+            } else {
+                changedFileNames.add(fileName);
+            }
+        }
+        synchronized (this) {
+            headers.putAll(unchangedHeaders);
+        }
+        DeckLoader loader = DeckLoader.getInstance();
+        Map<String, Deck> changedDecks = changedFileNames.isEmpty() ? new LinkedHashMap<>()
+                : loader.loadAll(helper, changedFileNames, deck -> {
+                    DeckHeader header = DeckHeader.fromDeck(deck, getDeckFile(deck.getName()),
+                            getJournalFile(deck.getName()));
+                    //Zuerst übergeben: Wer den Eintrag sieht, findet auch den Stapel
+                    if (onLoaded != null) {
+                        onLoaded.accept(deck);
+                    }
+                    synchronized (this) {
+                        headers.put(deck.getName(), header);
+                        notifyAll();
+                    }
+                });
+
+        int headerCount;
+        synchronized (this) {
+            //Die Reihenfolge der Stapel bleibt die der Dateien
+            Map<String, DeckHeader> loadedHeaders = new LinkedHashMap<>(headers);
+            headers.clear();
+            for (String fileName : deckNames) {
+                DeckHeader header = loadedHeaders.get(fileName.replace(".txt", ""));
+                if (header != null) {
+                    headers.put(header.getName(), header);
+                }
+            }
+            //Gespeichert wird nur, wenn sich etwas geändert hat oder Stapel gelöscht wurden
+            if (!changedFileNames.isEmpty() || storedHeaders.size() != unchangedHeaders.size()) {
+                save();
+            }
+            headerCount = headers.size();
+        }
+        loadMillis = (System.nanoTime() - start) / 1_000_000;
+        String loadedText = changedFileNames.isEmpty() ? "" : " (" + loader.getLastLoadMillis() + " ms mit "
+                + loader.getThreads() + " Threads)";
+        LogHelper.writeToLog(Level.INFO, "Stapelindex mit " + headerCount + " Stapeln in " + loadMillis
+                + " ms geladen, " + changedDecks.size() + " Stapel mussten neu eingelesen werden" + loadedText + ".");
+    }
+
+    //Aktualisiert den Eintrag eines Stapels, nachdem er gespeichert wurde.
+    public void put(Deck deck) {
+
+        update(deck);
+        save();
+    }
+
+    //Aktualisiert den Eintrag eines Stapels nur im Speicher, z.B. nach einem neuen Eintrag im Journal.
+    //Geht das Speichern verloren, wird der Stapel beim nächsten Start anhand der Dateigrößen neu eingelesen.
+    public void update(Deck deck) {
+
+        DeckHeader header = DeckHeader.fromDeck(deck, getDeckFile(deck.getName()), getJournalFile(deck.getName()));
+        synchronized (this) {
+            headers.put(deck.getName(), header);
+        }
+    }
+
+    //Wie update(), aber ohne Karten oder Dateien anzufassen, siehe DeckHeader.withJournalChanges().
+    //false, wenn es für den Stapel noch keinen Eintrag gibt.
+    public synchronized boolean updateJournalChanges(String name, int cardCount, long earliestRepetitionTime,
+                                                     long journalSize) {
+
+        DeckHeader header = headers.get(name);
+        if (header == null) {
+            return false;
+        }
+        headers.put(name, header.withJournalChanges(cardCount, earliestRepetitionTime, journalSize));
+        return true;
+    }
+
+    public synchronized void remove(String name) {
+
+        if (headers.remove(name) != null) {
+            save();
+        }
+    }
+
+    public synchronized void save() {
+
+        try {
+            List<DeckHeader> list = new ArrayList<>(headers.values());
+            DeckWriter.getInstance().writeAtomically(Paths.get(directory.toString(), INDEX_FILE_NAME), tempFile -> {
+                ObjectOutputStream objectStream = new ObjectOutputStream(new FileOutputStream(tempFile.toString()));
+                objectStream.writeObject(list);
+                objectStream.close();
+            });
+
+        } catch (Exception ex) {
+            LogHelper.writeToLog(Level.INFO, "Fehler beim Speichern des Stapelindex: " + ex);
+        }
+    }
+
+    private File getDeckFile(String name) {
+        return new File(Paths.get(directory.toString(), name + ".txt").toString());
+    }
+
+    private File getJournalFile(String name) {
+        return DeckJournal.forDeck(directory, name).getJournalFile().toFile();
+    }
+
+    //Ist der Index nicht vorhanden oder nicht lesbar, wird er aus den Stapeldateien neu aufgebaut.
+    @SuppressWarnings("unchecked")
+    private Map<String, DeckHeader> readIndexFile() {
+
+        Map<String, DeckHeader> storedHeaders = new LinkedHashMap<>();
+        File indexFile = new File(Paths.get(directory.toString(), INDEX_FILE_NAME).toString());
+        if (indexFile.exists()) {
+
+            try {
+                FileInputStream fileStreamIn = new FileInputStream(indexFile);
+                ObjectInputStream objectStream = new ObjectInputStream(fileStreamIn);
+                List<DeckHeader> list = (List<DeckHeader>) objectStream.readObject();
+                objectStream.close();
+                for (DeckHeader header : list) {
+                    storedHeaders.put(header.getName(), header);
+                }
+
+            } catch (Exception ex) {
+                LogHelper.writeToLog(Level.INFO, "Stapelindex konnte nicht gelesen werden und wird neu erstellt: " + ex);
+            }
+        }
+        return storedHeaders;
+    }
+}
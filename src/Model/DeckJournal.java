@@ -0,0 +1,383 @@
+package Model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.logging.Level;
+
+//Journal eines Stapels (<Stapel>.journal). Statt bei jeder Änderung den ganzen Stapel neu zu schreiben,
+//wird nur ein kleiner Eintrag (Karte hinzugefügt, bearbeitet, gelöscht, abgefragt) angehängt.
+//Beim Einlesen wird das Journal auf den gespeicherten Stapel angewendet. Mit compact() wird der Stapel
+//komplett gespeichert und die darin enthaltenen Einträge aus dem Journal entfernt.
+//
+//Aufbau eines Eintrags: int Länge, long Laufnummer, byte Typ, danach die Felder des Typs.
+//Ein unvollständiger Eintrag am Ende (z.B. nach einem Absturz) wird beim Einlesen ignoriert.
+//Die Karte eines Eintrags steht als Id darin, Vorder- und Rückseite nur bei neuen und bearbeiteten Karten.
+//Ältere Journale fanden die Karte über ihre Vorderseite (Typ 1 - 4); sie werden weiterhin eingelesen.
+public class DeckJournal {
+
+    public static final String FILE_EXTENSION = ".journal";
+
+    private static final byte TYPE_ADD_BY_FRONT = 1;
+    private static final byte TYPE_EDIT_BY_FRONT = 2;
+    private static final byte TYPE_DELETE_BY_FRONT = 3;
+    private static final byte TYPE_REVIEW_BY_FRONT = 4;
+    private static final byte TYPE_ADD = 5;
+    private static final byte TYPE_EDIT = 6;
+    private static final byte TYPE_DELETE = 7;
+    private static final byte TYPE_REVIEW = 8;
+
+    //Pro Stapel gibt es genau ein Journal, damit Anhängen und Komprimieren sich nicht überschneiden.
+    private static final Map<Path, DeckJournal> journals = new HashMap<>();
+
+    private final Path deckFile;
+    private final Path journalFile;
+    private long snapshotSequence = -1;
+    private long size = -1;
+
+    private DeckJournal(Path directory, String deckName) {
+        this.deckFile = Paths.get(directory.toString(), deckName + ".txt");
+        this.journalFile = Paths.get(directory.toString(), deckName + FILE_EXTENSION);
+    }
+
+    public static synchronized DeckJournal forDeck(Path directory, String deckName) {
+
+        Path key = Paths.get(directory.toString(), deckName);
+        DeckJournal journal = journals.get(key);
+        if (journal == null) {
+            journal = new DeckJournal(directory, deckName);
+            journals.put(key, journal);
+        }
+        return journal;
+    }
+
+    public Path getJournalFile() {
+        return journalFile;
+    }
+
+    //Größe des Journals in Bytes, inklusive der Einträge, die noch geschrieben werden.
+    public synchronized long size() {
+
+        if (size < 0) {
+            try {
+                size = Files.exists(journalFile) ? Files.size(journalFile) : 0;
+            } catch (IOException ex) {
+                size = 0;
+            }
+        }
+        return size;
+    }
+
+    public synchronized void appendAdd(Deck deck, Flashcard card) {
+
+        Record record = new Record(deck, TYPE_ADD, card);
+        record.putString(card.getFront());
+        record.putString(card.getBack());
+        record.putCardState(card);
+        append(record);
+    }
+
+    public synchronized void appendEdit(Deck deck, Flashcard card) {
+
+        Record record = new Record(deck, TYPE_EDIT, card);
+        record.putString(card.getFront());
+        record.putString(card.getBack());
+        append(record);
+    }
+
+    public synchronized void appendDelete(Deck deck, Flashcard card) {
+        append(new Record(deck, TYPE_DELETE, card));
+    }
+
+    public synchronized void appendReview(Deck deck, Flashcard card) {
+
+        Record record = new Record(deck, TYPE_REVIEW, card);
+        record.putCardState(card);
+        append(record);
+    }
+
+    //Wendet alle Einträge an, die neuer als der gespeicherte Stapel sind. Gibt die Anzahl zurück.
+    public synchronized int replay(Deck deck) throws IOException {
+
+        if (!Files.exists(journalFile)) {
+            size = 0;
+            return 0;
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(journalFile));
+        int applied = 0;
+        int validLength = 0;
+        size = buffer.capacity();
+
+        while (buffer.hasRemaining()) {
+            int length = buffer.remaining() >= 4 ? buffer.getInt() : -1;
+            if (length < 9 || length > buffer.remaining()) {
+                //Unvollständigen Eintrag abschneiden, damit neue Einträge wieder lesbar angehängt werden
+                LogHelper.writeToLog(Level.INFO, "Unvollständiger Eintrag im Journal " + journalFile.getFileName()
+                        + " wird entfernt.");
+                try (FileChannel channel = FileChannel.open(journalFile, StandardOpenOption.WRITE)) {
+                    channel.truncate(validLength);
+                }
+                size = validLength;
+                break;
+            }
+            ByteBuffer entry = buffer.slice();
+            entry.limit(length);
+            buffer.position(buffer.position() + length);
+            validLength = buffer.position();
+
+            long sequence = entry.getLong();
+            if (sequence <= deck.getJournalSequence()) {
+                continue;
+            }
+            apply(deck, entry.get(), entry);
+            deck.setJournalSequence(sequence);
+            applied++;
+        }
+        return applied;
+    }
+
+    //Speichert den Stapel komplett und entfernt alle darin enthaltenen Einträge aus dem Journal.
+    //Ein älterer Stand als der zuletzt gespeicherte wird nicht mehr geschrieben.
+    public synchronized void compact(Deck snapshot) throws IOException {
+
+        if (snapshot.getJournalSequence() < snapshotSequence) {
+            return;
+        }
+        DeckWriter.getInstance().writeAtomically(deckFile, tempFile -> DeckCodec.write(snapshot, tempFile));
+        snapshotSequence = snapshot.getJournalSequence();
+        truncate(snapshotSequence);
+    }
+
+    public synchronized void delete() throws IOException {
+        Files.deleteIfExists(journalFile);
+        size = 0;
+    }
+
+    //Der Eintrag wird auf dem Thread des Model.PersistenceService geschrieben. Die Laufnummer ist zu diesem
+    //Zeitpunkt bereits vergeben, daher bleibt die Reihenfolge der Einträge erhalten.
+    private void append(Record record) {
+
+        ByteBuffer buffer = record.toBuffer();
+        size = size() + buffer.remaining();
+        PersistenceService.getInstance().execute(() -> write(buffer));
+    }
+
+    private synchronized void write(ByteBuffer buffer) {
+
+        try (FileChannel channel = FileChannel.open(journalFile, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            long previousSize = channel.size();
+            try {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                DeckWriter.getInstance().appended(journalFile, channel);
+            } catch (IOException ex) {
+                //Halb geschriebenen Eintrag wieder entfernen
+                channel.truncate(previousSize);
+                throw ex;
+            }
+
+        } catch (IOException ex) {
+            LogHelper.writeToLog(Level.INFO, "Fehler beim Schreiben in das Journal " + journalFile.getFileName()
+                    + ": " + ex);
+        }
+    }
+
+    //Entfernt alle Einträge bis einschließlich der Laufnummer. Neuere Einträge bleiben erhalten.
+    private void truncate(long upToSequence) throws IOException {
+
+        if (!Files.exists(journalFile)) {
+            return;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(journalFile));
+        ByteBuffer kept = ByteBuffer.allocate(buffer.capacity());
+
+        while (buffer.remaining() >= 4) {
+            int length = buffer.getInt();
+            if (length < 9 || length > buffer.remaining()) {
+                break;
+            }
+            if (buffer.getLong(buffer.position()) > upToSequence) {
+                kept.putInt(length);
+                kept.put(buffer.array(), buffer.position(), length);
+            }
+            buffer.position(buffer.position() + length);
+        }
+
+        size = kept.position();
+        if (kept.position() == 0) {
+            Files.deleteIfExists(journalFile);
+        } else {
+            byte[] content = Arrays.copyOf(kept.array(), kept.position());
+            DeckWriter.getInstance().writeAtomically(journalFile, tempFile -> Files.write(tempFile, content));
+        }
+    }
+
+    //Die Einträge setzen absolute Werte, daher ist ein doppeltes Anwenden (z.B. nach einem Absturz
+    //während compact()) unschädlich. Neue Karten bekommen wieder ihre ursprüngliche Id.
+    private void apply(Deck deck, byte type, ByteBuffer entry) {
+
+        if (type < TYPE_ADD) {
+            applyByFront(deck, type, entry);
+            return;
+        }
+        int id = entry.getInt();
+        Flashcard card = deck.getCardById(id);
+
+        switch (type) {
+            case TYPE_ADD:
+                String front = getString(entry);
+                String back = getString(entry);
+                if (card == null) {
+                    card = new Flashcard(front, back);
+                    card.setId(id);
+                    readCardState(card, entry);
+                    deck.addCard(card);
+                } else {
+                    deck.editCard(card, front, back);
+                    readCardState(card, entry);
+                    deck.updateCard(card);
+                }
+                break;
+            case TYPE_EDIT:
+                String newFront = getString(entry);
+                String newBack = getString(entry);
+                if (card != null) {
+                    deck.editCard(card, newFront, newBack);
+                }
+                break;
+            case TYPE_DELETE:
+                if (card != null) {
+                    deck.removeCard(card);
+                }
+                break;
+            case TYPE_REVIEW:
+                if (card != null) {
+                    readCardState(card, entry);
+                    deck.updateCard(card);
+                }
+                break;
+            default:
+                LogHelper.writeToLog(Level.INFO, "Unbekannter Eintrag im Journal " + journalFile.getFileName());
+        }
+    }
+
+    //Einträge älterer Journale, die Karte wird über ihre Vorderseite gefunden. Neue Karten bekommen ihre Id in
+    //derselben Reihenfolge wie beim ursprünglichen Hinzufügen.
+    private void applyByFront(Deck deck, byte type, ByteBuffer entry) {
+
+        String front = getString(entry);
+        Flashcard card = deck.getCardByName(front);
+
+        switch (type) {
+            case TYPE_ADD_BY_FRONT:
+                if (card == null) {
+                    card = new Flashcard(front, getString(entry));
+                    readCardState(card, entry);
+                    deck.addCard(card);
+                } else {
+                    deck.editCard(card, front, getString(entry));
+                    readCardState(card, entry);
+                    deck.updateCard(card);
+                }
+                break;
+            case TYPE_EDIT_BY_FRONT:
+                String newFront = getString(entry);
+                String newBack = getString(entry);
+                if (card != null) {
+                    deck.editCard(card, newFront, newBack);
+                }
+                break;
+            case TYPE_DELETE_BY_FRONT:
+                if (card != null) {
+                    deck.removeCard(card);
+                }
+                break;
+            case TYPE_REVIEW_BY_FRONT:
+                getString(entry);
+                if (card != null) {
+                    readCardState(card, entry);
+                    deck.updateCard(card);
+                }
+                break;
+            default:
+                LogHelper.writeToLog(Level.INFO, "Unbekannter Eintrag im Journal " + journalFile.getFileName());
+        }
+    }
+
+    private static void readCardState(Flashcard card, ByteBuffer entry) {
+
+        card.setLevel(entry.get());
+        card.setDifficulty(entry.get());
+        card.setLearned(entry.get() != 0);
+        card.setRepetitionDate(new Date(entry.getLong()));
+    }
+
+    private static String getString(ByteBuffer entry) {
+
+        byte[] bytes = new byte[entry.getInt()];
+        entry.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    //Ein einzelner Eintrag zu einer Karte. Die Laufnummer wird beim Erstellen im Stapel hochgezählt.
+    private static class Record {
+
+        private ByteBuffer buffer = ByteBuffer.allocate(256);
+
+        Record(Deck deck, byte type, Flashcard card) {
+
+            long sequence = deck.getJournalSequence() + 1;
+            deck.setJournalSequence(sequence);
+            buffer.putInt(0);
+            buffer.putLong(sequence);
+            buffer.put(type);
+            buffer.putInt(card.getId());
+        }
+
+        void putCardState(Flashcard card) {
+
+            ensureSpace(11);
+            buffer.put((byte) card.getLevel());
+            buffer.put((byte) card.getDifficulty());
+            buffer.put((byte) (card.getLearned() ? 1 : 0));
+            buffer.putLong(card.getRepetitionDate().getTime());
+        }
+
+        void putString(String value) {
+
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            ensureSpace(4 + bytes.length);
+            buffer.putInt(bytes.length);
+            buffer.put(bytes);
+        }
+
+        ByteBuffer toBuffer() {
+
+            buffer.putInt(0, buffer.position() - 4);
+            buffer.flip();
+            return buffer;
+        }
+
+        private void ensureSpace(int length) {
+
+            if (buffer.remaining() < length) {
+                ByteBuffer larger = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + length));
+                buffer.flip();
+                larger.put(buffer);
+                buffer = larger;
+            }
+        }
+    }
+}
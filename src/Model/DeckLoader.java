@@ -0,0 +1,103 @@
+package Model;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+
+//Liest mehrere Stapel gleichzeitig über Helper.getDeckFromFile() ein, z.B. beim ersten Start ohne Model.DeckIndex.
+//Einlesen und Dekodieren eines Stapels hängen nicht von anderen Stapeln ab; die Dauer richtet sich so nach
+//Kernen und Festplatte statt nach der Anzahl der Stapel.
+//
+//Die Anzahl der Threads ist begrenzt (-Dflashcards.loadThreads), da eine Festplatte nicht beliebig viele Dateien
+//gleichzeitig schneller liest. Ungenutzte Threads werden nach kurzer Zeit beendet.
+public class DeckLoader {
+
+    public static final int DEFAULT_THREADS = Math.max(2, Math.min(8, Runtime.getRuntime().availableProcessors()));
+    private static final long KEEP_ALIVE_SECONDS = 10;
+
+    private static DeckLoader instance;
+
+    private final int threads;
+    private final ThreadPoolExecutor executor;
+    //Dauer des letzten loadAll() in Millisekunden, für die Startzeit
+    private volatile long lastLoadMillis;
+
+    public DeckLoader(int threads) {
+
+        this.threads = threads;
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "DeckLoader-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    public static synchronized DeckLoader getInstance() {
+
+        if (instance == null) {
+            instance = new DeckLoader(Integer.getInteger("flashcards.loadThreads", DEFAULT_THREADS));
+        }
+        return instance;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public long getLastLoadMillis() {
+        return lastLoadMillis;
+    }
+
+    //Liest die Stapel (Dateinamen wie in Helper.getDeckNames()) und gibt sie nach Namen in der Reihenfolge von
+    //fileNames zurück. Stapel, die nicht gelesen werden konnten, fehlen. Jeder fertige Stapel wird sofort an
+    //onLoaded übergeben (auf einem Thread des Loaders, null = keine Benachrichtigung).
+    public Map<String, Deck> loadAll(Helper helper, List<String> fileNames, Consumer<Deck> onLoaded) {
+
+        long start = System.nanoTime();
+        List<Future<Deck>> futures = new ArrayList<>(fileNames.size());
+        for (String fileName : fileNames) {
+            futures.add(executor.submit(() -> {
+                Deck deck = helper.getDeckFromFile(fileName);
+                if (deck != null && onLoaded != null) {
+                    onLoaded.accept(deck);
+                }
+                return deck;
+            }));
+        }
+
+        Map<String, Deck> decks = new LinkedHashMap<>();
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                Deck deck = futures.get(i).get();
+                if (deck != null) {
+                    decks.put(fileNames.get(i).replace(".txt", ""), deck);
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                LogHelper.writeToLog(Level.INFO, "Einlesen der Stapel wurde unterbrochen.");
+                break;
+            } catch (ExecutionException ex) {
+                LogHelper.writeToLog(Level.INFO, "Fehler beim Einlesen von " + fileNames.get(i) + ": " + ex.getCause());
+            }
+        }
+
+        lastLoadMillis = (System.nanoTime() - start) / 1_000_000;
+        if (!fileNames.isEmpty()) {
+            LogHelper.writeToLog(Level.INFO, () -> decks.size() + " Stapel mit " + threads + " Threads in "
+                    + lastLoadMillis + " ms eingelesen.");
+        }
+        return decks;
+    }
+}
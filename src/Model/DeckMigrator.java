@@ -0,0 +1,56 @@
+package Model;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.logging.Level;
+
+//Wandelt Stapel, die noch mit der Java-Serialisierung gespeichert wurden, einmalig in das binäre
+//Format von Model.DeckCodec um. Bereits umgewandelte Stapel werden übersprungen.
+public class DeckMigrator {
+
+    private final Helper helper;
+
+    public DeckMigrator(Helper helper) {
+        this.helper = helper;
+    }
+
+    //Gibt die Anzahl der umgewandelten Stapel zurück.
+    public int migrateAll() {
+
+        int migrated = 0;
+        List<String> deckNames = helper.getDeckNames();
+        if (deckNames == null) {
+            return migrated;
+        }
+
+        for (String fileName : deckNames) {
+            Path file = Paths.get(helper.getFlashcardsDirectory().toString(), fileName);
+            if (!DeckCodec.isBinaryDeckFile(file) && migrate(file)) {
+                migrated++;
+            }
+        }
+        if (migrated > 0) {
+            LogHelper.writeToLog(Level.INFO, migrated + " Stapel in das binäre Format umgewandelt.");
+        }
+        return migrated;
+    }
+
+    //Zuerst in eine temporäre Datei schreiben, damit der alte Stapel bei einem Fehler erhalten bleibt.
+    private boolean migrate(Path file) {
+
+        try {
+            Deck deck = helper.getDeckFromFile(file.getFileName().toString());
+            if (deck == null) {
+                LogHelper.writeToLog(Level.INFO, "Stapel " + file.getFileName() + " konnte nicht umgewandelt werden.");
+                return false;
+            }
+            DeckWriter.getInstance().writeAtomically(file, tempFile -> DeckCodec.write(deck, tempFile));
+            return true;
+
+        } catch (Exception ex) {
+            LogHelper.writeToLog(Level.INFO, "Fehler beim Umwandeln des Stapels " + file.getFileName() + ": " + ex);
+            return false;
+        }
+    }
+}
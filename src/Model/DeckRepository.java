@@ -0,0 +1,679 @@
+package Model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Level;
+
+//Zentraler Speicher für alle Stapel des Programms. Beim ersten Zugriff wird nur der Model.DeckIndex gelesen,
+//die Karten eines Stapels werden erst eingelesen, wenn der Stapel geöffnet wird, und danach im Speicher gehalten.
+//Ändert sich die Datei eines Stapels (Speichern, Löschen), werden Index und Speicher aktualisiert,
+//sodass ein Szenenwechsel nicht mehr auf die Festplatte zugreift.
+//Alle Methoden, die auf die Festplatte zugreifen können, werden über den Model.PersistenceService aufgerufen.
+//Änderungen an einzelnen Karten werden nur im Model.DeckJournal vermerkt. Wird das Journal zu groß,
+//wird der Stapel über den Model.DeckWriter im Hintergrund komplett gespeichert und das Journal geleert.
+//Für jeden geladenen Stapel wird eine Model.DueQueue geführt, die bei jeder Änderung mitgepflegt wird.
+//
+//Jeder Stapel hat eine eigene Lese-/Schreibsperre (nach Name). Lesen (nächste Karte, Kartenliste, Export, Speichern
+//im Hintergrund) läuft parallel, Ändern exklusiv, und Benutzer mit verschiedenen Stapeln warten nicht aufeinander.
+//Die Maps sind mit der Sperre des Repository (this) geschützt, die nur kurz gehalten wird. Der Model.DeckIndex hat
+//eine eigene Sperre und wird beim ersten Zugriff außerhalb der Sperre des Repository eingelesen; Stapel, die dafür
+//gelesen werden müssen, werden einzeln übernommen, sobald sie fertig sind.
+//Reihenfolge der Sperren: Stapel -> Repository -> Model.DeckIndex / Model.SearchIndex / Model.StatsService /
+//Model.ReviewLog. Unter der Sperre des Repository wird also nie auf die Sperre eines Stapels oder auf den Index
+//gewartet.
+public class DeckRepository {
+
+    //Ab dieser Größe des Journals wird der Stapel im Hintergrund komplett gespeichert.
+    private static final long COMPACTION_THRESHOLD_BYTES = 256 * 1024;
+
+    private static DeckRepository instance;
+
+    private final Map<String, Deck> decks = new HashMap<>();
+    private final Map<String, DueQueue> dueQueues = new HashMap<>();
+    private final Map<String, ReadWriteLock> locks = new ConcurrentHashMap<>();
+    private volatile DeckIndex index;
+
+    private DeckRepository() {
+    }
+
+    public static synchronized DeckRepository getInstance() {
+
+        if (instance == null) {
+            instance = new DeckRepository();
+        }
+        return instance;
+    }
+
+    //Gibt die Kurzbeschreibungen aller Stapel zurück, ohne Karten einzulesen.
+    public List<DeckHeader> getHeaders() {
+        return getIndex().getHeaders();
+    }
+
+    //Gibt die Kurzbeschreibungen aller Stapel eines Benutzers inklusive der Beispielstapel zurück.
+    public List<DeckHeader> getHeadersOfOwner(String owner) {
+
+        List<DeckHeader> ownerHeaders = new ArrayList<>();
+        for (DeckHeader header : getIndex().getHeaders()) {
+            if (header.isOwnedBy(owner)) {
+                ownerHeaders.add(header);
+            }
+        }
+        return ownerHeaders;
+    }
+
+    //Gibt den kompletten Stapel zurück. Die Karten werden beim ersten Öffnen von der Festplatte gelesen.
+    //Das Einlesen passiert außerhalb der Sperre, damit Änderungen an anderen Stapeln nicht darauf warten.
+    public Deck getDeck(String name) {
+
+        if (name == null) {
+            return null;
+        }
+        //Während der Index eingelesen wird, muss nur dieser Stapel fertig sein
+        if (startIndex().awaitHeader(name) == null) {
+            return null;
+        }
+        synchronized (this) {
+            if (decks.containsKey(name)) {
+                return decks.get(name);
+            }
+        }
+
+        Deck deck = new Helper().getDeckFromFile(name + ".txt");
+        if (deck == null) {
+            LogHelper.writeToLog(Level.INFO, "Stapel " + name + " konnte nicht geöffnet werden.");
+            return null;
+        }
+        //Die Warteschlange wird gleich beim Einlesen aufgebaut, damit das Öffnen zum Üben keine Karten mehr anfasst
+        DueQueue dueQueue = new DueQueue(deck);
+        synchronized (this) {
+            //Falls der Stapel in der Zwischenzeit von einem anderen Thread geladen wurde
+            Deck loadedDeck = decks.get(name);
+            if (loadedDeck != null) {
+                return loadedDeck;
+            }
+            decks.put(name, deck);
+            dueQueues.put(name, dueQueue);
+            return deck;
+        }
+    }
+
+    //Wie getDeck() für mehrere Stapel, in der Reihenfolge von names. Noch nicht geladene Stapel werden
+    //gleichzeitig über den Model.DeckLoader gelesen; Stapel, die nicht geöffnet werden können, fehlen.
+    public List<Deck> getDecks(List<String> names) {
+
+        DeckIndex deckIndex = getIndex();
+        List<String> fileNames = new ArrayList<>();
+        synchronized (this) {
+            for (String name : names) {
+                if (deckIndex.getHeader(name) != null && !decks.containsKey(name)) {
+                    fileNames.add(name + ".txt");
+                }
+            }
+        }
+
+        //Die Warteschlangen werden wie in getDeck() gleich beim Einlesen aufgebaut, auf den Threads des Loaders
+        Map<String, DueQueue> loadedQueues = new ConcurrentHashMap<>();
+        Map<String, Deck> loadedDecks = fileNames.isEmpty() ? new HashMap<>() : DeckLoader.getInstance()
+                .loadAll(new Helper(), fileNames, deck -> loadedQueues.put(deck.getName(), new DueQueue(deck)));
+
+        List<Deck> result = new ArrayList<>(names.size());
+        synchronized (this) {
+            for (String name : names) {
+                Deck deck = decks.get(name);
+                Deck loadedDeck = loadedDecks.get(name);
+                //Falls der Stapel in der Zwischenzeit von einem anderen Thread geladen wurde, gilt dessen Stand
+                if (deck == null && loadedDeck != null) {
+                    deck = loadedDeck;
+                    decks.put(name, deck);
+                    DueQueue dueQueue = loadedQueues.get(deck.getName());
+                    if (dueQueue != null) {
+                        dueQueues.put(name, dueQueue);
+                    }
+                }
+                if (deck != null) {
+                    result.add(deck);
+                }
+            }
+        }
+        return result;
+    }
+
+    //Nächste Karte des Stapels, die bis zum Zeitpunkt time fällig ist, oder null. Der Stapel wird nicht verändert.
+    public Flashcard nextDueCard(Deck deck, long time) {
+
+        Lock lock = readLock(deck.getName());
+        try {
+            int id = getDueQueue(deck).nextDue(time);
+            return id == 0 ? null : deck.getCardById(id);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int countDueCards(Deck deck, long time) {
+
+        Lock lock = readLock(deck.getName());
+        try {
+            return getDueQueue(deck).countDue(time);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    //Karte mit der Id oder null, unter der Lesesperre des Stapels. Für Stapel, die mehrere Benutzer gleichzeitig
+    //benutzen (z.B. Beispielstapel), statt Deck.getCardById().
+    public Flashcard getCard(Deck deck, int id) {
+
+        Lock lock = readLock(deck.getName());
+        try {
+            return deck.getCardById(id);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean isEmpty() {
+        return getIndex().getHeaders().isEmpty();
+    }
+
+    //Wird beim Speichern eines Stapels aufgerufen, damit Index und Speicher den neuen Stand haben.
+    //Die Datei selbst wird danach vom Model.DeckWriter geschrieben.
+    public void put(Deck deck) {
+
+        if (deck == null) {
+            return;
+        }
+        Lock lock = writeLock(deck.getName());
+        try {
+            synchronized (this) {
+                decks.put(deck.getName(), deck);
+                dueQueues.remove(deck.getName());
+                SearchIndex.getInstance().deckReplaced(deck.getName());
+                StatsService.getInstance().deckReplaced(deck);
+            }
+        } finally {
+            lock.unlock();
+        }
+        PersistenceService.getInstance().execute(() -> updateHeader(deck));
+    }
+
+    //Wird vom Model.DeckWriter aufgerufen, nachdem die Datei eines Stapels geschrieben wurde.
+    public void deckWritten(Deck deck) {
+
+        DeckIndex deckIndex = getIndex();
+        //Unter der Lesesperre kann der Stapel nicht ersetzt werden, der Index braucht daher nicht die Sperre des
+        //Repository
+        Lock lock = readLock(deck.getName());
+        try {
+            if (getLoadedDeck(deck.getName()) == deck) {
+                deckIndex.put(deck);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    //Kopie eines Stapels zum Schreiben im Hintergrund. Da alle Änderungen an den Karten über diese Klasse
+    //laufen, ändert sich der Stapel währenddessen nicht.
+    public Deck snapshotOf(Deck deck) {
+
+        Lock lock = readLock(deck.getName());
+        try {
+            return deck.snapshot();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    //Kopiert bis zu max Karten ab Position from, z.B. für einen Export in Blöcken. Gibt die Anzahl zurück.
+    //Die Sperre wird nur für einen Block gehalten, Änderungen zwischen zwei Blöcken sind also möglich.
+    public int copyCards(Deck deck, int from, List<Flashcard> into, int max) {
+        return copyCards(deck, null, from, into, max);
+    }
+
+    //Wie copyCards(), aber die Karten an positions[from] bis positions[from + max - 1]. Ist positions null,
+    //werden die Karten in der Reihenfolge des Stapels kopiert. Positionen hinter dem Ende werden übersprungen.
+    public int copyCards(Deck deck, int[] positions, int from, List<Flashcard> into, int max) {
+
+        Lock lock = readLock(deck.getName());
+        try {
+            int length = deck.getLength();
+            int to = Math.min(positions == null ? length : positions.length, from + max);
+            List<Flashcard> cards = deck.getCards();
+            int copied = 0;
+            for (int i = from; i < to; i++) {
+                int position = positions == null ? i : positions[i];
+                if (position < length) {
+                    into.add(new Flashcard(cards.get(position)));
+                    copied++;
+                }
+            }
+            return copied;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    //Ids aller Karten in der Reihenfolge des Stapels, z.B. für einen Export in Blöcken mit copyCardsById()
+    public int[] getCardIds(Deck deck) {
+
+        Lock lock = readLock(deck.getName());
+        try {
+            int[] ids = new int[deck.getLength()];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = deck.getCardId(i);
+            }
+            return ids;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    //Kopiert die Karten mit den Ids ids[from] bis ids[from + max - 1]. Anders als bei copyCards() verschieben
+    //gelöschte Karten dabei keine anderen; für sie wird null eingefügt. Gibt die Anzahl der kopierten Karten zurück.
+    public int copyCardsById(Deck deck, int[] ids, int from, List<Flashcard> into, int max) {
+
+        Lock lock = readLock(deck.getName());
+        try {
+            int to = Math.min(ids.length, from + max);
+            int copied = 0;
+            for (int i = from; i < to; i++) {
+                Flashcard card = deck.getCardById(ids[i]);
+                into.add(card == null ? null : new Flashcard(card));
+                if (card != null) {
+                    copied++;
+                }
+            }
+            return copied;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    //Ids der Karten für eine Model.CardList, siehe CardList.select().
+    int[] selectCards(Deck deck, int level, long dueBefore, CardList.Order order) {
+
+        Lock lock = readLock(deck.getName());
+        try {
+            return CardList.select(deck, level, dueBefore, order);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    //Wird nach dem Löschen einer Stapeldatei aufgerufen. Journal und Antwortprotokoll des Stapels werden ebenfalls
+    //gelöscht.
+    public void remove(String name) {
+
+        DeckIndex deckIndex = getIndex();
+        Lock lock = writeLock(name);
+        try {
+            synchronized (this) {
+                decks.remove(name);
+                dueQueues.remove(name);
+                SearchIndex.getInstance().deckRemoved(name);
+                StatsService.getInstance().deckRemoved(name);
+            }
+            deckIndex.remove(name);
+            DeckWriter.getInstance().cancel(name);
+            try {
+                getJournal(name).delete();
+            } catch (Exception ex) {
+                LogHelper.writeToLog(Level.INFO, "Fehler beim Löschen des Journals von " + name + ": " + ex);
+            }
+            try {
+                getReviewLog(name).delete();
+            } catch (Exception ex) {
+                LogHelper.writeToLog(Level.INFO, "Fehler beim Löschen des Antwortprotokolls von " + name + ": " + ex);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void addCard(Deck deck, Flashcard card) {
+
+        Lock lock = writeLock(deck.getName());
+        try {
+            storeNewCard(deck, card);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    //Fügt die Karte nur hinzu, wenn es ihre Vorderseite im Stapel noch nicht gibt. Prüfen und Hinzufügen
+    //passieren unter derselben Schreibsperre, gleichzeitige Aufrufe legen also keine doppelte Karte an.
+    public boolean addCardIfAbsent(Deck deck, Flashcard card) {
+
+        Lock lock = writeLock(deck.getName());
+        try {
+            if (deck.containsCard(card.getFront())) {
+                return false;
+            }
+            storeNewCard(deck, card);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    //Ändert die Karte direkt im Stapel, statt sie zu entfernen und neu hinzuzufügen.
+    public void editCard(Deck deck, Flashcard card, String front, String back) {
+
+        Lock lock = writeLock(deck.getName());
+        try {
+            String oldFront = card.getFront();
+            String oldBack = card.getBack();
+            deck.editCard(card, front, back);
+            getJournal(deck.getName()).appendEdit(deck, card);
+            SearchIndex.getInstance().cardEdited(deck, oldFront, oldBack, card);
+            afterJournalChange(deck);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void removeCard(Deck deck, Flashcard card) {
+
+        Lock lock = writeLock(deck.getName());
+        try {
+            deck.removeCard(card);
+            getDueQueue(deck).remove(card);
+            getJournal(deck.getName()).appendDelete(deck, card);
+            SearchIndex.getInstance().cardRemoved(deck, card);
+            StatsService.getInstance().cardRemoved(deck, card);
+            afterJournalChange(deck);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    //Fügt viele Karten auf einmal hinzu, z.B. beim Import. Karten, deren Vorderseite es im Stapel schon gibt,
+    //werden wie bei addCardIfAbsent() unter derselben Schreibsperre übersprungen. Statt eines Journaleintrags pro
+    //Karte wird der Stapel danach einmal komplett gespeichert. Gibt die Anzahl der hinzugefügten Karten zurück.
+    public int addCards(Deck deck, List<Flashcard> cards) {
+
+        int added = 0;
+        Lock lock = writeLock(deck.getName());
+        try {
+            DueQueue dueQueue = getDueQueue(deck);
+            for (Flashcard card : cards) {
+                if (deck.containsCard(card.getFront())) {
+                    continue;
+                }
+                deck.addCard(card);
+                dueQueue.add(card);
+                SearchIndex.getInstance().cardAdded(deck, card);
+                StatsService.getInstance().cardAdded(deck, card);
+                added++;
+            }
+            if (added == 0) {
+                return 0;
+            }
+            //Ohne Journaleintrag würde die Laufnummer gleich bleiben, und ein gespeicherter Suchindex mit der alten
+            //Laufnummer gälte nach dem Speichern weiter als passend (siehe SearchIndex.install())
+            deck.setJournalSequence(deck.getJournalSequence() + 1);
+        } finally {
+            lock.unlock();
+        }
+        DeckWriter.getInstance().save(deck);
+        return added;
+    }
+
+    //Bewertet die Karte mit der Schwierigkeit und speichert das Ergebnis im Journal. Alles passiert
+    //unter der Schreibsperre des Stapels, damit ein gleichzeitiges Speichern keine halb bewertete Karte sieht.
+    //Gibt die bewertete Karte zurück oder null, falls es sie im Stapel nicht gibt.
+    public Flashcard reviewCard(Deck deck, int cardId, int difficulty) {
+        return reviewCard(deck, cardId, difficulty, -1);
+    }
+
+    //Wie reviewCard(deck, cardId, difficulty), zusätzlich wird die Antwort mit der Antwortzeit in Millisekunden
+    //(-1 = unbekannt) im Model.ReviewLog des Stapels protokolliert.
+    public Flashcard reviewCard(Deck deck, int cardId, int difficulty, int responseMillis) {
+
+        Lock lock = writeLock(deck.getName());
+        try {
+            Flashcard card = deck.getCardById(cardId);
+            if (card != null) {
+                int oldLevel = card.getLevel();
+                int oldDifficulty = card.getDifficulty();
+                long oldTime = card.getRepetitionDate().getTime();
+                card.setDifficulty(difficulty);
+                card.updateInterval();
+                storeReview(deck, card);
+                StatsService.getInstance().cardReviewed(deck, oldLevel, oldTime, card);
+
+                //Der vorherige Abstand ergibt sich aus der vorherigen Bewertung, bei neuen Karten gibt es keinen
+                long now = System.currentTimeMillis();
+                long previousInterval = oldDifficulty >= 1 && oldDifficulty <= Scheduler.MAX_GRADE
+                        ? SchedulerService.getInstance().getScheduler().getInterval(oldLevel, oldDifficulty) : 0;
+                getReviewLog(deck.getName()).append(now, cardId, difficulty, oldLevel, card.getLevel(),
+                        previousInterval, card.getRepetitionDate().getTime() - now, responseMillis);
+            }
+            return card;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    //Plant alle Stapel vom Verfahren from auf to um und gibt die Anzahl der Karten zurück. Nicht geladene Stapel
+    //werden dafür eingelesen; gespeichert wird jeder Stapel komplett, da ein Journaleintrag pro Karte deutlich
+    //größer wäre. Liest von der Festplatte, also nicht auf dem JavaFX-Thread aufrufen.
+    public int rescheduleAll(Scheduler from, Scheduler to) {
+
+        int cards = 0;
+        for (DeckHeader header : getHeaders()) {
+            Deck deck = getDeck(header.getName());
+            if (deck == null) {
+                continue;
+            }
+            Lock lock = writeLock(deck.getName());
+            try {
+                deck.reschedule(from, to);
+                //Die Model.DueQueue wird beim nächsten Zugriff neu aufgebaut
+                put(deck);
+                cards += deck.getLength();
+            } finally {
+                lock.unlock();
+            }
+            DeckWriter.getInstance().save(deck);
+        }
+        return cards;
+    }
+
+    //Schreibt alle vorgemerkten Stapel, den Index, den Suchindex und die Statistik, z.B. beim Beenden des Programms.
+    public void close() {
+
+        DeckWriter.getInstance().flush();
+        ReviewLog.saveAll();
+        synchronized (this) {
+            //Ein Index, der noch eingelesen wird, ist unvollständig und wird nicht gespeichert
+            DeckIndex loadedIndex = index;
+            if (loadedIndex != null && loadedIndex.isLoaded()) {
+                loadedIndex.save();
+            }
+            SearchIndex.getInstance().save();
+            StatsService.getInstance().save();
+        }
+    }
+
+    //Markiert einen Stapel als veraltet. Er wird beim nächsten Öffnen neu von der Festplatte gelesen.
+    public synchronized void invalidate(String name) {
+        decks.remove(name);
+        dueQueues.remove(name);
+        SearchIndex.getInstance().deckReplaced(name);
+        StatsService.getInstance().deckInvalidated(name);
+    }
+
+    //Suchindex eines Stapels, siehe Model.SearchIndex.install(). Unter der Sperre des Stapels, damit der Index beim
+    //Übernehmen bzw. Aufbauen zu den Karten passt und keine gleichzeitige Änderung verloren geht.
+    SearchIndex.DeckTerms getSearchTerms(String name, SearchIndex.DeckTerms stored) {
+
+        Lock lock = readLock(name);
+        try {
+            return SearchIndex.getInstance().install(name, getLoadedDeck(name), stored);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    //Prüft die Zähler der Statistik eines Stapels, siehe Model.StatsService.install(). false, falls der Stapel
+    //dafür erst eingelesen werden muss.
+    boolean countStats(String name) {
+
+        Lock lock = readLock(name);
+        try {
+            return StatsService.getInstance().install(name, getLoadedDeck(name));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    //Wird unter der Schreibsperre des Stapels aufgerufen
+    private void storeNewCard(Deck deck, Flashcard card) {
+
+        deck.addCard(card);
+        getDueQueue(deck).add(card);
+        getJournal(deck.getName()).appendAdd(deck, card);
+        SearchIndex.getInstance().cardAdded(deck, card);
+        StatsService.getInstance().cardAdded(deck, card);
+        afterJournalChange(deck);
+    }
+
+    //Wird unter der Schreibsperre des Stapels aufgerufen
+    private void storeReview(Deck deck, Flashcard card) {
+
+        deck.updateCard(card);
+        getDueQueue(deck).update(card);
+        getJournal(deck.getName()).appendReview(deck, card);
+        SearchIndex.getInstance().cardReviewed(deck);
+        afterJournalChange(deck);
+    }
+
+    //Der Index wird erst nach dem Schreiben des Journaleintrags aktualisiert, da er dessen Größe enthält.
+    //Wird unter der Schreibsperre des Stapels aufgerufen. Anzahl und frühestes Abfragedatum werden hier in O(1)
+    //abgelesen (frühestes Datum vorne in der Model.DueQueue), der Eintrag im Index braucht dann keinen Durchlauf
+    //über alle Karten.
+    private void afterJournalChange(Deck deck) {
+
+        int cardCount = deck.getLength();
+        long earliestRepetitionTime = getDueQueue(deck).peekTime();
+        PersistenceService.getInstance().execute(() -> updateHeader(deck, cardCount, earliestRepetitionTime));
+        if (getJournal(deck.getName()).size() > COMPACTION_THRESHOLD_BYTES) {
+            DeckWriter.getInstance().save(deck);
+        }
+    }
+
+    private void updateHeader(Deck deck, int cardCount, long earliestRepetitionTime) {
+
+        DeckIndex deckIndex = getIndex();
+        long journalSize = getJournal(deck.getName()).size();
+        synchronized (this) {
+            if (decks.get(deck.getName()) == deck
+                    && !deckIndex.updateJournalChanges(deck.getName(), cardCount, earliestRepetitionTime, journalSize)) {
+                deckIndex.update(deck);
+            }
+        }
+    }
+
+    private void updateHeader(Deck deck) {
+
+        DeckIndex deckIndex = getIndex();
+        Lock lock = readLock(deck.getName());
+        try {
+            if (getLoadedDeck(deck.getName()) == deck) {
+                deckIndex.update(deck);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private synchronized Deck getLoadedDeck(String name) {
+        return decks.get(name);
+    }
+
+    //Sperren sind nach Namen vergeben, gelten also auch für einen neu eingelesenen Stapel mit demselben Namen.
+    private Lock readLock(String name) {
+
+        Lock lock = locks.computeIfAbsent(name, key -> new ReentrantReadWriteLock()).readLock();
+        lock.lock();
+        return lock;
+    }
+
+    private Lock writeLock(String name) {
+
+        Lock lock = locks.computeIfAbsent(name, key -> new ReentrantReadWriteLock()).writeLock();
+        lock.lock();
+        return lock;
+    }
+
+    //Stapel, die nicht über getDeck() geladen wurden (z.B. neu angelegte), bekommen ihre Warteschlange hier.
+    //Die Warteschlange selbst wird unter der Sperre des Stapels benutzt.
+    private synchronized DueQueue getDueQueue(Deck deck) {
+
+        DueQueue dueQueue = dueQueues.get(deck.getName());
+        if (dueQueue == null || decks.get(deck.getName()) != deck) {
+            dueQueue = new DueQueue(deck);
+            if (decks.get(deck.getName()) == deck) {
+                dueQueues.put(deck.getName(), dueQueue);
+            }
+        }
+        return dueQueue;
+    }
+
+    private DeckJournal getJournal(String name) {
+        return DeckJournal.forDeck(new Helper().getFlashcardsDirectory(), name);
+    }
+
+    ReviewLog getReviewLog(String name) {
+        return ReviewLog.forDeck(new Helper().getFlashcardsDirectory(), name);
+    }
+
+    //Vollständiger Index. Nie unter der Sperre des Repository aufrufen: Während des Einlesens werden die Stapel
+    //über diese Sperre übernommen.
+    private DeckIndex getIndex() {
+
+        DeckIndex loadedIndex = startIndex();
+        loadedIndex.awaitLoaded();
+        return loadedIndex;
+    }
+
+    //Liest den Index beim ersten Aufruf im aufrufenden Thread ein. Andere Threads bekommen ihn sofort, er kann
+    //dann noch unvollständig sein (siehe DeckIndex.isLoaded()).
+    private DeckIndex startIndex() {
+
+        DeckIndex startedIndex = index;
+        if (startedIndex != null) {
+            return startedIndex;
+        }
+        Helper helper = new Helper();
+        synchronized (this) {
+            if (index != null) {
+                return index;
+            }
+            startedIndex = new DeckIndex(helper.getFlashcardsDirectory());
+            index = startedIndex;
+        }
+        startedIndex.load(helper, this::deckLoaded);
+        return startedIndex;
+    }
+
+    //Stapel, der für den Index eingelesen wurde (auf einem Thread des Model.DeckLoader). Die Warteschlange wird wie
+    //in getDeck() gleich mit aufgebaut.
+    private void deckLoaded(Deck deck) {
+
+        DueQueue dueQueue = new DueQueue(deck);
+        synchronized (this) {
+            if (decks.putIfAbsent(deck.getName(), deck) == null) {
+                dueQueues.put(deck.getName(), dueQueue);
+            }
+        }
+    }
+}
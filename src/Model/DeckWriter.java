@@ -0,0 +1,223 @@
+package Model;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+//Schreibt Dateien absturzsicher: Zuerst in eine temporäre Datei, die dann in einem Schritt über die
+//eigentliche Datei verschoben wird. Ein Absturz hinterlässt so entweder den alten oder den neuen Stand.
+//
+//Stapel werden nicht sofort gespeichert, sondern nach SAVE_DELAY_MILLIS im Hintergrund. Wird derselbe Stapel
+//in dieser Zeit mehrmals gespeichert, wird er nur einmal geschrieben.
+//
+//Wann die Daten mit fsync auf die Festplatte gezwungen werden, legt die FsyncPolicy fest
+//(Systemeigenschaft "flashcards.fsync" = PER_SAVE, PERIODIC oder ON_EXIT).
+public class DeckWriter {
+
+    public enum FsyncPolicy {
+        //Nach jedem Schreiben
+        PER_SAVE,
+        //Gesammelt alle FSYNC_INTERVAL_MILLIS
+        PERIODIC,
+        //Erst beim Beenden des Programms
+        ON_EXIT
+    }
+
+    private static final long SAVE_DELAY_MILLIS = Long.getLong("flashcards.saveDelayMillis", 500);
+    private static final long FSYNC_INTERVAL_MILLIS = Long.getLong("flashcards.fsyncIntervalMillis", 1000);
+
+    //Funktion, die den Inhalt in die übergebene (temporäre) Datei schreibt.
+    public interface FileContent {
+        void writeTo(Path file) throws IOException;
+    }
+
+    private static DeckWriter instance;
+
+    private final FsyncPolicy fsyncPolicy;
+    private final Map<String, Deck> pendingDecks = new LinkedHashMap<>();
+    private final Set<Path> unsyncedFiles = new HashSet<>();
+    //Gleicher Thread wie alle anderen Festplattenzugriffe, damit die Reihenfolge erhalten bleibt
+    private final ScheduledExecutorService executor = PersistenceService.getInstance().getExecutor();
+
+    private DeckWriter(FsyncPolicy fsyncPolicy) {
+
+        this.fsyncPolicy = fsyncPolicy;
+        if (fsyncPolicy == FsyncPolicy.PERIODIC) {
+            executor.scheduleWithFixedDelay(this::syncFiles, FSYNC_INTERVAL_MILLIS, FSYNC_INTERVAL_MILLIS,
+                    TimeUnit.MILLISECONDS);
+        }
+        //Falls das Programm ohne Main.stop() beendet wird
+        Runtime.getRuntime().addShutdownHook(new Thread(this::flush, "DeckWriterShutdown"));
+    }
+
+    public static synchronized DeckWriter getInstance() {
+
+        if (instance == null) {
+            instance = new DeckWriter(readFsyncPolicy());
+        }
+        return instance;
+    }
+
+    public FsyncPolicy getFsyncPolicy() {
+        return fsyncPolicy;
+    }
+
+    //Merkt den Stapel zum Speichern vor. Geschrieben wird der Stand, den der Stapel beim Schreiben hat.
+    public void save(Deck deck) {
+
+        synchronized (pendingDecks) {
+            if (pendingDecks.put(deck.getName(), deck) == null) {
+                executor.schedule(() -> writePendingDeck(deck.getName()), SAVE_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    //Entfernt einen vorgemerkten Stapel, z.B. weil er gelöscht wurde.
+    public void cancel(String name) {
+
+        synchronized (pendingDecks) {
+            pendingDecks.remove(name);
+        }
+    }
+
+    //Schreibt alle vorgemerkten Stapel sofort und erzwingt fsync für alle geschriebenen Dateien.
+    //Läuft über den Hintergrund-Thread, damit ein gerade laufendes Schreiben noch abgeschlossen wird.
+    public void flush() {
+
+        try {
+            executor.submit(this::writeAllPendingDecks).get();
+        } catch (Exception ex) {
+            LogHelper.writeToLog(Level.INFO, "Fehler beim Schreiben der vorgemerkten Stapel: " + ex);
+        }
+    }
+
+    //Schreibt den Inhalt zuerst in <Datei>.tmp und ersetzt dann die Datei in einem Schritt.
+    public void writeAtomically(Path target, FileContent content) throws IOException {
+
+        Path tempFile = Paths.get(target.toString() + ".tmp");
+        content.writeTo(tempFile);
+        if (fsyncPolicy == FsyncPolicy.PER_SAVE) {
+            force(tempFile);
+        }
+        Files.move(tempFile, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        if (fsyncPolicy == FsyncPolicy.PER_SAVE) {
+            forceDirectory(target.getParent());
+        } else {
+            markUnsynced(target);
+        }
+    }
+
+    //Wird nach dem Anhängen an eine Datei aufgerufen, deren Channel noch offen ist (z.B. Model.DeckJournal).
+    public void appended(Path file, FileChannel channel) throws IOException {
+
+        if (fsyncPolicy == FsyncPolicy.PER_SAVE) {
+            channel.force(false);
+        } else {
+            markUnsynced(file);
+        }
+    }
+
+    private void writeAllPendingDecks() {
+
+        String[] names;
+        synchronized (pendingDecks) {
+            names = pendingDecks.keySet().toArray(new String[0]);
+        }
+        for (String name : names) {
+            writePendingDeck(name);
+        }
+        syncFiles();
+    }
+
+    private void writePendingDeck(String name) {
+
+        Deck deck;
+        synchronized (pendingDecks) {
+            deck = pendingDecks.remove(name);
+        }
+        if (deck == null) {
+            //Wurde bereits durch flush() geschrieben
+            return;
+        }
+
+        try {
+            DeckRepository repository = DeckRepository.getInstance();
+            Deck snapshot = repository.snapshotOf(deck);
+            DeckJournal.forDeck(new Helper().getFlashcardsDirectory(), name).compact(snapshot);
+            repository.deckWritten(deck);
+            LogHelper.writeToLog(Level.INFO, "Model.Deck " + name + " (" + deck.getOwner() + ") gespeichtert.");
+
+        } catch (Exception ex) {
+            LogHelper.writeToLog(Level.INFO, "Fehler beim Speichern des Stapels " + name + ": " + ex);
+        }
+    }
+
+    private void markUnsynced(Path file) {
+
+        synchronized (unsyncedFiles) {
+            unsyncedFiles.add(file);
+        }
+    }
+
+    private void syncFiles() {
+
+        Path[] files;
+        synchronized (unsyncedFiles) {
+            files = unsyncedFiles.toArray(new Path[0]);
+            unsyncedFiles.clear();
+        }
+        Set<Path> directories = new HashSet<>();
+        for (Path file : files) {
+            try {
+                if (Files.exists(file)) {
+                    force(file);
+                }
+                directories.add(file.getParent());
+            } catch (IOException ex) {
+                LogHelper.writeToLog(Level.INFO, "Fehler bei fsync von " + file + ": " + ex);
+            }
+        }
+        for (Path directory : directories) {
+            forceDirectory(directory);
+        }
+    }
+
+    private static void force(Path file) throws IOException {
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+    }
+
+    //Damit auch das Umbenennen dauerhaft ist. Unter Windows lassen sich Ordner nicht öffnen, dort wird es übersprungen.
+    private static void forceDirectory(Path directory) {
+
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException ex) {
+            //Wird vom Betriebssystem nicht unterstützt
+        }
+    }
+
+    private static FsyncPolicy readFsyncPolicy() {
+
+        String value = System.getProperty("flashcards.fsync", FsyncPolicy.PER_SAVE.name());
+        try {
+            return FsyncPolicy.valueOf(value.toUpperCase());
+        } catch (IllegalArgumentException ex) {
+            LogHelper.writeToLog(Level.INFO, "Unbekannte fsync-Einstellung " + value + ", benutze PER_SAVE.");
+            return FsyncPolicy.PER_SAVE;
+        }
+    }
+}
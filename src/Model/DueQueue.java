@@ -0,0 +1,176 @@
+package Model;
+
+import java.util.Arrays;
+
+//Warteschlange der Karten eines Stapels, geordnet nach dem Abfragedatum (Min-Heap). Die Karte mit dem
+//frühesten Abfragedatum steht immer vorne, die nächste fällige Karte kostet daher nur O(log n).
+//Gespeichert werden nur die Ids und Abfragedaten der Karten, die Karten im Stapel werden nicht verändert.
+//Ändert sich das Abfragedatum einer Karte, muss update() aufgerufen werden; das übernimmt das Model.DeckRepository.
+public class DueQueue {
+
+    private int[] ids;
+    //Abfragedatum beim Einfügen, damit die alte Position auch nach einer Änderung an der Karte bekannt ist
+    private long[] times;
+    private int size;
+    //Position + 1 der Id im Heap, 0 = nicht enthalten
+    private int[] positionsById;
+
+    //Baut den Heap in O(n) auf, ohne Model.Flashcard-Objekte zu erstellen
+    public DueQueue(Deck deck) {
+
+        int capacity = Math.max(16, deck.getLength());
+        ids = new int[capacity];
+        times = new long[capacity];
+        positionsById = new int[Math.max(capacity, deck.getNextCardId()) + 1];
+        for (int i = 0; i < deck.getLength(); i++) {
+            int id = deck.getCardId(i);
+            if (getPosition(id) < 0) {
+                ids[size] = id;
+                times[size] = deck.getRepetitionTime(i);
+                setPosition(id, size);
+                size++;
+            }
+        }
+        for (int i = size / 2 - 1; i >= 0; i--) {
+            siftDown(i);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    //Id der Karte mit dem frühesten Abfragedatum, ohne sie zu entfernen. 0 = keine Karte.
+    public int peek() {
+        return size == 0 ? 0 : ids[0];
+    }
+
+    //Frühestes Abfragedatum aller Karten, Long.MAX_VALUE = keine Karte. Wie Deck.getEarliestRepetitionTime(),
+    //aber in O(1).
+    public long peekTime() {
+        return size == 0 ? Long.MAX_VALUE : times[0];
+    }
+
+    //Id der nächsten Karte, die bis zum Zeitpunkt time fällig ist. 0 = keine Karte fällig.
+    public int nextDue(long time) {
+        return size > 0 && times[0] <= time ? ids[0] : 0;
+    }
+
+    //Anzahl der bis time fälligen Karten. Es werden nur die fälligen Karten besucht.
+    public int countDue(long time) {
+        return countDue(0, time);
+    }
+
+    public void add(Flashcard card) {
+
+        if (getPosition(card.getId()) >= 0) {
+            update(card);
+            return;
+        }
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+            times = Arrays.copyOf(times, size * 2);
+        }
+        ids[size] = card.getId();
+        times[size] = card.getRepetitionDate().getTime();
+        setPosition(card.getId(), size);
+        size++;
+        siftUp(size - 1);
+    }
+
+    public void remove(Flashcard card) {
+
+        int position = getPosition(card.getId());
+        if (position < 0) {
+            return;
+        }
+        positionsById[card.getId()] = 0;
+        size--;
+        if (position != size) {
+            move(size, position);
+            siftDown(position);
+            siftUp(position);
+        }
+    }
+
+    //Ordnet die Karte nach einer Änderung ihres Abfragedatums neu ein.
+    public void update(Flashcard card) {
+
+        int position = getPosition(card.getId());
+        if (position < 0) {
+            return;
+        }
+        long oldTime = times[position];
+        times[position] = card.getRepetitionDate().getTime();
+        if (times[position] < oldTime) {
+            siftUp(position);
+        } else {
+            siftDown(position);
+        }
+    }
+
+    private int countDue(int position, long time) {
+
+        if (position >= size || times[position] > time) {
+            return 0;
+        }
+        return 1 + countDue(2 * position + 1, time) + countDue(2 * position + 2, time);
+    }
+
+    private void siftUp(int position) {
+
+        int id = ids[position];
+        long time = times[position];
+        while (position > 0) {
+            int parent = (position - 1) / 2;
+            if (times[parent] <= time) {
+                break;
+            }
+            move(parent, position);
+            position = parent;
+        }
+        ids[position] = id;
+        times[position] = time;
+        setPosition(id, position);
+    }
+
+    private void siftDown(int position) {
+
+        int id = ids[position];
+        long time = times[position];
+        int half = size / 2;
+        while (position < half) {
+            int child = 2 * position + 1;
+            if (child + 1 < size && times[child + 1] < times[child]) {
+                child++;
+            }
+            if (time <= times[child]) {
+                break;
+            }
+            move(child, position);
+            position = child;
+        }
+        ids[position] = id;
+        times[position] = time;
+        setPosition(id, position);
+    }
+
+    private void move(int from, int to) {
+
+        ids[to] = ids[from];
+        times[to] = times[from];
+        setPosition(ids[to], to);
+    }
+
+    private int getPosition(int id) {
+        return id > 0 && id < positionsById.length ? positionsById[id] - 1 : -1;
+    }
+
+    private void setPosition(int id, int position) {
+
+        if (id >= positionsById.length) {
+            positionsById = Arrays.copyOf(positionsById, Math.max(id + 1, positionsById.length * 2));
+        }
+        positionsById[id] = position + 1;
+    }
+}
@@ -6,22 +6,12 @@ import java.util.logging.Level;
 //Lernkarte
 public class Flashcard implements java.io.Serializable {
 
-    //Abfrageintervall
-    private static final int TEN_MINUTES_IN_MILLIS = 600000;            //0
-    private static final int THIRY_MINUTES_IN_MILLIS = 1800000;         //1
-    private static final int ONE_HOUR_IN_MILLIS = 3600000;              //2
-    private static final int FIVE_HOURS_IN_MILLIS = 18000000;           //3
-    private static final int NINE_HOURS_IN_MILLIS = 32400000;           //4
-    private static final int ONE_DAY_IN_MILLIS = 86400000;              //5
-    private static final int FIVE_DAYS_IN_MILLIS = 432000000;           //6
-    private static final long TWENTY_FIVE_DAYS_IN_MILLIS = 2160000000L; //7
-    private static final long FOUR_MONTHS_IN_MILLIS = 10518984000L;     //8
-    private static final long TWO_YEARS_IN_MILLIS = 63113904000L;       //9
-
-    //Klassenvariablen
-    private static int count = 0;
+    //Fest vorgegeben, damit bereits gespeicherte Karten nach Änderungen an der Klasse lesbar bleiben.
+    private static final long serialVersionUID = 7105752852327854830L;
 
     //Instanzvariablen
+    //Wird vom Model.Deck vergeben und bleibt auch beim Bearbeiten der Karte gleich. 0 = noch keine Id.
+    private int id;
     private String front;
     private String back;
     private int difficulty;
@@ -34,7 +24,6 @@ public class Flashcard implements java.io.Serializable {
 
         this.front = front;
         this.back = back;
-        count++;
         level = 0;
         isLearned = false;
         repetitionDate = new Date();
@@ -44,6 +33,7 @@ public class Flashcard implements java.io.Serializable {
     //Copy Constructor
     public Flashcard(Flashcard anotherFlashcard){
 
+        this.id = anotherFlashcard.id;
         this.front = anotherFlashcard.front;
         this.back = anotherFlashcard.back;
         this.level = anotherFlashcard.level;
@@ -54,6 +44,14 @@ public class Flashcard implements java.io.Serializable {
 
 
     //Getter & Setter
+    public int getId() {
+        return id;
+    }
+
+    void setId(int id) {
+        this.id = id;
+    }
+
     public String getFront() {
         return front;
     }
@@ -109,98 +107,43 @@ public class Flashcard implements java.io.Serializable {
     }
 
     //updateInterval
+    //Neues Level und Abfragedatum nach der Antwort mit der aktuellen Schwierigkeit, berechnet vom Verfahren
+    //aus dem Model.SchedulerService (Standard: die zehn festen Abstände, siehe Model.LadderScheduler).
     public void updateInterval() {
+        updateInterval(SchedulerService.getInstance().getScheduler());
+    }
+
+    public void updateInterval(Scheduler scheduler) {
 
-        switch (difficulty) {
-            case (0): //Difficulty 0 --> direkt nocheinmal wiederholen, "kein update"
-                break;
-            case (1): //Difficulty 1 --> leicht, zwei Stufen nach oben
-                setLevel(level + 2);
-                updateTime();
-                break;
-            case (2): //Difficulty 2 --> OK, eine Stufe nach oben
-                setLevel(level++);
-                updateTime();
-                break;
-            case (3): //Difficulty 3 --> Schwer, Stufe beibehalten
-                updateTime();
-                break;
-            case (4): //Difficulty 4 --> Sehr schwer, Stufe um eins verringern
-                if (level > 0) {
-                    setLevel(level - 1);
-                }
-                updateTime();
-                break;
+        //Difficulty 0 --> direkt nocheinmal wiederholen, "kein update"
+        if (difficulty == 0) {
+            return;
         }
+        setLevel(scheduler.nextLevel(level, difficulty));
+        updateTime(scheduler);
     }
 
+    //Abstand, der bei einer Antwort mit dieser Schwierigkeit gesetzt würde, für die Anzeige über den Buttons
+    public String previewTimeInterval(int difficulty) {
+
+        Scheduler scheduler = SchedulerService.getInstance().getScheduler();
+        return Scheduler.formatInterval(scheduler.getInterval(scheduler.nextLevel(level, difficulty), difficulty));
+    }
+
+    //Abstand eines Levels beim bisherigen Verfahren mit fester Leiter
     public String returnTimeIntervalAsString(int level) {
 
-        switch (level) {
-            case (0):
-                return "10min";
-            case (1):
-                return "30min";
-            case (2):
-                return "1h";
-            case (3):
-                return "5h";
-            case (4):
-                return "9h";
-            case (5):
-                return "1d";
-            case (6):
-                return "5d";
-            case (7):
-                return "25d";
-            case (8):
-                return "4m";
-            case (9):
-                return "2y";
-        }
-        return null;
-    }
-
-    private void updateTime() {
-
-        Date date = new Date();
-        long newTime = 0;
-
-        switch (this.level) {
-            case (0):
-                newTime = TEN_MINUTES_IN_MILLIS;
-                break;
-            case (1):
-                newTime = THIRY_MINUTES_IN_MILLIS;
-                break;
-            case (2):
-                newTime = ONE_HOUR_IN_MILLIS;
-                break;
-            case (3):
-                newTime = FIVE_HOURS_IN_MILLIS;
-                break;
-            case (4):
-                newTime = NINE_HOURS_IN_MILLIS;
-                break;
-            case (5):
-                newTime = ONE_DAY_IN_MILLIS;
-                break;
-            case (6):
-                newTime = FIVE_DAYS_IN_MILLIS;
-                break;
-            case (7):
-                newTime = TWENTY_FIVE_DAYS_IN_MILLIS;
-                break;
-            case (8):
-                newTime = FOUR_MONTHS_IN_MILLIS;
-                break;
-            case (9):
-                newTime = TWO_YEARS_IN_MILLIS;
-                break;
+        if (level < 0 || level > Scheduler.MAX_LEVEL) {
+            return null;
         }
-        date.setTime(System.currentTimeMillis() + newTime);
+        return Scheduler.formatInterval(new LadderScheduler().getInterval(level, 2));
+    }
+
+    private void updateTime(Scheduler scheduler) {
+
+        Date date = new Date(System.currentTimeMillis() + scheduler.getInterval(level, difficulty));
         setRepetitionDate(date);
         LogHelper.writeToLog(Level.INFO,
-                "Nächstes Abfragedatum für Karte (" + front + ") ist am: " + date + " | Level: " + level);
+                () -> "Nächstes Abfragedatum für Karte (" + front + ") ist am: " + date + " | Level: " + level);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,86 @@
+package Model;
+
+//Verfahren nach FSRS (https://github.com/open-spaced-repetition/fsrs4anki/wiki/The-Algorithm).
+//Die Stabilität S ist die Zeit in Tagen, nach der die Karte noch mit 90% Wahrscheinlichkeit gewusst wird.
+//Der Abstand wird so gewählt, dass die Erinnerungswahrscheinlichkeit R beim Abfragen der gewünschten entspricht:
+//  R(t) = (1 + t / (9 * S))^-1   =>   Abstand = 9 * S * (1 / R - 1)
+//Pro Karte wird keine eigene Stabilität gespeichert. Sie wird aus dem Level und der letzten Bewertung berechnet:
+//Startwert der Bewertung mal Wachstum^Level. "Sehr schwer" (Again) setzt die Karte zwei Level zurück.
+public class FsrsScheduler implements Scheduler {
+
+    private static final long TEN_MINUTES_IN_MILLIS = 600000L;
+    private static final double ONE_DAY_IN_MILLIS = 86400000.0;
+    //Wie in Anki höchstens 100 Jahre, sonst wächst der Abstand bei "leicht" auf Level 9 auf Jahrhunderte
+    private static final double MAX_INTERVAL_DAYS = 36500;
+    //Startwerte der Stabilität in Tagen aus den FSRS-Standardparametern, Index = Bewertung
+    //(0 = wie OK, 1 = Easy, 2 = Good, 3 = Hard, 4 = Again)
+    private static final double[] INITIAL_STABILITY = {2.4, 5.8, 2.4, 0.6, 0.4};
+    //Zusätzlicher Faktor auf das Wachstum je Bewertung
+    private static final double[] GROWTH_BONUS = {1.0, 1.3, 1.0, 0.8, 1.0};
+
+    private final double desiredRetention;
+    private final double stabilityGrowth;
+    private final long[] intervals = new long[(MAX_LEVEL + 1) * (MAX_GRADE + 1)];
+
+    public FsrsScheduler() {
+        this(0.9, 2.0);
+    }
+
+    //desiredRetention zwischen 0 und 1 (üblich 0,8 - 0,95), stabilityGrowth > 1
+    public FsrsScheduler(double desiredRetention, double stabilityGrowth) {
+
+        if (desiredRetention <= 0 || desiredRetention >= 1) {
+            throw new IllegalArgumentException("Erinnerungswahrscheinlichkeit muss zwischen 0 und 1 liegen: "
+                    + desiredRetention);
+        }
+        this.desiredRetention = desiredRetention;
+        this.stabilityGrowth = stabilityGrowth;
+        for (int level = 0; level <= MAX_LEVEL; level++) {
+            for (int grade = 0; grade <= MAX_GRADE; grade++) {
+                intervals[level * (MAX_GRADE + 1) + grade] = computeInterval(level, grade);
+            }
+        }
+    }
+
+    public double getDesiredRetention() {
+        return desiredRetention;
+    }
+
+    public double getStabilityGrowth() {
+        return stabilityGrowth;
+    }
+
+    @Override
+    public String getName() {
+        return "fsrs";
+    }
+
+    @Override
+    public int nextLevel(int level, int grade) {
+
+        switch (grade) {
+            case (1):
+            case (2):
+                return Math.min(level + 1, MAX_LEVEL);
+            case (4):
+                return Math.max(level - 2, 0);
+            default:
+                return Math.min(level, MAX_LEVEL);
+        }
+    }
+
+    @Override
+    public long getInterval(int level, int grade) {
+        return intervals[Scheduler.getShiftIndex(level, grade)];
+    }
+
+    private long computeInterval(int level, int grade) {
+
+        if (level == 0 && grade == 4) {
+            return TEN_MINUTES_IN_MILLIS;
+        }
+        double stability = INITIAL_STABILITY[grade] * Math.pow(stabilityGrowth * GROWTH_BONUS[grade], level);
+        double days = Math.min(MAX_INTERVAL_DAYS, 9 * stability * (1 / desiredRetention - 1));
+        return Math.max(TEN_MINUTES_IN_MILLIS, Math.round(days * ONE_DAY_IN_MILLIS));
+    }
+}
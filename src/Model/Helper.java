@@ -1,10 +1,7 @@
 package Model;
 
 import javafx.event.ActionEvent;
-import javafx.fxml.FXMLLoader;
 import javafx.scene.Node;
-import javafx.scene.Parent;
-import javafx.scene.Scene;
 import javafx.stage.Stage;
 
 import java.io.*;
@@ -12,6 +9,7 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Level;
 
 //Hilfsklasse mit Methoden wie OS herausfinden, Dateien (Model.User, Decks) speichern und auslesen,
@@ -20,42 +18,62 @@ public class Helper {
 
     private Path flashcardsDirectory;
     private Path logDirectory;
-    private static boolean onlyShowOnce = true;
+    private static final AtomicBoolean onlyShowOnce = new AtomicBoolean(true);
+    //Das Betriebssystem ändert sich nicht, es wird einmal beim Laden der Klasse bestimmt
+    private static final String OPERATION_SYSTEM = getOperationSystemName();
 
+    //LOCALAPPDATA gibt es nur unter Windows. Ohne Rückfallwert würde Paths.get() sonst schon beim Laden
+    //der Klasse mit einer NullPointerException abbrechen.
     private static final Path LOG_DIRECTORY_WINDOWS = Paths
-            .get(System.getenv("LOCALAPPDATA"), "flashcards", "Log");
+            .get(getLocalAppData(), "flashcards", "Log");
     private static final Path FLASHCARDS_DIRECTORY_WINDOWS = Paths
-            .get(System.getenv("LOCALAPPDATA"), "flashcards");
+            .get(getLocalAppData(), "flashcards");
     private static final Path FLASHCARDS_DIRECTORY_LINUX = Paths
             .get(System.getProperty("user.home"), "Library", "Application Support", "flashcards");
     private static final Path LOG_DIRECTORY_LINUX = Paths
             .get(System.getProperty("user.home"), "Library", "Application Support", "flashcards", "Log");
 
+    //Wird von fast jedem Controller erzeugt, macht daher außer beim ersten Mal nichts Teures
     public Helper() {
 
-        if (getOperationSystemNameLowerCase().equals("windows")) {
-            flashcardsDirectory = FLASHCARDS_DIRECTORY_WINDOWS;
-            logDirectory = LOG_DIRECTORY_WINDOWS;
-            if (onlyShowOnce) {
-                LogHelper.writeToLog(Level.INFO, "OS als Windows erkannt. Benutze Windows-spezifische Pfade.");
-                onlyShowOnce = false;
-            }
-        } else if (getOperationSystemNameLowerCase().equals("osx") || getOperationSystemNameLowerCase()
-                .equals("linux")) {
-            flashcardsDirectory = FLASHCARDS_DIRECTORY_LINUX;
-            logDirectory = LOG_DIRECTORY_LINUX;
-            if (onlyShowOnce) {
-                LogHelper.writeToLog(Level.INFO, "OS als Linux erkannt. Benutze UNIX-spezifische Pfade.");
-                onlyShowOnce = false;
-            }
-        } else if (getOperationSystemNameLowerCase().equals("underterminded")) {
-            if (onlyShowOnce) {
-                LogHelper.writeToLog(Level.INFO, "Betriebsystem konnte nicht ermittelt werden.");
-                onlyShowOnce = false;
-            }
+        flashcardsDirectory = getDefaultFlashcardsDirectory();
+        logDirectory = getDefaultLogDirectory();
+        if (!onlyShowOnce.getAndSet(false)) {
+            return;
+        }
+        if (OPERATION_SYSTEM.equals("windows")) {
+            LogHelper.writeToLog(Level.INFO, "OS als Windows erkannt. Benutze Windows-spezifische Pfade.");
+        } else if (OPERATION_SYSTEM.equals("osx") || OPERATION_SYSTEM.equals("linux")) {
+            LogHelper.writeToLog(Level.INFO, "OS als Linux erkannt. Benutze UNIX-spezifische Pfade.");
+        } else {
+            LogHelper.writeToLog(Level.INFO, "Betriebsystem konnte nicht ermittelt werden.");
         }
     }
 
+    //Ohne Instanz, damit der Model.LogHelper den Ordner bestimmen kann, ohne selbst zu loggen.
+    //Gibt null zurück, wenn das Betriebssystem nicht ermittelt werden konnte.
+    public static Path getDefaultFlashcardsDirectory() {
+
+        String os = OPERATION_SYSTEM;
+        if (os.equals("windows")) {
+            return FLASHCARDS_DIRECTORY_WINDOWS;
+        } else if (os.equals("osx") || os.equals("linux")) {
+            return FLASHCARDS_DIRECTORY_LINUX;
+        }
+        return null;
+    }
+
+    public static Path getDefaultLogDirectory() {
+
+        String os = OPERATION_SYSTEM;
+        if (os.equals("windows")) {
+            return LOG_DIRECTORY_WINDOWS;
+        } else if (os.equals("osx") || os.equals("linux")) {
+            return LOG_DIRECTORY_LINUX;
+        }
+        return null;
+    }
+
     public Path getFlashcardsDirectory() {
         return flashcardsDirectory;
     }
@@ -71,7 +89,9 @@ public class Helper {
 
             List<String> fileNames = new ArrayList<>();
             File directory = new File(flashcardsDirectory.toString());
-            File[] files = directory.listFiles((dir, name) -> name.toLowerCase().endsWith(".txt"));
+            //Users.txt und UserStats.txt liegen im selben Ordner, sind aber keine Stapel.
+            File[] files = directory.listFiles((dir, name) -> name.toLowerCase().endsWith(".txt")
+                    && !name.equals("Users.txt") && !name.equals("UserStats.txt"));
             if (files != null) {
                 for (File file : files) {
                     fileNames.add(file.getName());
@@ -88,10 +108,9 @@ public class Helper {
     public void switchScene(ActionEvent event, String scene) {
 
         try {
-            Parent manageUserView = FXMLLoader.load(getClass().getClassLoader().getResource("View/" + scene));
-            Scene practiceViewScene = new Scene(manageUserView);
+            //Die Szenen werden nur beim ersten Mal eingelesen, danach aus dem Model.SceneCache genommen
             Stage window1 = (Stage) ((Node) event.getSource()).getScene().getWindow();
-            window1.setScene(practiceViewScene);
+            SceneCache.getInstance().show(window1, scene);
             window1.show();
         } catch (Exception ex) {
             LogHelper.writeToLog(Level.INFO, "Fehler beim Szenenwechseln auf Szene " + scene);
@@ -99,6 +118,10 @@ public class Helper {
     }
 
     public String getOperationSystemNameLowerCase() {
+        return OPERATION_SYSTEM;
+    }
+
+    private static String getOperationSystemName() {
 
         String os = System.getProperty("os.name").toLowerCase();
         if (os.contains("win")) {
@@ -114,6 +137,15 @@ public class Helper {
         return "undertermined";
     }
 
+    private static String getLocalAppData() {
+
+        String localAppData = System.getenv("LOCALAPPDATA");
+        if (localAppData == null) {
+            return Paths.get(System.getProperty("user.home"), "AppData", "Local").toString();
+        }
+        return localAppData;
+    }
+
     @SuppressWarnings("unchecked")
     public List<String> getUsersFromFile() {
 
@@ -146,12 +178,7 @@ public class Helper {
 
         try {
             if (users != null) {
-                FileOutputStream fileStreamOut = new FileOutputStream(Paths.get(
-                        flashcardsDirectory.toString(),
-                        "Users.txt").toString());
-                ObjectOutputStream objectStream = new ObjectOutputStream(fileStreamOut);
-                objectStream.writeObject(users);
-                objectStream.close();
+                writeObjectToFile(Paths.get(flashcardsDirectory.toString(), "Users.txt"), users);
             }
 
         } catch (Exception ex) {
@@ -163,12 +190,7 @@ public class Helper {
 
         try {
             if (userTime != null) {
-                FileOutputStream fileStreamOut = new FileOutputStream(Paths.get(
-                        flashcardsDirectory.toString(),
-                        "UserStats.txt").toString());
-                ObjectOutputStream objectStream = new ObjectOutputStream(fileStreamOut);
-                objectStream.writeObject(userTime);
-                objectStream.close();
+                writeObjectToFile(Paths.get(flashcardsDirectory.toString(), "UserStats.txt"), userTime);
             }
 
         } catch (Exception ex) {
@@ -181,13 +203,10 @@ public class Helper {
         if (deck != null) {
 
             try {
-                FileOutputStream fileStreamOut = new FileOutputStream(
-                        Paths.get(flashcardsDirectory.toString(), deck.getName() + ".txt").toString());
-                ObjectOutputStream objectStream = new ObjectOutputStream(fileStreamOut);
-                objectStream.writeObject(deck);
-                objectStream.close();
-                LogHelper.writeToLog(Level.INFO,
-                        "Model.Deck " + deck.getName() + " (" + deck.getOwner() + ") gespeichtert.");
+                //Geschrieben wird im Hintergrund vom Model.DeckWriter. Mehrere Speichervorgänge kurz
+                //hintereinander werden dabei zusammengefasst. Das Journal des Stapels wird dabei geleert.
+                DeckRepository.getInstance().put(deck);
+                DeckWriter.getInstance().save(deck);
 
             } catch (Exception ex) {
                 LogHelper.writeToLog(Level.INFO, "Fehler beim Erstellen des Ordners: " + ex);
@@ -198,8 +217,8 @@ public class Helper {
         }
     }
 
-    //readObject gibt eine Warnung, da nicht sichergestellt werden kann, ob das zurückgegebene Objekt
-    //tatsächlich vom Typ List<Model.Flashcard> ist. Kann unterdrückt werden, da das Objekt nur von diesem Typ sein kann.
+    //Liest Stapel im binären Format von Model.DeckCodec und wendet das Model.DeckJournal darauf an. Stapel,
+    //die noch nicht von Model.DeckMigrator umgewandelt wurden, werden wie bisher über die Java-Serialisierung eingelesen.
     public Deck getDeckFromFile(String deckName) {
 
         Deck deck;
@@ -207,6 +226,13 @@ public class Helper {
 
         try {
 
+            Path deckFile = Paths.get(flashcardsDirectory.toString(), deckName);
+            if (DeckCodec.isBinaryDeckFile(deckFile)) {
+                deck = DeckCodec.read(deckFile);
+                DeckJournal.forDeck(flashcardsDirectory, deck.getName()).replay(deck);
+                return deck;
+            }
+
             FileInputStream fileStreamIn = new FileInputStream(
                     Paths.get(flashcardsDirectory.toString(), deckName).toString());
             ObjectInputStream objectStream = new ObjectInputStream(fileStreamIn);
@@ -231,6 +257,31 @@ public class Helper {
         return deck;
     }
 
+    //Löscht die Datei eines Stapels. Gibt false zurück, wenn sie nicht existiert oder nicht gelöscht werden konnte.
+    public boolean deleteDeckFile(String deckName) {
+
+        File deckFile = new File(Paths.get(flashcardsDirectory.toString(), deckName + ".txt").toString());
+        if (!deckFile.exists()) {
+            LogHelper.writeToLog(Level.INFO, "Stapel " + deckName + " existiert nicht.");
+            return false;
+        }
+        if (!deckFile.canWrite()) {
+            LogHelper.writeToLog(Level.INFO, "Keine Berechtigung um den Stapel " + deckName + " zu löschen.");
+            return false;
+        }
+        return deckFile.delete();
+    }
+
+    //Schreibt das Objekt über eine temporäre Datei, damit bei einem Absturz die alte Datei erhalten bleibt.
+    private void writeObjectToFile(Path file, Object object) throws IOException {
+
+        DeckWriter.getInstance().writeAtomically(file, tempFile -> {
+            ObjectOutputStream objectStream = new ObjectOutputStream(new FileOutputStream(tempFile.toString()));
+            objectStream.writeObject(object);
+            objectStream.close();
+        });
+    }
+
     public void createDirectories() {
 
         try {
@@ -0,0 +1,44 @@
+package Model;
+
+//Das ursprüngliche Verfahren: zehn feste Abstände von 10 Minuten bis 2 Jahre, unabhängig von der Bewertung.
+//Leicht = zwei Stufen nach oben, OK = eine Stufe, schwer = Stufe beibehalten, sehr schwer = eine Stufe nach unten.
+public class LadderScheduler implements Scheduler {
+
+    private static final long[] INTERVALS = {
+            600000L,        //0  10 Minuten
+            1800000L,       //1  30 Minuten
+            3600000L,       //2  1 Stunde
+            18000000L,      //3  5 Stunden
+            32400000L,      //4  9 Stunden
+            86400000L,      //5  1 Tag
+            432000000L,     //6  5 Tage
+            2160000000L,    //7  25 Tage
+            10518984000L,   //8  4 Monate
+            63113904000L    //9  2 Jahre
+    };
+
+    @Override
+    public String getName() {
+        return "ladder";
+    }
+
+    @Override
+    public int nextLevel(int level, int grade) {
+
+        switch (grade) {
+            case (1):
+                return Math.min(level + 2, MAX_LEVEL);
+            case (2):
+                return Math.min(level + 1, MAX_LEVEL);
+            case (4):
+                return Math.max(level - 1, 0);
+            default:
+                return Math.min(level, MAX_LEVEL);
+        }
+    }
+
+    @Override
+    public long getInterval(int level, int grade) {
+        return INTERVALS[Math.max(0, Math.min(level, MAX_LEVEL))];
+    }
+}
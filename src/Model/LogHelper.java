@@ -1,54 +1,205 @@
 package Model;
 
+import java.io.FileOutputStream;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.logging.FileHandler;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 import java.util.logging.Level;
+import java.util.logging.LogRecord;
 import java.util.logging.Logger;
 import java.util.logging.SimpleFormatter;
+import java.util.logging.StreamHandler;
 
+//Schreibt Meldungen in die Logdatei. writeToLog() legt die Meldung nur in einen begrenzten Ringpuffer,
+//ein Hintergrund-Thread schreibt sie gesammelt in die Datei und leert den Puffer der Datei einmal pro Durchgang.
+//So wartet z.B. ein Klick im Übungsfenster nicht mehr auf die Festplatte. Auch die Logdatei öffnet erst der
+//Hintergrund-Thread, die erste Meldung beim Programmstart kostet daher keinen Festplattenzugriff.
+//
+//Ist der Puffer voll, entscheidet die OverflowPolicy (Systemeigenschaft "flashcards.logOverflow"):
+//DROP_NEWEST verwirft die neue Meldung, DROP_OLDEST die älteste, BLOCK wartet, bis wieder Platz ist.
+//Verworfene Meldungen werden gezählt und später im Log vermerkt.
 public class LogHelper {
 
-    private static final Path LOG_DIRECTORY_LINUX = Paths.get(System.getProperty("user.home"), "Library", "Application Support", "flashcards", "Log", "Lernsoftware.log");
-    private static final Path LOG_DIRECTORY_WINDOWS = Paths.get(System.getenv("LOCALAPPDATA"), "flashcards", "Log", "Lernsoftware.log");
-    private static Logger logFile;
+    public enum OverflowPolicy {
+        DROP_NEWEST,
+        DROP_OLDEST,
+        BLOCK
+    }
 
-    public LogHelper() {
+    private static final int BUFFER_SIZE = Integer.getInteger("flashcards.logBufferSize", 8192);
+    private static final int BATCH_SIZE = 512;
+    private static final String LOG_FILE_NAME = "Lernsoftware.log";
 
-        try {
-            String os = System.getProperty("os.name");
-            Path logDirectory;
-            if(os.contains("windows")){
-                logDirectory = LOG_DIRECTORY_WINDOWS;
-            } else {
-                logDirectory = LOG_DIRECTORY_LINUX;
-            }
-            logFile = Logger.getLogger("LogFile");
-            FileHandler fileHandler = new FileHandler(logDirectory.toString(), true);
-            SimpleFormatter formatter = new SimpleFormatter();
-            logFile.addHandler(fileHandler);
-            fileHandler.setFormatter(formatter);
+    private static LogHelper instance;
 
-        } catch (Exception ex) {
-            System.out.println("Exception Beim Model.LogHelper" + ex);
+    private final Logger logFile = Logger.getLogger("LogFile");
+    private final BlockingQueue<LogRecord> buffer = new ArrayBlockingQueue<>(BUFFER_SIZE);
+    private final OverflowPolicy overflowPolicy = readOverflowPolicy();
+    private final AtomicLong droppedMessages = new AtomicLong();
+    //Wird in openLogFile() gesetzt, nur unter der Sperre von publish() benutzen
+    private StreamHandler fileHandler;
+    private boolean isOpened;
+
+    private LogHelper() {
+
+        Thread writer = new Thread(this::writeRecords, "LogWriter");
+        writer.setDaemon(true);
+        writer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(this::flushBuffer, "LogWriterShutdown"));
+    }
+
+    private static synchronized LogHelper getInstance() {
+
+        if (instance == null) {
+            instance = new LogHelper();
         }
+        return instance;
     }
 
-    private static Logger getLogger() {
+    public static void writeToLog(Level level, String message) {
 
-        if (logFile == null) {
-            try {
+        LogHelper logHelper = getInstance();
+        if (logHelper.logFile.isLoggable(level)) {
+            logHelper.enqueue(new LogRecord(level, message));
+        }
+    }
+
+    //Die Meldung wird nur zusammengesetzt, wenn der Level auch geloggt wird.
+    public static void writeToLog(Level level, Supplier<String> message) {
+
+        LogHelper logHelper = getInstance();
+        if (logHelper.logFile.isLoggable(level)) {
+            logHelper.enqueue(new LogRecord(level, message.get()));
+        }
+    }
+
+    //Schreibt alle Meldungen im Puffer sofort, z.B. beim Beenden des Programms.
+    public static void flush() {
+        getInstance().flushBuffer();
+    }
 
-                new LogHelper();
+    //Die aufrufende Methode wird hier bestimmt, da sie auf dem Hintergrund-Thread nicht mehr bekannt ist.
+    private void enqueue(LogRecord record) {
+
+        record.setLoggerName(logFile.getName());
+        StackWalker.getInstance().walk(frames -> frames
+                .filter(frame -> !frame.getClassName().equals(LogHelper.class.getName()))
+                .findFirst())
+                .ifPresent(frame -> {
+                    record.setSourceClassName(frame.getClassName());
+                    record.setSourceMethodName(frame.getMethodName());
+                });
+        switch (overflowPolicy) {
+            case BLOCK:
+                try {
+                    buffer.put(record);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    droppedMessages.incrementAndGet();
+                }
+                break;
+            case DROP_OLDEST:
+                while (!buffer.offer(record)) {
+                    if (buffer.poll() != null) {
+                        droppedMessages.incrementAndGet();
+                    }
+                }
+                break;
+            default:
+                if (!buffer.offer(record)) {
+                    droppedMessages.incrementAndGet();
+                }
+        }
+    }
+
+    private void writeRecords() {
+
+        List<LogRecord> batch = new ArrayList<>(BATCH_SIZE);
+        while (true) {
+            try {
+                LogRecord first = buffer.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                buffer.drainTo(batch, BATCH_SIZE - 1);
+                publish(batch);
+                batch.clear();
 
+            } catch (InterruptedException ex) {
+                return;
             } catch (Exception ex) {
                 System.out.println("Fehler beim Logging: " + ex);
+                batch.clear();
             }
         }
-        return logFile;
     }
 
-    public static void writeToLog(Level level, String message) {
-        getLogger().log(level, message);
+    private void flushBuffer() {
+
+        List<LogRecord> batch = new ArrayList<>();
+        buffer.drainTo(batch);
+        publish(batch);
+    }
+
+    //Kann gleichzeitig vom Hintergrund-Thread und von flush() aufgerufen werden
+    private synchronized void publish(List<LogRecord> batch) {
+
+        if (!isOpened) {
+            openLogFile();
+        }
+        long dropped = droppedMessages.getAndSet(0);
+        if (dropped > 0) {
+            logFile.log(Level.WARNING, dropped + " Logmeldungen wurden verworfen, da der Puffer voll war.");
+        }
+        for (LogRecord record : batch) {
+            logFile.log(record);
+        }
+        if (fileHandler != null) {
+            fileHandler.flush();
+        }
+    }
+
+    private void openLogFile() {
+
+        isOpened = true;
+        try {
+            Path logDirectory = getLogDirectory();
+            Files.createDirectories(logDirectory);
+            fileHandler = new StreamHandler(new FileOutputStream(logDirectory.resolve(LOG_FILE_NAME).toFile(), true),
+                    new SimpleFormatter());
+            logFile.addHandler(fileHandler);
+
+        } catch (Exception ex) {
+            System.out.println("Exception Beim Model.LogHelper" + ex);
+        }
+    }
+
+    //Nicht über new Helper(), da dessen Konstruktor selbst loggt
+    private static Path getLogDirectory() {
+
+        Path logDirectory = Helper.getDefaultLogDirectory();
+        if (logDirectory == null) {
+            return Paths.get(System.getProperty("user.home"), "flashcards", "Log");
+        }
+        return logDirectory;
+    }
+
+    private static OverflowPolicy readOverflowPolicy() {
+
+        String value = System.getProperty("flashcards.logOverflow", OverflowPolicy.DROP_NEWEST.name());
+        try {
+            return OverflowPolicy.valueOf(value.toUpperCase());
+        } catch (IllegalArgumentException ex) {
+            System.out.println("Unbekannte Einstellung für flashcards.logOverflow: " + value);
+            return OverflowPolicy.DROP_NEWEST;
+        }
     }
 }
@@ -0,0 +1,451 @@
+package Model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+
+//Karten direkt aus der per FileChannel.map() eingeblendeten Stapeldatei (Model.DeckCodec ab Version 4), ohne sie
+//einzulesen. Level, Schwierigkeit und Abfragedatum werden aus der Kartentabelle der Datei gelesen, Texte erst beim
+//Zugriff auf eine Karte dekodiert. Gesucht wird über die Id-Tabelle (binäre Suche) und die Hashtabelle der
+//Vorderseiten in der Datei. Auf dem Heap liegt so nur, was seit dem Einlesen geändert wurde.
+//
+//Die Datei selbst wird nie geändert: Abfragen (update()) und neue Karten (add()) liegen im Speicher, bis der Stapel
+//das nächste Mal komplett gespeichert wird. Die neue Datei ersetzt die alte per Verschieben, die eingeblendete
+//bleibt dabei gültig. Bearbeiten, Löschen und Umplanen sind selten; dafür werden die Karten einmal komplett in
+//einen Model.ColumnarCardStore übernommen, an den danach alles weitergegeben wird.
+//
+//Eine zurückgegebene Model.Flashcard ist wie beim Model.ColumnarCardStore eine Kopie.
+class MappedCardStore implements CardStore {
+
+    //Die Datei wird in Abschnitten von 1 GB eingeblendet, da ein ByteBuffer höchstens 2 GB groß sein kann.
+    //Die Abschnitte überlappen sich um SEGMENT_OVERLAP Bytes, damit Zahlen nie auf einer Grenze liegen.
+    private static final int SEGMENT_SHIFT = 30;
+    private static final long SEGMENT_SIZE = 1L << SEGMENT_SHIFT;
+    private static final int SEGMENT_OVERLAP = 64;
+
+    //Aufbau eines Eintrags der Kartentabelle, siehe Model.DeckCodec
+    static final int CARD_RECORD_SIZE = 24;
+    private static final int LEVEL_OFFSET = 4;
+    private static final int DIFFICULTY_OFFSET = 5;
+    private static final int LEARNED_OFFSET = 6;
+    private static final int TIME_OFFSET = 8;
+    private static final int TEXT_OFFSET = 16;
+
+    //Level, Schwierigkeit, gelernt und Abfragedatum einer abgefragten Karte
+    private static class Schedule {
+
+        private final int level;
+        private final int difficulty;
+        private final boolean isLearned;
+        private final long time;
+
+        Schedule(Flashcard card) {
+            this.level = card.getLevel();
+            this.difficulty = card.getDifficulty();
+            this.isLearned = card.getLearned();
+            this.time = card.getRepetitionDate().getTime();
+        }
+    }
+
+    private final ByteBuffer[] segments;
+    private final int mappedCount;
+    private final long tableOffset;
+    private final long idTableOffset;
+    private final long frontTableOffset;
+    private final int frontTableCapacity;
+
+    private final BitSet changedSlots;
+    private final Map<Integer, Schedule> changed;
+    //Neu hinzugefügte Karten, Position im Stapel = mappedCount + Position in der Liste
+    private final List<Flashcard> added;
+    private final Map<Integer, Integer> addedById;
+    private final Map<String, Integer> addedByFront;
+    private int nextId;
+    //Nach dem ersten Bearbeiten, Löschen oder Umplanen, siehe oben
+    private CardStore delegate;
+
+    private MappedCardStore(ByteBuffer[] segments, int mappedCount, long tableOffset, int frontTableCapacity,
+                            int nextId) {
+
+        this.segments = segments;
+        this.mappedCount = mappedCount;
+        this.tableOffset = tableOffset;
+        this.idTableOffset = tableOffset + (long) mappedCount * CARD_RECORD_SIZE;
+        this.frontTableOffset = idTableOffset + (long) mappedCount * 8 + 4;
+        this.frontTableCapacity = frontTableCapacity;
+        this.changedSlots = new BitSet();
+        this.changed = new HashMap<>();
+        this.added = new ArrayList<>();
+        this.addedById = new HashMap<>();
+        this.addedByFront = new HashMap<>();
+        this.nextId = nextId;
+    }
+
+    private MappedCardStore(MappedCardStore anotherStore) {
+
+        this.segments = anotherStore.segments;
+        this.mappedCount = anotherStore.mappedCount;
+        this.tableOffset = anotherStore.tableOffset;
+        this.idTableOffset = anotherStore.idTableOffset;
+        this.frontTableOffset = anotherStore.frontTableOffset;
+        this.frontTableCapacity = anotherStore.frontTableCapacity;
+        this.changedSlots = (BitSet) anotherStore.changedSlots.clone();
+        this.changed = new HashMap<>(anotherStore.changed);
+        this.added = new ArrayList<>(anotherStore.added.size());
+        for (Flashcard card : anotherStore.added) {
+            this.added.add(new Flashcard(card));
+        }
+        this.addedById = new HashMap<>(anotherStore.addedById);
+        this.addedByFront = new HashMap<>(anotherStore.addedByFront);
+        this.nextId = anotherStore.nextId;
+    }
+
+    //Blendet die Datei ein. Der Channel kann danach geschlossen werden.
+    static MappedCardStore map(FileChannel channel, int count, long tableOffset, int nextId) throws IOException {
+
+        long fileSize = channel.size();
+        ByteBuffer[] segments = new ByteBuffer[(int) ((fileSize + SEGMENT_SIZE - 1) >>> SEGMENT_SHIFT)];
+        for (int i = 0; i < segments.length; i++) {
+            long start = i * SEGMENT_SIZE;
+            segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start,
+                    Math.min(SEGMENT_SIZE + SEGMENT_OVERLAP, fileSize - start));
+        }
+        long capacityOffset = tableOffset + (long) count * (CARD_RECORD_SIZE + 8);
+        if (tableOffset <= 0 || capacityOffset + 4 > fileSize) {
+            throw new IOException("Ungültige Kartentabelle in der Stapeldatei");
+        }
+        int capacity = segments[(int) (capacityOffset >>> SEGMENT_SHIFT)]
+                .getInt((int) (capacityOffset & (SEGMENT_SIZE - 1)));
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1 || capacityOffset + 4 + (long) capacity * 8 > fileSize) {
+            throw new IOException("Ungültige Hashtabelle in der Stapeldatei");
+        }
+        return new MappedCardStore(segments, count, tableOffset, capacity, nextId);
+    }
+
+    //Position in der Hashtabelle der Vorderseiten, gleiche Streuung wie java.util.HashMap
+    static int frontTableIndex(int hash, int capacity) {
+        return (hash ^ (hash >>> 16)) & (capacity - 1);
+    }
+
+    @Override
+    public int size() {
+        return delegate != null ? delegate.size() : mappedCount + added.size();
+    }
+
+    @Override
+    public Flashcard get(int index) {
+
+        if (delegate != null) {
+            return delegate.get(index);
+        }
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index " + index + ", Anzahl " + size());
+        }
+        return index < mappedCount ? view(index) : new Flashcard(added.get(index - mappedCount));
+    }
+
+    @Override
+    public int getId(int index) {
+
+        if (delegate != null) {
+            return delegate.getId(index);
+        }
+        return index < mappedCount ? getIntAt(record(index)) : added.get(index - mappedCount).getId();
+    }
+
+    @Override
+    public long getRepetitionTime(int index) {
+
+        if (delegate != null) {
+            return delegate.getRepetitionTime(index);
+        }
+        if (index >= mappedCount) {
+            return added.get(index - mappedCount).getRepetitionDate().getTime();
+        }
+        return changedSlots.get(index) ? changed.get(index).time : getLongAt(record(index) + TIME_OFFSET);
+    }
+
+    @Override
+    public int getLevel(int index) {
+
+        if (delegate != null) {
+            return delegate.getLevel(index);
+        }
+        if (index >= mappedCount) {
+            return added.get(index - mappedCount).getLevel();
+        }
+        return changedSlots.get(index) ? changed.get(index).level : getByteAt(record(index) + LEVEL_OFFSET);
+    }
+
+    @Override
+    public Flashcard getById(int id) {
+
+        if (delegate != null) {
+            return delegate.getById(id);
+        }
+        int slot = findSlot(id);
+        if (slot >= 0) {
+            return view(slot);
+        }
+        Integer index = addedById.get(id);
+        return index == null ? null : new Flashcard(added.get(index));
+    }
+
+    @Override
+    public Flashcard getByFront(String front) {
+
+        if (delegate != null) {
+            return delegate.getByFront(front);
+        }
+        int slot = findFront(front);
+        if (slot >= 0) {
+            return view(slot);
+        }
+        Integer id = addedByFront.get(front);
+        return id == null ? null : getById(id);
+    }
+
+    @Override
+    public boolean containsFront(String front) {
+
+        if (delegate != null) {
+            return delegate.containsFront(front);
+        }
+        return findFront(front) >= 0 || addedByFront.containsKey(front);
+    }
+
+    @Override
+    public void add(Flashcard card) {
+
+        if (delegate != null) {
+            delegate.add(card);
+            return;
+        }
+        if (card.getId() <= 0 || card.getId() < nextId && (findSlot(card.getId()) >= 0
+                || addedById.containsKey(card.getId()))) {
+            card.setId(nextId);
+        }
+        nextId = Math.max(nextId, card.getId() + 1);
+        addedById.put(card.getId(), added.size());
+        addedByFront.putIfAbsent(card.getFront(), card.getId());
+        added.add(new Flashcard(card));
+    }
+
+    @Override
+    public void remove(int id) {
+        materialize("Löschen").remove(id);
+    }
+
+    @Override
+    public void edit(int id, String front, String back) {
+        materialize("Bearbeiten").edit(id, front, back);
+    }
+
+    @Override
+    public void update(Flashcard card) {
+
+        if (delegate != null) {
+            delegate.update(card);
+            return;
+        }
+        int slot = findSlot(card.getId());
+        if (slot >= 0) {
+            changed.put(slot, new Schedule(card));
+            changedSlots.set(slot);
+            return;
+        }
+        Integer index = addedById.get(card.getId());
+        if (index != null) {
+            Flashcard stored = added.get(index);
+            stored.setLevel(card.getLevel());
+            stored.setDifficulty(card.getDifficulty());
+            stored.setLearned(card.getLearned());
+            stored.setRepetitionDate(new Date(card.getRepetitionDate().getTime()));
+        }
+    }
+
+    @Override
+    public void reschedule(long[] shifts) {
+        materialize("Umplanen").reschedule(shifts);
+    }
+
+    @Override
+    public int getNextId() {
+        return delegate != null ? delegate.getNextId() : nextId;
+    }
+
+    @Override
+    public void setNextId(int nextId) {
+
+        if (delegate != null) {
+            delegate.setNextId(nextId);
+        } else {
+            this.nextId = Math.max(this.nextId, nextId);
+        }
+    }
+
+    //Die Kopie teilt sich die eingeblendete Datei, die nie geändert wird, und kopiert nur die Änderungen.
+    @Override
+    public CardStore copy() {
+        return delegate != null ? delegate.copy() : new MappedCardStore(this);
+    }
+
+    @Override
+    public List<Flashcard> asList() {
+
+        return new AbstractList<Flashcard>() {
+            @Override
+            public Flashcard get(int index) {
+                return MappedCardStore.this.get(index);
+            }
+
+            @Override
+            public int size() {
+                return MappedCardStore.this.size();
+            }
+        };
+    }
+
+    //false, sobald die Karten in einen Model.ColumnarCardStore übernommen wurden
+    boolean isMapped() {
+        return delegate == null;
+    }
+
+    private CardStore materialize(String reason) {
+
+        if (delegate == null) {
+            long start = System.nanoTime();
+            ColumnarCardStore store = new ColumnarCardStore(size());
+            for (int i = 0; i < size(); i++) {
+                Flashcard card = get(i);
+                store.append(card.getId(), card.getFront(), card.getBack(), card.getLevel(), card.getDifficulty(),
+                        card.getLearned(), card.getRepetitionDate().getTime());
+            }
+            store.setNextId(nextId);
+            delegate = store;
+            LogHelper.writeToLog(Level.INFO, () -> "Eingeblendeter Stapel für " + reason + " eingelesen ("
+                    + store.size() + " Karten, " + (System.nanoTime() - start) / 1_000_000 + " ms).");
+        }
+        return delegate;
+    }
+
+    private Flashcard view(int slot) {
+
+        long record = record(slot);
+        long textOffset = getLongAt(record + TEXT_OFFSET);
+        int frontLength = getIntAt(textOffset);
+        Flashcard card = new Flashcard(getStringAt(textOffset + 4, frontLength),
+                getStringAt(textOffset + 8 + frontLength, getIntAt(textOffset + 4 + frontLength)));
+        card.setId(getIntAt(record));
+        Schedule schedule = changedSlots.get(slot) ? changed.get(slot) : null;
+        if (schedule != null) {
+            card.setLevel(schedule.level);
+            card.setDifficulty(schedule.difficulty);
+            card.setLearned(schedule.isLearned);
+            card.setRepetitionDate(new Date(schedule.time));
+        } else {
+            card.setLevel(getByteAt(record + LEVEL_OFFSET));
+            card.setDifficulty(getByteAt(record + DIFFICULTY_OFFSET));
+            card.setLearned(getByteAt(record + LEARNED_OFFSET) != 0);
+            card.setRepetitionDate(new Date(getLongAt(record + TIME_OFFSET)));
+        }
+        return card;
+    }
+
+    private long record(int slot) {
+        return tableOffset + (long) slot * CARD_RECORD_SIZE;
+    }
+
+    //Binäre Suche in der nach Id sortierten Tabelle (int Id, int Position). -1, falls es die Id nicht gibt.
+    private int findSlot(int id) {
+
+        int low = 0;
+        int high = mappedCount - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int middleId = getIntAt(idTableOffset + (long) middle * 8);
+            if (middleId < id) {
+                low = middle + 1;
+            } else if (middleId > id) {
+                high = middle - 1;
+            } else {
+                return getIntAt(idTableOffset + (long) middle * 8 + 4);
+            }
+        }
+        return -1;
+    }
+
+    //Lineares Sondieren in der Hashtabelle (int Hash, int Position + 1). Karten mit gleicher Vorderseite stehen
+    //in der Reihenfolge des Stapels, gefunden wird also die erste. Verglichen werden die UTF-8 Bytes, damit für
+    //die anderen Karten keine Texte dekodiert werden.
+    private int findFront(String front) {
+
+        int hash = front.hashCode();
+        byte[] bytes = null;
+        int mask = frontTableCapacity - 1;
+        for (int i = frontTableIndex(hash, frontTableCapacity); ; i = (i + 1) & mask) {
+            long entry = frontTableOffset + (long) i * 8;
+            int slot = getIntAt(entry + 4) - 1;
+            if (slot < 0) {
+                return -1;
+            }
+            if (getIntAt(entry) != hash) {
+                continue;
+            }
+            if (bytes == null) {
+                bytes = front.getBytes(StandardCharsets.UTF_8);
+            }
+            long textOffset = getLongAt(record(slot) + TEXT_OFFSET);
+            if (getIntAt(textOffset) == bytes.length && equalsAt(textOffset + 4, bytes)) {
+                return slot;
+            }
+        }
+    }
+
+    private boolean equalsAt(long position, byte[] bytes) {
+
+        for (int i = 0; i < bytes.length; i++) {
+            if (getByteAt(position + i) != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String getStringAt(long position, int length) {
+
+        ByteBuffer segment = segments[(int) (position >>> SEGMENT_SHIFT)];
+        int local = (int) (position & (SEGMENT_SIZE - 1));
+        byte[] bytes = new byte[length];
+        if (local + length <= segment.limit()) {
+            segment.duplicate().position(local).get(bytes);
+        } else {
+            //Text über eine Abschnittsgrenze
+            for (int i = 0; i < length; i++) {
+                bytes[i] = (byte) getByteAt(position + i);
+            }
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private int getByteAt(long position) {
+        return segments[(int) (position >>> SEGMENT_SHIFT)].get((int) (position & (SEGMENT_SIZE - 1)));
+    }
+
+    private int getIntAt(long position) {
+        return segments[(int) (position >>> SEGMENT_SHIFT)].getInt((int) (position & (SEGMENT_SIZE - 1)));
+    }
+
+    private long getLongAt(long position) {
+        return segments[(int) (position >>> SEGMENT_SHIFT)].getLong((int) (position & (SEGMENT_SIZE - 1)));
+    }
+}
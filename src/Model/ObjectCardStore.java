@@ -0,0 +1,223 @@
+package Model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+//Karten als Liste von Model.Flashcard, mit Index nach Vorderseite und nach Id.
+//Die zurückgegebenen Karten sind die gespeicherten Objekte selbst.
+//Beim Löschen rückt die letzte Karte an den frei gewordenen Platz, Löschen kostet so O(1) statt eines
+//Durchlaufs über die Liste. Die Reihenfolge des Stapels ändert sich dabei nur für diese eine Karte.
+class ObjectCardStore implements CardStore {
+
+    private final List<Flashcard> cards;
+    //Erste Karte je Vorderseite
+    private final Map<String, Flashcard> cardsByFront = new HashMap<>();
+    //Weitere Karten mit gleicher Vorderseite (nur ältere Stapel), in der Reihenfolge des Hinzufügens
+    private final Map<String, List<Flashcard>> duplicatesByFront = new HashMap<>();
+    //Position + 1 der Id in cards, 0 = nicht vorhanden
+    private int[] positionsById = new int[16];
+    //Id, die die nächste neue Karte bekommt. Ids werden nicht wiederverwendet.
+    private int nextId = 1;
+
+    //Karten ohne Id (ältere Stapel) bekommen ihre Id in der Reihenfolge der Liste, beim erneuten
+    //Einlesen also wieder dieselbe.
+    ObjectCardStore(List<Flashcard> cards) {
+
+        this.cards = cards == null ? new ArrayList<>() : cards;
+        for (int i = 0; i < this.cards.size(); i++) {
+            Flashcard card = this.cards.get(i);
+            if (card.getId() > 0 && getPosition(card.getId()) < 0) {
+                nextId = Math.max(nextId, card.getId() + 1);
+                setPosition(card.getId(), i);
+            }
+        }
+        for (int i = 0; i < this.cards.size(); i++) {
+            Flashcard card = this.cards.get(i);
+            if (getPosition(card.getId()) != i) {
+                card.setId(nextId++);
+                setPosition(card.getId(), i);
+            }
+            addToFrontIndex(card);
+        }
+    }
+
+    @Override
+    public int size() {
+        return cards.size();
+    }
+
+    @Override
+    public Flashcard get(int index) {
+        return cards.get(index);
+    }
+
+    @Override
+    public int getId(int index) {
+        return cards.get(index).getId();
+    }
+
+    @Override
+    public long getRepetitionTime(int index) {
+        return cards.get(index).getRepetitionDate().getTime();
+    }
+
+    @Override
+    public int getLevel(int index) {
+        return cards.get(index).getLevel();
+    }
+
+    @Override
+    public Flashcard getById(int id) {
+
+        int position = getPosition(id);
+        return position < 0 ? null : cards.get(position);
+    }
+
+    @Override
+    public Flashcard getByFront(String front) {
+        return cardsByFront.get(front);
+    }
+
+    @Override
+    public boolean containsFront(String front) {
+        return cardsByFront.containsKey(front);
+    }
+
+    @Override
+    public void add(Flashcard card) {
+
+        if (card.getId() <= 0 || getPosition(card.getId()) >= 0) {
+            card.setId(nextId);
+        }
+        nextId = Math.max(nextId, card.getId() + 1);
+        setPosition(card.getId(), cards.size());
+        cards.add(card);
+        addToFrontIndex(card);
+    }
+
+    @Override
+    public void remove(int id) {
+
+        int position = getPosition(id);
+        if (position < 0) {
+            return;
+        }
+        Flashcard card = cards.get(position);
+        Flashcard last = cards.remove(cards.size() - 1);
+        if (last != card) {
+            cards.set(position, last);
+            setPosition(last.getId(), position);
+        }
+        positionsById[id] = 0;
+        removeFromFrontIndex(card);
+    }
+
+    @Override
+    public void edit(int id, String front, String back) {
+
+        Flashcard card = getById(id);
+        if (card == null) {
+            return;
+        }
+        if (!front.equals(card.getFront())) {
+            removeFromFrontIndex(card);
+            card.setFront(front);
+            addToFrontIndex(card);
+        }
+        card.setBack(back);
+    }
+
+    @Override
+    public void update(Flashcard card) {
+
+        Flashcard storedCard = getById(card.getId());
+        if (storedCard != null && storedCard != card) {
+            storedCard.setLevel(card.getLevel());
+            storedCard.setDifficulty(card.getDifficulty());
+            storedCard.setLearned(card.getLearned());
+            storedCard.setRepetitionDate(card.getRepetitionDate());
+        }
+    }
+
+    @Override
+    public void reschedule(long[] shifts) {
+
+        for (Flashcard card : cards) {
+            long shift = shifts[Scheduler.getShiftIndex(card.getLevel(), card.getDifficulty())];
+            if (shift != 0) {
+                card.setRepetitionDate(new Date(card.getRepetitionDate().getTime() + shift));
+            }
+        }
+    }
+
+    @Override
+    public int getNextId() {
+        return nextId;
+    }
+
+    @Override
+    public void setNextId(int nextId) {
+        this.nextId = Math.max(this.nextId, nextId);
+    }
+
+    @Override
+    public CardStore copy() {
+
+        List<Flashcard> copiedCards = new ArrayList<>(cards.size());
+        for (Flashcard card : cards) {
+            copiedCards.add(new Flashcard(card));
+        }
+        ObjectCardStore copy = new ObjectCardStore(copiedCards);
+        copy.nextId = nextId;
+        return copy;
+    }
+
+    @Override
+    public List<Flashcard> asList() {
+        return Collections.unmodifiableList(cards);
+    }
+
+    private void addToFrontIndex(Flashcard card) {
+
+        //Ältere Stapel können Karten mit gleicher Vorderseite enthalten
+        if (cardsByFront.putIfAbsent(card.getFront(), card) != null) {
+            duplicatesByFront.computeIfAbsent(card.getFront(), front -> new ArrayList<>(1)).add(card);
+        }
+    }
+
+    //Ohne Durchlauf über alle Karten: Nachfolger ist die nächste Karte mit gleicher Vorderseite
+    private void removeFromFrontIndex(Flashcard card) {
+
+        String front = card.getFront();
+        List<Flashcard> duplicates = duplicatesByFront.get(front);
+        if (cardsByFront.get(front) == card) {
+            if (duplicates == null) {
+                cardsByFront.remove(front);
+            } else {
+                cardsByFront.put(front, duplicates.remove(0));
+            }
+        } else if (duplicates != null) {
+            duplicates.remove(card);
+        }
+        if (duplicates != null && duplicates.isEmpty()) {
+            duplicatesByFront.remove(front);
+        }
+    }
+
+    private int getPosition(int id) {
+        return id > 0 && id < positionsById.length ? positionsById[id] - 1 : -1;
+    }
+
+    private void setPosition(int id, int position) {
+
+        if (id >= positionsById.length) {
+            positionsById = Arrays.copyOf(positionsById, Math.max(id + 1, positionsById.length * 2));
+        }
+        positionsById[id] = position + 1;
+    }
+}
@@ -0,0 +1,89 @@
+package Model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.logging.Level;
+
+//Führt alle Festplattenzugriffe auf einem eigenen Thread aus, damit der JavaFX-Thread nie auf die
+//Festplatte warten muss. Die Ergebnisse kommen als CompletableFuture zurück; die ViewModels übernehmen
+//sie mit thenAcceptAsync(..., Platform::runLater) wieder auf den JavaFX-Thread.
+//Da es nur einen Thread gibt, werden alle Schreibvorgänge in der Reihenfolge ausgeführt, in der sie
+//angestoßen wurden (z.B. Journaleinträge vor dem Komprimieren).
+public class PersistenceService {
+
+    private static PersistenceService instance;
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "PersistenceIO");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private PersistenceService() {
+    }
+
+    public static synchronized PersistenceService getInstance() {
+
+        if (instance == null) {
+            instance = new PersistenceService();
+        }
+        return instance;
+    }
+
+    //Wird vom Model.DeckWriter für verzögertes Schreiben benutzt.
+    public ScheduledExecutorService getExecutor() {
+        return executor;
+    }
+
+    public <T> CompletableFuture<T> submit(Callable<T> task) {
+
+        CompletableFuture<T> future = new CompletableFuture<>();
+        executor.execute(() -> {
+            try {
+                future.complete(task.call());
+            } catch (Exception ex) {
+                LogHelper.writeToLog(Level.INFO, "Fehler beim Zugriff auf die Festplatte: " + ex);
+                future.completeExceptionally(ex);
+            }
+        });
+        return future;
+    }
+
+    public void execute(Runnable task) {
+
+        executor.execute(() -> {
+            try {
+                task.run();
+            } catch (Exception ex) {
+                LogHelper.writeToLog(Level.INFO, "Fehler beim Zugriff auf die Festplatte: " + ex);
+            }
+        });
+    }
+
+    public CompletableFuture<Void> saveUsers(List<String> users) {
+
+        Helper helper = new Helper();
+        List<String> copy = new ArrayList<>(users);
+        return submit(() -> {
+            helper.saveUsersToFile(copy);
+            return null;
+        });
+    }
+
+    //Löscht die Datei des Stapels und entfernt ihn aus dem Model.DeckRepository.
+    public CompletableFuture<Boolean> deleteDeck(String deckName) {
+
+        Helper helper = new Helper();
+        return submit(() -> {
+            boolean isRemoved = helper.deleteDeckFile(deckName);
+            if (isRemoved) {
+                DeckRepository.getInstance().remove(deckName);
+            }
+            return isRemoved;
+        });
+    }
+}
@@ -0,0 +1,8 @@
+package Model;
+
+//Für Controller, deren Szene vom Model.SceneCache wiederverwendet wird. initialize() wird nur einmal beim
+//Einlesen der FXML-Datei aufgerufen, refresh() bei jedem Anzeigen der Szene.
+public interface Refreshable {
+
+    void refresh();
+}
@@ -0,0 +1,85 @@
+package Model;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.logging.Level;
+
+//Verwaltet die Übungsrunden (Model.ReviewSession), höchstens eine offene Runde pro Benutzer.
+//Unabhängig von JavaFX, damit Runden auch ohne Oberfläche (z.B. für Lasttests) gesteuert werden können.
+public class ReviewEngine {
+
+    private static ReviewEngine instance;
+
+    private final Map<String, ReviewSession> sessions = new HashMap<>();
+
+    private ReviewEngine() {
+    }
+
+    public static synchronized ReviewEngine getInstance() {
+
+        if (instance == null) {
+            instance = new ReviewEngine();
+        }
+        return instance;
+    }
+
+    //Startet eine neue Runde mit dem Stapel, falls er dem Benutzer gehört. Eine noch offene Runde des Benutzers
+    //wird dabei beendet. Liest den Stapel falls nötig von der Festplatte, also nicht auf dem JavaFX-Thread
+    //aufrufen (siehe Data.startReviewSession()). Gibt null zurück, wenn der Stapel nicht geöffnet werden kann.
+    public ReviewSession start(String user, String deckName) {
+
+        DeckRepository repository = DeckRepository.getInstance();
+        if (!isOwnedBy(repository, user, deckName)) {
+            LogHelper.writeToLog(Level.INFO, "Stapel " + deckName + " gehört nicht zu Benutzer " + user);
+            return null;
+        }
+        Deck deck = repository.getDeck(deckName);
+        if (deck == null) {
+            return null;
+        }
+
+        ReviewSession session = new ReviewSession(user, deck, System.currentTimeMillis());
+        ReviewSession previousSession;
+        synchronized (sessions) {
+            previousSession = sessions.put(user, session);
+        }
+        //Außerhalb der Sperre, da commit() selbst sessionCommitted() aufruft
+        if (previousSession != null) {
+            previousSession.commit();
+        }
+        return session;
+    }
+
+    //Offene Runde des Benutzers oder null
+    public ReviewSession getSession(String user) {
+
+        synchronized (sessions) {
+            return sessions.get(user);
+        }
+    }
+
+    public int countOpenSessions() {
+
+        synchronized (sessions) {
+            return sessions.size();
+        }
+    }
+
+    //Wird von ReviewSession.commit() aufgerufen
+    void sessionCommitted(ReviewSession session) {
+
+        synchronized (sessions) {
+            sessions.remove(session.getUser(), session);
+        }
+    }
+
+    private boolean isOwnedBy(DeckRepository repository, String user, String deckName) {
+
+        for (DeckHeader header : repository.getHeadersOfOwner(user)) {
+            if (header.getName().equals(deckName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,492 @@
+package Model;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.logging.Level;
+
+//Protokoll aller Antworten eines Stapels (<Stapel>.reviews). Pro Antwort wird ein Eintrag fester Größe angehängt:
+//  long Zeitpunkt, int Id der Karte, byte Bewertung, byte Level vorher, byte Level nachher,
+//  int Abstand vorher und int Abstand nachher in Sekunden, int Antwortzeit in Millisekunden (-1 = unbekannt)
+//Anders als das Model.DeckJournal wird das Protokoll nie gekürzt.
+//
+//Zusätzlich werden Summen pro Stunde und pro Tag mitgezählt (Rollup), damit Statistik und Auswertungen über
+//Monate nicht jeden Eintrag lesen müssen. Die Summen werden beim Beenden als <Stapel>.rollups mit der Anzahl der
+//enthaltenen Einträge gespeichert; beim nächsten Öffnen werden nur die Einträge dahinter nachgezählt.
+//Gelesen wird erst auf dem Thread des Model.PersistenceService beim Schreiben der ersten Antwort bzw. bei der
+//ersten Abfrage; append() selbst greift nie auf die Festplatte zu.
+public class ReviewLog {
+
+    public static final String FILE_EXTENSION = ".reviews";
+    public static final String ROLLUP_FILE_EXTENSION = ".rollups";
+
+    private static final int RECORD_SIZE = 27;
+    private static final int ROLLUP_FILE_VERSION = 1;
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final long HOUR_MILLIS = 60 * 60 * 1000L;
+
+    //Pro Stapel gibt es genau ein Protokoll, damit sich Einträge nicht überschneiden.
+    private static final Map<Path, ReviewLog> logs = new HashMap<>();
+
+    public enum Resolution {
+        HOUR,
+        DAY
+    }
+
+    //Eine Antwort aus dem Protokoll, siehe readEvents()
+    public interface EventVisitor {
+        void event(long time, int cardId, int grade, int oldLevel, int newLevel, long previousInterval,
+                   long nextInterval, int responseMillis) throws IOException;
+    }
+
+    //Summe der Antworten einer Stunde bzw. eines Tages
+    public static class Rollup {
+
+        private final long start;
+        private int reviews;
+        private final int[] grades = new int[Scheduler.MAX_GRADE + 1];
+        private long responseMillis;
+        private int timedReviews;
+
+        Rollup(long start) {
+            this.start = start;
+        }
+
+        private Rollup(Rollup anotherRollup) {
+
+            this(anotherRollup.start);
+            add(anotherRollup);
+        }
+
+        //Beginn der Stunde bzw. des Tages (Mitternacht in der lokalen Zeitzone)
+        public long getStart() {
+            return start;
+        }
+
+        public int getReviews() {
+            return reviews;
+        }
+
+        public int getGradeCount(int grade) {
+            return grade < 0 || grade > Scheduler.MAX_GRADE ? 0 : grades[grade];
+        }
+
+        //Bewertung 1 - 3, die Karte war also noch bekannt
+        public int getRecalled() {
+            return grades[1] + grades[2] + grades[3];
+        }
+
+        //Bewertung MAX_GRADE (sehr schwer)
+        public int getLapsed() {
+            return grades[Scheduler.MAX_GRADE];
+        }
+
+        //-1, falls keine Antwortzeit bekannt ist
+        public long getAverageResponseMillis() {
+            return timedReviews == 0 ? -1 : responseMillis / timedReviews;
+        }
+
+        void add(Rollup anotherRollup) {
+
+            reviews += anotherRollup.reviews;
+            for (int i = 0; i < grades.length; i++) {
+                grades[i] += anotherRollup.grades[i];
+            }
+            responseMillis += anotherRollup.responseMillis;
+            timedReviews += anotherRollup.timedReviews;
+        }
+
+        private void add(int grade, int response) {
+
+            reviews++;
+            if (grade >= 0 && grade <= Scheduler.MAX_GRADE) {
+                grades[grade]++;
+            }
+            if (response >= 0) {
+                responseMillis += response;
+                timedReviews++;
+            }
+        }
+    }
+
+    private final Path logFile;
+    private final Path rollupFile;
+    private NavigableMap<Long, Rollup> hours = new TreeMap<>();
+    private NavigableMap<Long, Rollup> days = new TreeMap<>();
+    private volatile boolean isLoaded;
+    //Einträge in den Summen, inklusive der schon gezählten, aber noch nicht geschriebenen
+    private long recordCount;
+    private boolean hasChanged;
+    private ByteBuffer pending = ByteBuffer.allocate(RECORD_SIZE * 64);
+    //Bis hierhin sind die Einträge in pending schon in den Summen enthalten
+    private int countedBytes;
+    private boolean isWriteScheduled;
+
+    private ReviewLog(Path directory, String deckName) {
+        this.logFile = Paths.get(directory.toString(), deckName + FILE_EXTENSION);
+        this.rollupFile = Paths.get(directory.toString(), deckName + ROLLUP_FILE_EXTENSION);
+    }
+
+    public static synchronized ReviewLog forDeck(Path directory, String deckName) {
+
+        Path key = Paths.get(directory.toString(), deckName);
+        ReviewLog log = logs.get(key);
+        if (log == null) {
+            log = new ReviewLog(directory, deckName);
+            logs.put(key, log);
+        }
+        return log;
+    }
+
+    //Speichert die Summen aller geöffneten Protokolle. Wird beim Beenden aufgerufen, nachdem alle Einträge
+    //geschrieben wurden (DeckWriter.flush()).
+    public static void saveAll() {
+
+        List<ReviewLog> openLogs;
+        synchronized (ReviewLog.class) {
+            openLogs = new ArrayList<>(logs.values());
+        }
+        for (ReviewLog log : openLogs) {
+            log.saveRollups();
+        }
+    }
+
+    public Path getLogFile() {
+        return logFile;
+    }
+
+    //Hängt eine Antwort an. Geschrieben und in die Summen gezählt wird auf dem Thread des
+    //Model.PersistenceService; folgen mehrere Antworten kurz aufeinander, werden sie gemeinsam geschrieben.
+    //Abstände in Millisekunden.
+    public synchronized void append(long time, int cardId, int grade, int oldLevel, int newLevel,
+                                    long previousInterval, long nextInterval, int responseMillis) {
+
+        if (pending.remaining() < RECORD_SIZE) {
+            ByteBuffer larger = ByteBuffer.allocate(pending.capacity() * 2);
+            pending.flip();
+            larger.put(pending);
+            pending = larger;
+        }
+        pending.putLong(time);
+        pending.putInt(cardId);
+        pending.put((byte) grade);
+        pending.put((byte) oldLevel);
+        pending.put((byte) newLevel);
+        pending.putInt(toSeconds(previousInterval));
+        pending.putInt(toSeconds(nextInterval));
+        pending.putInt(responseMillis);
+
+        if (!isWriteScheduled) {
+            isWriteScheduled = true;
+            PersistenceService.getInstance().execute(this::writePending);
+        }
+    }
+
+    //Summen pro Stunde bzw. Tag mit Beginn im Zeitraum [from, to), aufsteigend sortiert. Liest beim ersten Zugriff
+    //von der Festplatte, also nicht auf dem JavaFX-Thread aufrufen.
+    public List<Rollup> getRollups(Resolution resolution, long from, long to) {
+
+        loadRollups();
+        synchronized (this) {
+            countPending();
+            List<Rollup> rollups = new ArrayList<>();
+            NavigableMap<Long, Rollup> buckets = resolution == Resolution.HOUR ? hours : days;
+            for (Rollup rollup : buckets.subMap(toBucket(resolution, from), true, toBucket(resolution, to), true)
+                    .values()) {
+                if (rollup.start >= from && rollup.start < to) {
+                    rollups.add(new Rollup(rollup));
+                }
+            }
+            return rollups;
+        }
+    }
+
+    //Summe aller Antworten im Zeitraum, auf ganze Tage gerundet.
+    public Rollup getTotal(long from, long to) {
+
+        Rollup total = new Rollup(from);
+        for (Rollup rollup : getRollups(Resolution.DAY, from, to)) {
+            total.add(rollup);
+        }
+        return total;
+    }
+
+    //Liest beim ersten Zugriff von der Festplatte, also nicht auf dem JavaFX-Thread aufrufen.
+    public long countEvents() {
+
+        loadRollups();
+        synchronized (this) {
+            countPending();
+            return recordCount;
+        }
+    }
+
+    //Liest alle Antworten in der Reihenfolge des Protokolls, ohne es komplett in den Speicher zu laden, z.B. für
+    //einen Export. Gelesen wird der Stand auf der Festplatte; noch nicht geschriebene Antworten fehlen.
+    public void readEvents(EventVisitor visitor) throws IOException {
+
+        if (!Files.exists(logFile)) {
+            return;
+        }
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(logFile),
+                BUFFER_SIZE))) {
+            byte[] record = new byte[RECORD_SIZE];
+            ByteBuffer buffer = ByteBuffer.wrap(record);
+            while (true) {
+                try {
+                    input.readFully(record);
+                } catch (EOFException ex) {
+                    //Auch ein unvollständiger Eintrag am Ende (z.B. nach einem Absturz) wird ignoriert
+                    return;
+                }
+                buffer.clear();
+                visitor.event(buffer.getLong(), buffer.getInt(), buffer.get(), buffer.get(), buffer.get(),
+                        buffer.getInt() * 1000L, buffer.getInt() * 1000L, buffer.getInt());
+            }
+        }
+    }
+
+    //Wird beim Löschen des Stapels aufgerufen.
+    public synchronized void delete() throws IOException {
+
+        pending.clear();
+        countedBytes = 0;
+        hours = new TreeMap<>();
+        days = new TreeMap<>();
+        recordCount = 0;
+        isLoaded = true;
+        hasChanged = false;
+        Files.deleteIfExists(logFile);
+        Files.deleteIfExists(rollupFile);
+    }
+
+    private void writePending() {
+
+        //Die Summen müssen vor dem Schreiben geladen sein, sonst würden die neuen Einträge doppelt gezählt
+        loadRollups();
+        ByteBuffer buffer;
+        synchronized (this) {
+            isWriteScheduled = false;
+            countPending();
+            pending.flip();
+            buffer = ByteBuffer.allocate(pending.remaining());
+            buffer.put(pending);
+            buffer.flip();
+            pending.clear();
+            countedBytes = 0;
+        }
+        if (!buffer.hasRemaining()) {
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(logFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            //Ein unvollständiger Eintrag am Ende (z.B. nach einem Absturz) wird überschrieben
+            long size = channel.size() - channel.size() % RECORD_SIZE;
+            try {
+                channel.position(size);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                DeckWriter.getInstance().appended(logFile, channel);
+            } catch (IOException ex) {
+                channel.truncate(size);
+                throw ex;
+            }
+
+        } catch (IOException ex) {
+            LogHelper.writeToLog(Level.INFO, "Fehler beim Schreiben in das Protokoll " + logFile.getFileName()
+                    + ": " + ex);
+        }
+    }
+
+    private synchronized void saveRollups() {
+
+        if (!isLoaded || !hasChanged) {
+            return;
+        }
+        try {
+            DeckWriter.getInstance().writeAtomically(rollupFile, this::writeRollups);
+            hasChanged = false;
+        } catch (IOException ex) {
+            LogHelper.writeToLog(Level.INFO, "Fehler beim Speichern von " + rollupFile.getFileName() + ": " + ex);
+        }
+    }
+
+    //Aufbau der Datei: int Version, long Anzahl enthaltener Einträge, danach Stunden und Tage jeweils als
+    //int Anzahl und pro Summe long Nummer, int Antworten, int pro Bewertung, long Antwortzeit, int mit Antwortzeit.
+    private void writeRollups(Path file) throws IOException {
+
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file),
+                BUFFER_SIZE))) {
+            output.writeInt(ROLLUP_FILE_VERSION);
+            output.writeLong(recordCount);
+            for (NavigableMap<Long, Rollup> buckets : List.of(hours, days)) {
+                output.writeInt(buckets.size());
+                for (Map.Entry<Long, Rollup> entry : buckets.entrySet()) {
+                    Rollup rollup = entry.getValue();
+                    output.writeLong(entry.getKey());
+                    output.writeInt(rollup.reviews);
+                    for (int count : rollup.grades) {
+                        output.writeInt(count);
+                    }
+                    output.writeLong(rollup.responseMillis);
+                    output.writeInt(rollup.timedReviews);
+                }
+            }
+        }
+    }
+
+    //Liest die gespeicherten Summen beim ersten Zugriff und zählt die Einträge dahinter nach. Fehlen die Summen
+    //oder passen sie nicht (z.B. mehr Einträge als im Protokoll), wird das ganze Protokoll gelesen.
+    //Gelesen wird außerhalb der Sperre, damit append() nicht auf die Festplatte wartet. Die Datei wird nur auf dem
+    //Thread des Model.PersistenceService geschrieben und erst, nachdem die Summen geladen sind; noch nicht
+    //geschriebene Einträge stehen also nie doppelt in den Summen.
+    private void loadRollups() {
+
+        if (isLoaded) {
+            return;
+        }
+        NavigableMap<Long, Rollup> loadedHours = new TreeMap<>();
+        NavigableMap<Long, Rollup> loadedDays = new TreeMap<>();
+        long stored = readRollups(loadedHours, loadedDays);
+        long onDisk;
+        try {
+            onDisk = Files.exists(logFile) ? Files.size(logFile) / RECORD_SIZE : 0;
+        } catch (IOException ex) {
+            onDisk = 0;
+        }
+        if (stored > onDisk) {
+            loadedHours.clear();
+            loadedDays.clear();
+            stored = 0;
+        }
+
+        long first = stored;
+        long[] count = {0};
+        if (stored < onDisk) {
+            try {
+                readEvents((time, cardId, grade, oldLevel, newLevel, previousInterval, nextInterval, response) -> {
+                    if (count[0]++ >= first) {
+                        addToRollups(loadedHours, loadedDays, time, grade, response);
+                    }
+                });
+            } catch (IOException ex) {
+                LogHelper.writeToLog(Level.INFO, "Fehler beim Lesen des Protokolls " + logFile.getFileName() + ": "
+                        + ex);
+            }
+            LogHelper.writeToLog(Level.INFO, () -> (count[0] - first) + " Antworten aus " + logFile.getFileName()
+                    + " nachgezählt.");
+        }
+        long total = Math.max(first, count[0]);
+
+        synchronized (this) {
+            if (isLoaded) {
+                return;
+            }
+            hours = loadedHours;
+            days = loadedDays;
+            recordCount = total;
+            hasChanged = total > first;
+            isLoaded = true;
+        }
+    }
+
+    //Zählt die noch nicht gezählten Einträge in pending in die Summen. Nur mit geladenen Summen aufrufen.
+    private void countPending() {
+
+        for (; countedBytes + RECORD_SIZE <= pending.position(); countedBytes += RECORD_SIZE) {
+            addToRollups(hours, days, pending.getLong(countedBytes), pending.get(countedBytes + 12),
+                    pending.getInt(countedBytes + 23));
+            recordCount++;
+            hasChanged = true;
+        }
+    }
+
+    //Gibt die Anzahl der enthaltenen Einträge zurück, 0 wenn die Datei fehlt oder nicht lesbar ist.
+    private long readRollups(NavigableMap<Long, Rollup> hours, NavigableMap<Long, Rollup> days) {
+
+        if (!Files.exists(rollupFile)) {
+            return 0;
+        }
+        try {
+            ByteBuffer input = ByteBuffer.wrap(Files.readAllBytes(rollupFile));
+            if (input.getInt() != ROLLUP_FILE_VERSION) {
+                return 0;
+            }
+            long count = input.getLong();
+            for (Resolution resolution : Resolution.values()) {
+                NavigableMap<Long, Rollup> buckets = resolution == Resolution.HOUR ? hours : days;
+                int size = input.getInt();
+                for (int i = 0; i < size; i++) {
+                    long bucket = input.getLong();
+                    Rollup rollup = new Rollup(getBucketStart(resolution, bucket));
+                    rollup.reviews = input.getInt();
+                    for (int grade = 0; grade < rollup.grades.length; grade++) {
+                        rollup.grades[grade] = input.getInt();
+                    }
+                    rollup.responseMillis = input.getLong();
+                    rollup.timedReviews = input.getInt();
+                    buckets.put(bucket, rollup);
+                }
+            }
+            return count;
+
+        } catch (IOException | RuntimeException ex) {
+            LogHelper.writeToLog(Level.INFO, rollupFile.getFileName() + " konnte nicht gelesen werden: " + ex);
+            hours.clear();
+            days.clear();
+            return 0;
+        }
+    }
+
+    private static void addToRollups(NavigableMap<Long, Rollup> hours, NavigableMap<Long, Rollup> days, long time,
+                                     int grade, int responseMillis) {
+
+        for (Resolution resolution : Resolution.values()) {
+            NavigableMap<Long, Rollup> buckets = resolution == Resolution.HOUR ? hours : days;
+            long bucket = toBucket(resolution, time);
+            buckets.computeIfAbsent(bucket, key -> new Rollup(getBucketStart(resolution, key)))
+                    .add(grade, responseMillis);
+        }
+    }
+
+    //Stunden seit 1970 bzw. Tage seit 1970 in der lokalen Zeitzone
+    private static long toBucket(Resolution resolution, long time) {
+
+        if (resolution == Resolution.HOUR) {
+            return Math.floorDiv(time, HOUR_MILLIS);
+        }
+        return LocalDate.ofInstant(Instant.ofEpochMilli(time), ZoneId.systemDefault()).toEpochDay();
+    }
+
+    private static long getBucketStart(Resolution resolution, long bucket) {
+
+        if (resolution == Resolution.HOUR) {
+            return bucket * HOUR_MILLIS;
+        }
+        return LocalDate.ofEpochDay(bucket).atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    //Abstände über 68 Jahre werden gekappt
+    private static int toSeconds(long millis) {
+        return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, millis / 1000));
+    }
+}
@@ -0,0 +1,117 @@
+package Model;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Level;
+
+//Eine Übungsrunde eines Benutzers mit einem Stapel, ohne Abhängigkeit zu JavaFX. Erstellt wird sie über
+//Model.ReviewEngine. Abgefragt werden nur Karten, die beim Start der Runde fällig waren; beantwortete Karten
+//liegen danach in der Zukunft und kommen in derselben Runde nicht noch einmal.
+//
+//  next()              nächste fällige Karte oder null, wenn die Runde fertig ist
+//  answer(id, grade)   bewertet die Karte (Schwierigkeit 0 - 4 wie in Flashcard.updateInterval)
+//  commit()            beendet die Runde, das Future ist fertig, sobald alle Antworten gespeichert sind
+//
+//Alle Methoden sind synchronisiert, eine Runde kann also von mehreren Threads benutzt werden.
+public class ReviewSession {
+
+    //0 = sofort wiederholen, 1 = leicht, 2 = OK, 3 = schwer, 4 = sehr schwer
+    public static final int MIN_GRADE = 0;
+    public static final int MAX_GRADE = 4;
+
+    private final String user;
+    private final Deck deck;
+    private final long startTime;
+    private int reviewedCards;
+    private boolean committed;
+    //Zuletzt von next() zurückgegebene Karte, daraus ergibt sich die Antwortzeit für das Model.ReviewLog
+    private int shownCardId = -1;
+    private long shownTime;
+
+    ReviewSession(String user, Deck deck, long startTime) {
+
+        this.user = user;
+        this.deck = deck;
+        this.startTime = startTime;
+    }
+
+    public String getUser() {
+        return user;
+    }
+
+    public Deck getDeck() {
+        return deck;
+    }
+
+    public long getStartTime() {
+        return startTime;
+    }
+
+    public synchronized int getReviewedCards() {
+        return reviewedCards;
+    }
+
+    public synchronized boolean isCommitted() {
+        return committed;
+    }
+
+    //Nächste Karte, die beim Start der Runde fällig war. Der Stapel wird dabei nicht verändert.
+    public synchronized Flashcard next() {
+
+        if (committed) {
+            return null;
+        }
+        Flashcard card = DeckRepository.getInstance().nextDueCard(deck, startTime);
+        if (card != null && card.getId() != shownCardId) {
+            shownCardId = card.getId();
+            shownTime = System.currentTimeMillis();
+        }
+        return card;
+    }
+
+    //Anzahl der Karten, die in dieser Runde noch abgefragt werden.
+    public synchronized int countRemaining() {
+        return committed ? 0 : DeckRepository.getInstance().countDueCards(deck, startTime);
+    }
+
+    //Bewertet eine Karte der Runde. Gibt false zurück, wenn die Runde schon beendet ist oder die Karte
+    //nicht zur Runde gehört; die Karte bleibt dann unverändert.
+    public synchronized boolean answer(int cardId, int grade) {
+
+        if (committed) {
+            LogHelper.writeToLog(Level.INFO, "Übungsrunde von " + user + " ist bereits beendet.");
+            return false;
+        }
+        if (grade < MIN_GRADE || grade > MAX_GRADE) {
+            LogHelper.writeToLog(Level.INFO, "Ungültige Bewertung " + grade + " für Karte " + cardId);
+            return false;
+        }
+        Flashcard card = DeckRepository.getInstance().getCard(deck, cardId);
+        if (card == null || card.getRepetitionDate().getTime() > startTime) {
+            LogHelper.writeToLog(Level.INFO, "Karte " + cardId + " ist in dieser Übungsrunde nicht fällig.");
+            return false;
+        }
+
+        //Antwortzeit nur, wenn die Karte vorher über next() angezeigt wurde
+        int responseMillis = cardId == shownCardId
+                ? (int) Math.min(Integer.MAX_VALUE, System.currentTimeMillis() - shownTime) : -1;
+        shownCardId = -1;
+        DeckRepository.getInstance().reviewCard(deck, cardId, grade, responseMillis);
+        reviewedCards++;
+        return true;
+    }
+
+    //Beendet die Runde. Jede Antwort wurde bereits im Journal vorgemerkt; da alle Festplattenzugriffe auf
+    //einem Thread laufen, ist das Future erst fertig, wenn diese Einträge geschrieben sind.
+    //Gibt die Anzahl der beantworteten Karten zurück.
+    public synchronized CompletableFuture<Integer> commit() {
+
+        if (!committed) {
+            committed = true;
+            ReviewEngine.getInstance().sessionCommitted(this);
+            LogHelper.writeToLog(Level.INFO, () -> "Übungsrunde von " + user + " mit " + deck.getName()
+                    + " beendet, " + reviewedCards + " Karten beantwortet.");
+        }
+        int reviewed = reviewedCards;
+        return PersistenceService.getInstance().submit(() -> reviewed);
+    }
+}
@@ -0,0 +1,111 @@
+package Model;
+
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.stage.Stage;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.logging.Level;
+
+//Liest jede FXML-Datei nur einmal ein und hält Szene und Controller danach im Speicher.
+//Beim erneuten Anzeigen wird nur refresh() des Controllers aufgerufen (siehe Model.Refreshable).
+//Mit prewarm() werden die Szenen beim Start im Hintergrund eingelesen; wird eine Szene angefordert,
+//die gerade im Hintergrund eingelesen wird, wird darauf gewartet statt sie doppelt einzulesen.
+public class SceneCache {
+
+    private static SceneCache instance;
+
+    //Eingelesene Oberfläche einer FXML-Datei. Die Szene wird erst beim ersten Anzeigen erstellt,
+    //da das nur auf dem JavaFX-Thread erlaubt ist.
+    private static class View {
+
+        private final Parent root;
+        private final Object controller;
+        private Scene scene;
+
+        View(Parent root, Object controller) {
+            this.root = root;
+            this.controller = controller;
+        }
+    }
+
+    private final Map<String, FutureTask<View>> views = new HashMap<>();
+
+    private SceneCache() {
+    }
+
+    public static synchronized SceneCache getInstance() {
+
+        if (instance == null) {
+            instance = new SceneCache();
+        }
+        return instance;
+    }
+
+    //Liest die Szenen in einem Hintergrund-Thread ein. Die Controller werden dabei nur initialisiert,
+    //ihre Daten laden sie erst in refresh().
+    public void prewarm(String... scenes) {
+
+        Thread thread = new Thread(() -> {
+            long start = System.nanoTime();
+            for (String scene : scenes) {
+                getTask(scene).run();
+            }
+            LogHelper.writeToLog(Level.INFO, () -> scenes.length + " Szenen in "
+                    + (System.nanoTime() - start) / 1_000_000 + " ms vorgeladen.");
+        }, "ScenePrewarm");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    //Zeigt die Szene im Fenster an und lässt den Controller seine Daten neu laden.
+    public void show(Stage window, String scene) throws IOException {
+
+        View view = getView(scene);
+        if (view.scene == null) {
+            view.scene = new Scene(view.root);
+        }
+        window.setScene(view.scene);
+        if (view.controller instanceof Refreshable) {
+            ((Refreshable) view.controller).refresh();
+        }
+    }
+
+    private View getView(String scene) throws IOException {
+
+        FutureTask<View> task = getTask(scene);
+        //Läuft die Aufgabe bereits im Hintergrund, kehrt run() sofort zurück und get() wartet
+        task.run();
+        try {
+            return task.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Warten auf Szene " + scene + " unterbrochen", ex);
+        } catch (ExecutionException ex) {
+            //Beim nächsten Versuch neu einlesen
+            synchronized (views) {
+                views.remove(scene);
+            }
+            throw new IOException("Szene " + scene + " konnte nicht geladen werden", ex.getCause());
+        }
+    }
+
+    private FutureTask<View> getTask(String scene) {
+
+        synchronized (views) {
+            return views.computeIfAbsent(scene, name -> new FutureTask<>(() -> load(name)));
+        }
+    }
+
+    private View load(String scene) throws IOException {
+
+        FXMLLoader loader = new FXMLLoader(getClass().getClassLoader().getResource("View/" + scene));
+        Parent root = loader.load();
+        return new View(root, loader.getController());
+    }
+}
@@ -0,0 +1,68 @@
+package Model;
+
+//Verfahren, das nach einer Antwort das neue Level und den Abstand bis zur nächsten Abfrage bestimmt.
+//Gespeichert werden pro Karte nur das Level (0 - MAX_LEVEL) und die letzte Bewertung (Schwierigkeit 0 - MAX_GRADE),
+//alle Verfahren rechnen daher nur mit diesen beiden Werten:
+//  LadderScheduler: die bisherigen zehn festen Abstände
+//  Sm2Scheduler:    SuperMemo 2, Abstand wächst mit dem Leichtigkeitsfaktor
+//  FsrsScheduler:   FSRS, Abstand aus Stabilität und gewünschter Erinnerungswahrscheinlichkeit
+//
+//Die Bewertung entspricht den Buttons im Übungsfenster: 1 = leicht, 2 = OK, 3 = schwer, 4 = sehr schwer.
+//0 = sofort wiederholen, die Karte wird dann nicht verändert.
+public interface Scheduler {
+
+    int MAX_LEVEL = 9;
+    int MAX_GRADE = 4;
+
+    String getName();
+
+    //Level nach einer Antwort mit der Bewertung grade (1 - 4), höchstens MAX_LEVEL.
+    int nextLevel(int level, int grade);
+
+    //Abstand in Millisekunden bis zur nächsten Abfrage, wenn die Karte mit grade auf level gesetzt wurde.
+    long getInterval(int level, int grade);
+
+    //Tabelle der Änderung des Abfragedatums beim Wechsel von from zu to, Index level * (MAX_GRADE + 1) + grade.
+    //Da das Abfragedatum = letzte Abfrage + Abstand ist, reicht zum Neuplanen einer Karte eine Addition.
+    //Karten mit Bewertung 0 (noch nie oder zuletzt ohne Änderung abgefragt) bleiben unverändert.
+    static long[] getShifts(Scheduler from, Scheduler to) {
+
+        long[] shifts = new long[(MAX_LEVEL + 1) * (MAX_GRADE + 1)];
+        for (int level = 0; level <= MAX_LEVEL; level++) {
+            for (int grade = 1; grade <= MAX_GRADE; grade++) {
+                shifts[level * (MAX_GRADE + 1) + grade] = to.getInterval(level, grade) - from.getInterval(level, grade);
+            }
+        }
+        return shifts;
+    }
+
+    //Index in die Tabelle aus getShifts(). Werte außerhalb der Grenzen (z.B. Level 10 aus älteren Versionen)
+    //werden auf die Grenzen gesetzt.
+    static int getShiftIndex(int level, int grade) {
+
+        level = Math.max(0, Math.min(level, MAX_LEVEL));
+        grade = grade < 0 || grade > MAX_GRADE ? 0 : grade;
+        return level * (MAX_GRADE + 1) + grade;
+    }
+
+    //Kurzform eines Abstands für die Anzeige über den Buttons, z.B. "10min", "5h", "25d", "4m" oder "2y".
+    static String formatInterval(long millis) {
+
+        double minutes = millis / 60_000.0;
+        if (minutes < 60) {
+            return Math.round(minutes) + "min";
+        }
+        double hours = minutes / 60;
+        if (hours < 24) {
+            return Math.round(hours) + "h";
+        }
+        double days = hours / 24;
+        if (days < 30) {
+            return Math.round(days) + "d";
+        }
+        if (days < 365) {
+            return Math.round(days / 30.44) + "m";
+        }
+        return Math.round(days / 365.25) + "y";
+    }
+}
@@ -0,0 +1,64 @@
+package Model;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Level;
+
+//Hält das aktuelle Verfahren zum Planen der Abfragen (Model.Scheduler). Beim Start wird es über die
+//Systemeigenschaft "flashcards.scheduler" gewählt (ladder, sm2 oder fsrs, Standard ladder).
+//Wird es mit switchTo() gewechselt, werden alle Stapel neu geplant.
+public class SchedulerService {
+
+    private static SchedulerService instance;
+
+    private volatile Scheduler scheduler = forName(System.getProperty("flashcards.scheduler", "ladder"));
+
+    private SchedulerService() {
+    }
+
+    public static synchronized SchedulerService getInstance() {
+
+        if (instance == null) {
+            instance = new SchedulerService();
+        }
+        return instance;
+    }
+
+    public Scheduler getScheduler() {
+        return scheduler;
+    }
+
+    //Unbekannte Namen ergeben das bisherige Verfahren
+    public static Scheduler forName(String name) {
+
+        switch (name.toLowerCase()) {
+            case "sm2":
+                return new Sm2Scheduler();
+            case "fsrs":
+                return new FsrsScheduler();
+            case "ladder":
+                return new LadderScheduler();
+            default:
+                LogHelper.writeToLog(Level.INFO, "Unbekanntes Verfahren " + name + ", benutze ladder.");
+                return new LadderScheduler();
+        }
+    }
+
+    //Wechselt das Verfahren (oder nur dessen Parameter) und plant alle Stapel im Hintergrund neu.
+    //Gibt die Anzahl der neu geplanten Karten zurück.
+    public CompletableFuture<Integer> switchTo(Scheduler newScheduler) {
+
+        Scheduler oldScheduler;
+        synchronized (this) {
+            oldScheduler = scheduler;
+            scheduler = newScheduler;
+        }
+        return PersistenceService.getInstance().submit(() -> {
+            long start = System.nanoTime();
+            int cards = DeckRepository.getInstance().rescheduleAll(oldScheduler, newScheduler);
+            LogHelper.writeToLog(Level.INFO, () -> "Verfahren von " + oldScheduler.getName() + " zu "
+                    + newScheduler.getName() + " gewechselt, " + cards + " Karten in "
+                    + (System.nanoTime() - start) / 1_000_000 + " ms neu geplant.");
+            return cards;
+        });
+    }
+}
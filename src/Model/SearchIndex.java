@@ -0,0 +1,590 @@
+package Model;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.logging.Level;
+
+//Volltextsuche über Vorder- und Rückseiten aller Stapel eines Benutzers. Pro Stapel gibt es einen invertierten
+//Index: für jedes Wort die sortierten Ids der Karten, die es enthalten. Wörter werden klein geschrieben und ohne
+//Akzente abgelegt ("Über" -> "uber"). Das zuletzt getippte Wort der Suche passt auf alle Wörter, die damit
+//anfangen, die übrigen müssen vollständig vorkommen.
+//
+//Der Index wird bei jeder Änderung über Model.DeckRepository mitgepflegt und beim Beenden als <Stapel>.search
+//neben den Stapeln gespeichert. Beim nächsten Start wird er nur dann neu aufgebaut, wenn er nicht mehr zum Stapel
+//passt (Laufnummer des Journals bzw. Dateigrößen wie im Model.DeckIndex).
+public class SearchIndex {
+
+    public static final String FILE_EXTENSION = ".search";
+
+    private static final int FILE_VERSION = 1;
+    private static final int WRITE_BUFFER_SIZE = 1 << 16;
+    //Längere Wörter werden gekürzt, die Suche nach dem Anfang findet sie trotzdem
+    private static final int MAX_TERM_LENGTH = 64;
+
+    private static SearchIndex instance;
+
+    //Treffer einer Suche
+    public static class Hit {
+
+        private final String deckName;
+        private final int cardId;
+
+        Hit(String deckName, int cardId) {
+            this.deckName = deckName;
+            this.cardId = cardId;
+        }
+
+        public String getDeckName() {
+            return deckName;
+        }
+
+        public int getCardId() {
+            return cardId;
+        }
+    }
+
+    //Index eines Stapels
+    static class DeckTerms {
+
+        private final NavigableMap<String, Postings> terms = new TreeMap<>();
+        //Laufnummer des Journals, zu der der Index passt
+        private long journalSequence;
+        //Dateigrößen beim Speichern, siehe DeckHeader.matches()
+        private long deckFileSize;
+        private long deckLastModified;
+        private long journalSize;
+        private boolean isDirty;
+
+        private void add(Flashcard card) {
+            add(card.getFront(), card.getId());
+            add(card.getBack(), card.getId());
+        }
+
+        private void add(String text, int id) {
+            for (String term : tokenize(text)) {
+                terms.computeIfAbsent(term, key -> new Postings()).add(id);
+            }
+        }
+
+        private void remove(String front, String back, int id) {
+            remove(front, id);
+            remove(back, id);
+        }
+
+        private void remove(String text, int id) {
+
+            for (String term : tokenize(text)) {
+                Postings postings = terms.get(term);
+                if (postings != null && postings.remove(id) && postings.size == 0) {
+                    terms.remove(term);
+                }
+            }
+        }
+
+        //Jedes Wort der Suche muss in der Karte vorkommen, das letzte Wort auch nur als Anfang eines Wortes
+        //(isPrefix). Begonnen wird mit dem seltensten Wort; bei wenigen Treffern werden die übrigen Wörter per
+        //binärer Suche in deren Listen geprüft, statt alle Ids der häufigen Wörter einzusammeln.
+        private void search(List<String> queryTerms, boolean isPrefix, String deckName, List<Hit> hits,
+                            int limit) {
+
+            List<Collection<Postings>> matches = new ArrayList<>();
+            List<Long> counts = new ArrayList<>();
+            for (int i = 0; i < queryTerms.size(); i++) {
+                String queryTerm = queryTerms.get(i);
+                Collection<Postings> termMatches;
+                if (isPrefix && i == queryTerms.size() - 1) {
+                    termMatches = terms.subMap(queryTerm, true, queryTerm + Character.MAX_VALUE, true).values();
+                } else {
+                    Postings postings = terms.get(queryTerm);
+                    termMatches = postings == null ? Collections.emptyList() : Collections.singletonList(postings);
+                }
+                long count = 0;
+                for (Postings postings : termMatches) {
+                    count += postings.size;
+                }
+                if (count == 0) {
+                    return;
+                }
+                int position = 0;
+                while (position < counts.size() && counts.get(position) <= count) {
+                    position++;
+                }
+                matches.add(position, termMatches);
+                counts.add(position, count);
+            }
+
+            if (matches.size() == 1 && matches.get(0).size() == 1) {
+                //Nur eine Liste, die Ids sind schon sortiert
+                Postings postings = matches.get(0).iterator().next();
+                for (int i = 0; i < postings.size && hits.size() < limit; i++) {
+                    hits.add(new Hit(deckName, postings.ids[i]));
+                }
+                return;
+            }
+
+            BitSet result = collect(matches.get(0));
+            for (int i = 1; i < matches.size() && !result.isEmpty(); i++) {
+                Collection<Postings> termMatches = matches.get(i);
+                //Binäre Suche pro Kandidat und Liste gegen einmal alle Ids einsammeln
+                long searchCost = (long) result.cardinality() * termMatches.size()
+                        * (64 - Long.numberOfLeadingZeros(counts.get(i) / termMatches.size()));
+                if (searchCost < counts.get(i)) {
+                    for (int id = result.nextSetBit(0); id >= 0; id = result.nextSetBit(id + 1)) {
+                        if (!contains(termMatches, id)) {
+                            result.clear(id);
+                        }
+                    }
+                } else {
+                    result.and(collect(termMatches));
+                }
+            }
+            for (int id = result.nextSetBit(0); id >= 0 && hits.size() < limit; id = result.nextSetBit(id + 1)) {
+                hits.add(new Hit(deckName, id));
+            }
+        }
+
+        private static BitSet collect(Collection<Postings> termMatches) {
+
+            BitSet ids = new BitSet();
+            for (Postings postings : termMatches) {
+                for (int i = 0; i < postings.size; i++) {
+                    ids.set(postings.ids[i]);
+                }
+            }
+            return ids;
+        }
+
+        private static boolean contains(Collection<Postings> termMatches, int id) {
+
+            for (Postings postings : termMatches) {
+                if (Arrays.binarySearch(postings.ids, 0, postings.size, id) >= 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    //Sortierte Ids der Karten zu einem Wort. Neue Karten bekommen die größte Id und werden hinten angehängt.
+    private static class Postings {
+
+        private int[] ids = new int[2];
+        private int size;
+
+        private void add(int id) {
+
+            int position = size;
+            if (size > 0 && ids[size - 1] >= id) {
+                position = Arrays.binarySearch(ids, 0, size, id);
+                if (position >= 0) {
+                    return;
+                }
+                position = -position - 1;
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, position, ids, position + 1, size - position);
+            ids[position] = id;
+            size++;
+        }
+
+        private boolean remove(int id) {
+
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position < 0) {
+                return false;
+            }
+            System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+            size--;
+            return true;
+        }
+    }
+
+    private final Map<String, DeckTerms> decks = new HashMap<>();
+    //Stapel, deren gespeicherter Index nicht mehr verwendet werden darf (z.B. nach dem kompletten Speichern)
+    private final Set<String> outdated = new HashSet<>();
+    //Anzahl der ersetzten bzw. gelöschten Stapel, siehe publish()
+    private long replacements;
+
+    private SearchIndex() {
+    }
+
+    public static synchronized SearchIndex getInstance() {
+
+        if (instance == null) {
+            instance = new SearchIndex();
+        }
+        return instance;
+    }
+
+    //Sucht in allen Stapeln des Benutzers und gibt höchstens limit Treffer zurück. Fehlende Indizes werden von
+    //der Festplatte gelesen oder aus den Karten aufgebaut, also nicht auf dem JavaFX-Thread aufrufen.
+    public List<Hit> search(String owner, String query, int limit) {
+
+        List<String> queryTerms = tokenize(query);
+        List<Hit> hits = new ArrayList<>();
+        if (queryTerms.isEmpty()) {
+            return hits;
+        }
+        //Endet die Suche mit einem Leerzeichen o.ä., ist auch das letzte Wort fertig getippt
+        boolean isPrefix = Character.isLetterOrDigit(query.charAt(query.length() - 1));
+
+        DeckRepository repository = DeckRepository.getInstance();
+        for (DeckHeader header : repository.getHeadersOfOwner(owner)) {
+            DeckTerms deckTerms = getDeckTerms(repository, header.getName());
+            if (deckTerms != null) {
+                synchronized (this) {
+                    deckTerms.search(queryTerms, isPrefix, header.getName(), hits, limit);
+                }
+            }
+            if (hits.size() >= limit) {
+                break;
+            }
+        }
+        return hits;
+    }
+
+    //Zerlegt einen Text in Wörter aus Buchstaben und Ziffern, klein geschrieben und ohne Akzente.
+    public static List<String> tokenize(String text) {
+
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return terms;
+        }
+        String folded = fold(text);
+        int start = -1;
+        for (int i = 0; i <= folded.length(); i++) {
+            boolean isWordChar = i < folded.length() && Character.isLetterOrDigit(folded.charAt(i));
+            if (isWordChar && start < 0) {
+                start = i;
+            } else if (!isWordChar && start >= 0) {
+                terms.add(folded.substring(start, Math.min(i, start + MAX_TERM_LENGTH)));
+                start = -1;
+            }
+        }
+        return terms;
+    }
+
+    //Entfernt Akzente (é -> e, ü -> u) und schreibt alles klein. Reiner ASCII-Text wird nicht normalisiert.
+    static String fold(String text) {
+
+        boolean isAscii = true;
+        for (int i = 0; i < text.length() && isAscii; i++) {
+            isAscii = text.charAt(i) < 0x80;
+        }
+        if (!isAscii) {
+            String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+            StringBuilder builder = new StringBuilder(decomposed.length());
+            for (int i = 0; i < decomposed.length(); i++) {
+                char c = decomposed.charAt(i);
+                if (c == 'ß') {
+                    builder.append("ss");
+                } else if (Character.getType(c) != Character.NON_SPACING_MARK) {
+                    builder.append(c);
+                }
+            }
+            text = builder.toString();
+        }
+        return text.toLowerCase(Locale.ROOT);
+    }
+
+    private DeckTerms getDeckTerms(DeckRepository repository, String name) {
+
+        synchronized (this) {
+            DeckTerms deckTerms = decks.get(name);
+            if (deckTerms != null) {
+                return deckTerms;
+            }
+        }
+        //Gelesen wird außerhalb der Sperren, geprüft und übernommen unter der Sperre des Stapels im Model.DeckRepository
+        DeckTerms stored = read(getFile(name));
+        DeckTerms deckTerms = repository.getSearchTerms(name, stored);
+        if (deckTerms == null) {
+            //Der Index passt nicht mehr und muss aus den Karten aufgebaut werden
+            if (repository.getDeck(name) == null) {
+                return null;
+            }
+            deckTerms = repository.getSearchTerms(name, null);
+        }
+        return deckTerms;
+    }
+
+    //Übernimmt den gelesenen Index stored, falls er zum Stapel passt, sonst wird der Index aus den Karten des
+    //geladenen Stapels aufgebaut. null, falls der Stapel dafür erst geladen werden muss.
+    //Wird vom Model.DeckRepository unter der Lesesperre des Stapels aufgerufen, die Karten ändern sich also nicht.
+    //Prüfen und Aufbauen laufen außerhalb der Sperre des Suchindex, übernommen wird nur kurz unter der Sperre.
+    DeckTerms install(String name, Deck loadedDeck, DeckTerms stored) {
+
+        boolean isOutdated;
+        long replacementsBefore;
+        synchronized (this) {
+            DeckTerms deckTerms = decks.get(name);
+            if (deckTerms != null) {
+                return deckTerms;
+            }
+            isOutdated = outdated.contains(name);
+            replacementsBefore = replacements;
+        }
+
+        if (stored != null && !isOutdated) {
+            boolean isValid;
+            if (loadedDeck != null) {
+                isValid = stored.journalSequence == loadedDeck.getJournalSequence();
+            } else {
+                Path directory = new Helper().getFlashcardsDirectory();
+                File deckFile = Paths.get(directory.toString(), name + ".txt").toFile();
+                File journalFile = DeckJournal.forDeck(directory, name).getJournalFile().toFile();
+                isValid = deckFile.length() == stored.deckFileSize && deckFile.lastModified() == stored.deckLastModified
+                        && journalFile.length() == stored.journalSize;
+            }
+            if (isValid) {
+                return publish(name, stored, replacementsBefore);
+            }
+        }
+        if (loadedDeck == null) {
+            return null;
+        }
+
+        long start = System.nanoTime();
+        DeckTerms deckTerms = new DeckTerms();
+        for (Flashcard card : loadedDeck.getCards()) {
+            deckTerms.add(card);
+        }
+        deckTerms.journalSequence = loadedDeck.getJournalSequence();
+        deckTerms.isDirty = true;
+        LogHelper.writeToLog(Level.INFO, () -> "Suchindex für " + name + " mit " + loadedDeck.getLength()
+                + " Karten in " + (System.nanoTime() - start) / 1_000_000 + " ms aufgebaut.");
+        return publish(name, deckTerms, replacementsBefore);
+    }
+
+    //Hat ein anderer Thread den Index inzwischen übernommen, gilt dessen. Wurde der Stapel währenddessen ersetzt
+    //(DeckRepository.invalidate() ohne Sperre des Stapels), wird der Index nur für diese Suche benutzt.
+    private synchronized DeckTerms publish(String name, DeckTerms deckTerms, long replacementsBefore) {
+
+        DeckTerms installed = decks.get(name);
+        if (installed != null) {
+            return installed;
+        }
+        if (replacements != replacementsBefore) {
+            return deckTerms;
+        }
+        decks.put(name, deckTerms);
+        outdated.remove(name);
+        return deckTerms;
+    }
+
+    //Die folgenden Methoden werden vom Model.DeckRepository nach jeder Änderung unter der Sperre des Stapels
+    //aufgerufen, für verschiedene Stapel also auch gleichzeitig.
+    //Ist der Index eines Stapels gerade nicht im Speicher, wird sein gespeicherter Index verworfen und beim
+    //nächsten Suchen neu aufgebaut.
+
+    synchronized void cardAdded(Deck deck, Flashcard card) {
+
+        DeckTerms deckTerms = decks.get(deck.getName());
+        if (deckTerms != null) {
+            deckTerms.add(card);
+            changed(deck, deckTerms);
+        } else {
+            outdated.add(deck.getName());
+        }
+    }
+
+    synchronized void cardEdited(Deck deck, String oldFront, String oldBack, Flashcard card) {
+
+        DeckTerms deckTerms = decks.get(deck.getName());
+        if (deckTerms != null) {
+            deckTerms.remove(oldFront, oldBack, card.getId());
+            deckTerms.add(card);
+            changed(deck, deckTerms);
+        } else {
+            outdated.add(deck.getName());
+        }
+    }
+
+    synchronized void cardRemoved(Deck deck, Flashcard card) {
+
+        DeckTerms deckTerms = decks.get(deck.getName());
+        if (deckTerms != null) {
+            deckTerms.remove(card.getFront(), card.getBack(), card.getId());
+            changed(deck, deckTerms);
+        } else {
+            outdated.add(deck.getName());
+        }
+    }
+
+    //Abfragen ändern keinen Text, nur die Laufnummer des Journals
+    synchronized void cardReviewed(Deck deck) {
+
+        DeckTerms deckTerms = decks.get(deck.getName());
+        if (deckTerms != null) {
+            changed(deck, deckTerms);
+        } else {
+            outdated.add(deck.getName());
+        }
+    }
+
+    //Der Stapel wurde komplett ersetzt oder von außen geändert, der Index wird beim nächsten Suchen neu aufgebaut.
+    synchronized void deckReplaced(String name) {
+        decks.remove(name);
+        outdated.add(name);
+        replacements++;
+    }
+
+    synchronized void deckRemoved(String name) {
+
+        decks.remove(name);
+        outdated.remove(name);
+        replacements++;
+        try {
+            Files.deleteIfExists(getFile(name));
+        } catch (IOException ex) {
+            LogHelper.writeToLog(Level.INFO, "Fehler beim Löschen des Suchindex von " + name + ": " + ex);
+        }
+    }
+
+    //Speichert alle geänderten Indizes. Wird vom Model.DeckRepository beim Beenden aufgerufen, nachdem alle
+    //Stapel und Journaleinträge geschrieben wurden, damit die Dateigrößen zum Index passen.
+    synchronized void save() {
+
+        Path directory = new Helper().getFlashcardsDirectory();
+        for (Map.Entry<String, DeckTerms> entry : decks.entrySet()) {
+            DeckTerms deckTerms = entry.getValue();
+            if (!deckTerms.isDirty) {
+                continue;
+            }
+            File deckFile = Paths.get(directory.toString(), entry.getKey() + ".txt").toFile();
+            deckTerms.deckFileSize = deckFile.length();
+            deckTerms.deckLastModified = deckFile.lastModified();
+            deckTerms.journalSize = DeckJournal.forDeck(directory, entry.getKey()).getJournalFile().toFile().length();
+            try {
+                DeckWriter.getInstance().writeAtomically(getFile(entry.getKey()), tempFile -> write(deckTerms, tempFile));
+                deckTerms.isDirty = false;
+                outdated.remove(entry.getKey());
+            } catch (IOException ex) {
+                LogHelper.writeToLog(Level.INFO, "Fehler beim Speichern des Suchindex von " + entry.getKey() + ": "
+                        + ex);
+            }
+        }
+    }
+
+    private void changed(Deck deck, DeckTerms deckTerms) {
+        deckTerms.journalSequence = deck.getJournalSequence();
+        deckTerms.isDirty = true;
+    }
+
+    //Aufbau der Datei: int Version, long Laufnummer, long Größe und Änderungsdatum der Stapeldatei,
+    //long Größe des Journals, int Anzahl Wörter, danach pro Wort die Länge und der Text in UTF-8, die Anzahl Ids
+    //und die Ids als Abstand zur vorherigen Id. Anzahl und Abstände werden mit 7 Bit pro Byte geschrieben,
+    //da die meisten Wörter nur in wenigen Karten vorkommen.
+    private static void write(DeckTerms deckTerms, Path file) throws IOException {
+
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file),
+                WRITE_BUFFER_SIZE))) {
+            output.writeInt(FILE_VERSION);
+            output.writeLong(deckTerms.journalSequence);
+            output.writeLong(deckTerms.deckFileSize);
+            output.writeLong(deckTerms.deckLastModified);
+            output.writeLong(deckTerms.journalSize);
+            output.writeInt(deckTerms.terms.size());
+            for (Map.Entry<String, Postings> entry : deckTerms.terms.entrySet()) {
+                byte[] term = entry.getKey().getBytes(StandardCharsets.UTF_8);
+                Postings postings = entry.getValue();
+                writeVarInt(output, term.length);
+                output.write(term);
+                writeVarInt(output, postings.size);
+                int previous = 0;
+                for (int i = 0; i < postings.size; i++) {
+                    writeVarInt(output, postings.ids[i] - previous);
+                    previous = postings.ids[i];
+                }
+            }
+        }
+    }
+
+    //Gibt null zurück, wenn der Index fehlt oder nicht lesbar ist. Die Datei wird in einem Stück gelesen, da sie
+    //aus sehr vielen kleinen Feldern besteht.
+    private static DeckTerms read(Path file) {
+
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try {
+            ByteBuffer input = ByteBuffer.wrap(Files.readAllBytes(file));
+            if (input.getInt() != FILE_VERSION) {
+                return null;
+            }
+            DeckTerms deckTerms = new DeckTerms();
+            deckTerms.journalSequence = input.getLong();
+            deckTerms.deckFileSize = input.getLong();
+            deckTerms.deckLastModified = input.getLong();
+            deckTerms.journalSize = input.getLong();
+            int termCount = input.getInt();
+            for (int t = 0; t < termCount; t++) {
+                int length = readVarInt(input);
+                String term = new String(input.array(), input.position(), length, StandardCharsets.UTF_8);
+                input.position(input.position() + length);
+                Postings postings = new Postings();
+                postings.size = readVarInt(input);
+                postings.ids = new int[Math.max(2, postings.size)];
+                int previous = 0;
+                for (int i = 0; i < postings.size; i++) {
+                    previous += readVarInt(input);
+                    postings.ids[i] = previous;
+                }
+                deckTerms.terms.put(term, postings);
+            }
+            return deckTerms;
+
+        } catch (IOException | RuntimeException ex) {
+            LogHelper.writeToLog(Level.INFO, "Suchindex " + file + " konnte nicht gelesen werden: " + ex);
+            return null;
+        }
+    }
+
+    private static void writeVarInt(DataOutputStream output, int value) throws IOException {
+
+        while ((value & ~0x7F) != 0) {
+            output.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        output.write(value);
+    }
+
+    private static int readVarInt(ByteBuffer input) {
+
+        int value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = input.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+
+    private static Path getFile(String name) {
+        return Paths.get(new Helper().getFlashcardsDirectory().toString(), name + FILE_EXTENSION);
+    }
+}
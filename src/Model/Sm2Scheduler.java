@@ -0,0 +1,77 @@
+package Model;
+
+//SuperMemo 2 (https://super-memory.com/english/ol/sm2.htm). Das Level entspricht der Anzahl der richtigen
+//Wiederholungen in Folge: 1 Tag, 6 Tage, danach jeweils mal Leichtigkeitsfaktor (EF).
+//Da pro Karte kein eigener EF gespeichert wird, wird er aus dem Start-EF und der letzten Bewertung berechnet.
+//"Sehr schwer" gilt als nicht gewusst, die Karte fängt dann wieder bei Level 0 (10 Minuten) an.
+public class Sm2Scheduler implements Scheduler {
+
+    private static final long TEN_MINUTES_IN_MILLIS = 600000L;
+    private static final long ONE_DAY_IN_MILLIS = 86400000L;
+    //SM-2 begrenzt den EF nach unten
+    private static final double MIN_EASE_FACTOR = 1.3;
+
+    private final double easeFactor;
+    private final long[] intervals = new long[(MAX_LEVEL + 1) * (MAX_GRADE + 1)];
+
+    public Sm2Scheduler() {
+        this(2.5);
+    }
+
+    public Sm2Scheduler(double easeFactor) {
+
+        this.easeFactor = easeFactor;
+        for (int level = 0; level <= MAX_LEVEL; level++) {
+            for (int grade = 0; grade <= MAX_GRADE; grade++) {
+                intervals[level * (MAX_GRADE + 1) + grade] = computeInterval(level, grade);
+            }
+        }
+    }
+
+    public double getEaseFactor() {
+        return easeFactor;
+    }
+
+    @Override
+    public String getName() {
+        return "sm2";
+    }
+
+    @Override
+    public int nextLevel(int level, int grade) {
+
+        if (grade == 0) {
+            return Math.min(level, MAX_LEVEL);
+        }
+        return getQuality(grade) < 3 ? 0 : Math.min(level + 1, MAX_LEVEL);
+    }
+
+    @Override
+    public long getInterval(int level, int grade) {
+        return intervals[Scheduler.getShiftIndex(level, grade)];
+    }
+
+    private long computeInterval(int level, int grade) {
+
+        if (level == 0) {
+            return TEN_MINUTES_IN_MILLIS;
+        }
+        if (level == 1) {
+            return ONE_DAY_IN_MILLIS;
+        }
+        double days = 6 * Math.pow(getEaseFactor(grade), level - 2);
+        return Math.round(days * ONE_DAY_IN_MILLIS);
+    }
+
+    //EF' = EF + (0,1 - (5 - q) * (0,08 + (5 - q) * 0,02))
+    private double getEaseFactor(int grade) {
+
+        int difference = 5 - getQuality(grade);
+        return Math.max(MIN_EASE_FACTOR, easeFactor + 0.1 - difference * (0.08 + difference * 0.02));
+    }
+
+    //Qualität der Antwort in SM-2 (0 - 5): leicht = 5, OK = 4, schwer = 3, sehr schwer = 2
+    private static int getQuality(int grade) {
+        return grade == 0 ? 4 : 6 - grade;
+    }
+}
@@ -0,0 +1,56 @@
+package Model;
+
+import javafx.application.Platform;
+import javafx.scene.Scene;
+
+import java.time.Instant;
+import java.util.logging.Level;
+
+//Misst die Startzeit des Programms bis zum ersten angezeigten Bild (time-to-first-frame), ab dem Start der JVM.
+//Mit -Dflashcards.exitAfterFirstFrame=true wird die Zeit als "FIRST_FRAME_MILLIS=..." ausgegeben und das
+//Programm danach beendet, so misst Benchmark.StartupBenchmark den Start von außen.
+public final class StartupTimer {
+
+    public static final String OUTPUT_PREFIX = "FIRST_FRAME_MILLIS=";
+
+    //Falls der Startzeitpunkt des Prozesses nicht bekannt ist, zählt das Laden dieser Klasse
+    private static final long CLASS_LOAD_MILLIS = System.currentTimeMillis();
+
+    private static volatile long firstFrameMillis = -1;
+
+    private StartupTimer() {
+    }
+
+    //Millisekunden vom Start der JVM bis zum ersten Bild, -1 solange es noch nicht angezeigt wurde
+    public static long getFirstFrameMillis() {
+        return firstFrameMillis;
+    }
+
+    //Vor stage.show() aufrufen. Gemessen wird nach dem Layout des ersten Durchgangs der Szene; gezeichnet wird
+    //im selben Durchgang direkt danach.
+    public static void recordFirstFrame(Scene scene) {
+
+        Runnable listener = new Runnable() {
+            @Override
+            public void run() {
+
+                if (firstFrameMillis >= 0) {
+                    return;
+                }
+                //Nicht direkt entfernen, die Szene geht gerade über ihre Liste der Listener
+                Platform.runLater(() -> scene.removePostLayoutPulseListener(this));
+                firstFrameMillis = System.currentTimeMillis() - getProcessStartMillis();
+                LogHelper.writeToLog(Level.INFO, "Erstes Bild nach " + firstFrameMillis + " ms angezeigt.");
+                if (Boolean.getBoolean("flashcards.exitAfterFirstFrame")) {
+                    System.out.println(OUTPUT_PREFIX + firstFrameMillis);
+                    Platform.exit();
+                }
+            }
+        };
+        scene.addPostLayoutPulseListener(listener);
+    }
+
+    private static long getProcessStartMillis() {
+        return ProcessHandle.current().info().startInstant().map(Instant::toEpochMilli).orElse(CLASS_LOAD_MILLIS);
+    }
+}
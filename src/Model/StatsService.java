@@ -0,0 +1,395 @@
+package Model;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.logging.Level;
+
+//Statistik pro Stapel, die bei jeder Änderung über Model.DeckRepository mitgezählt wird, statt sie beim Öffnen des
+//Statistikfensters aus allen Karten neu zu berechnen: Anzahl Karten, Karten pro Level und Abfragedaten. Die
+//Abfragen pro Tag kommen aus den Tagessummen des Model.ReviewLog. Die Statistik eines Benutzers ist die Summe über
+//seine Stapel (siehe getUserStats()).
+//
+//Gespeichert wird alles beim Beenden in STATS_FILE_NAME. Wie beim Model.DeckIndex werden Größe und
+//Änderungsdatum der Stapeldatei und des Journals mitgespeichert; passen sie beim nächsten Start nicht mehr, werden
+//die Zähler des Stapels beim nächsten Abruf aus den Karten neu berechnet.
+//Eingelesen wird die Datei beim Start auf dem Thread des Model.PersistenceService (siehe load()). Änderungen davor
+//werden nicht gezählt, die Zähler des Stapels gelten dann nur als veraltet; so greift keine Änderung unter der
+//Sperre eines Stapels auf die Festplatte zu.
+public class StatsService {
+
+    public static final String STATS_FILE_NAME = "Statistics.idx";
+
+    private static final int FILE_VERSION = 2;
+    private static final int WRITE_BUFFER_SIZE = 1 << 16;
+    //Abfragedaten werden in Abschnitten dieser Länge gezählt, so genau sind "fällig jetzt" und "fällig heute".
+    //10 Minuten ist auch der kürzeste Abstand aller Verfahren (siehe Model.Scheduler).
+    private static final long BUCKET_MILLIS = 10 * 60 * 1000L;
+    private static final int REVIEW_DAYS = 30;
+
+    private static StatsService instance;
+
+    //Zähler eines Stapels
+    static class DeckStats {
+
+        private int cardCount;
+        private final int[] levels = new int[Scheduler.MAX_LEVEL + 1];
+        //Karten mit Abfragedatum vor foldedUntil werden nur noch als overdue gezählt, spätere pro Abschnitt.
+        //Vergangene Abschnitte werden beim Abfragen in overdue übernommen, dadurch bleibt countDue() billig.
+        private long foldedUntil;
+        private int overdue;
+        private final NavigableMap<Long, Integer> dueBuckets = new TreeMap<>();
+        private boolean hasValidCounters;
+        private long deckFileSize;
+        private long deckLastModified;
+        private long journalSize;
+
+        private void add(int level, long repetitionTime) {
+
+            cardCount++;
+            levels[clampLevel(level)]++;
+            if (repetitionTime < foldedUntil) {
+                overdue++;
+            } else {
+                dueBuckets.merge(Math.floorDiv(repetitionTime, BUCKET_MILLIS), 1, Integer::sum);
+            }
+        }
+
+        private void remove(int level, long repetitionTime) {
+
+            cardCount--;
+            levels[clampLevel(level)]--;
+            if (repetitionTime < foldedUntil) {
+                overdue--;
+            } else {
+                dueBuckets.computeIfPresent(Math.floorDiv(repetitionTime, BUCKET_MILLIS),
+                        (bucket, count) -> count > 1 ? count - 1 : null);
+            }
+        }
+
+        //Karten, die bis now fällig sind; genau bis auf einen Abschnitt.
+        private int countDue(long now) {
+
+            long bucket = Math.floorDiv(now, BUCKET_MILLIS);
+            Map.Entry<Long, Integer> first;
+            while ((first = dueBuckets.firstEntry()) != null && first.getKey() < bucket) {
+                overdue += first.getValue();
+                dueBuckets.pollFirstEntry();
+            }
+            foldedUntil = Math.max(foldedUntil, bucket * BUCKET_MILLIS);
+            return overdue;
+        }
+
+        //Karten, die bis time fällig sind; time liegt in der Zukunft, z.B. Ende des Tages.
+        private int countDueBefore(long now, long time) {
+
+            int due = countDue(now);
+            for (int count : dueBuckets.headMap(Math.floorDiv(time, BUCKET_MILLIS), false).values()) {
+                due += count;
+            }
+            return due;
+        }
+
+        private void clearCounters() {
+
+            cardCount = 0;
+            Arrays.fill(levels, 0);
+            foldedUntil = 0;
+            overdue = 0;
+            dueBuckets.clear();
+        }
+    }
+
+    private final Map<String, DeckStats> decks = new HashMap<>();
+    //Stapel, die vor dem Einlesen gelöscht wurden und nicht aus der Datei übernommen werden dürfen
+    private final Set<String> removedBeforeLoad = new HashSet<>();
+    private boolean isLoaded;
+
+    private StatsService() {
+    }
+
+    public static synchronized StatsService getInstance() {
+
+        if (instance == null) {
+            instance = new StatsService();
+        }
+        return instance;
+    }
+
+    //Summe der Statistik aller Stapel des Benutzers. Sind die Zähler eines Stapels veraltet, wird er eingelesen,
+    //also nicht auf dem JavaFX-Thread aufrufen. Sonst hängt die Laufzeit nur von der Anzahl der Stapel ab.
+    public UserStats getUserStats(String user) {
+
+        load();
+        DeckRepository repository = DeckRepository.getInstance();
+        long now = System.currentTimeMillis();
+        ZoneId zone = ZoneId.systemDefault();
+        long endOfToday = LocalDate.now(zone).plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+        long firstDay = LocalDate.now(zone).minusDays(REVIEW_DAYS - 1).atStartOfDay(zone).toInstant().toEpochMilli();
+        long today = LocalDate.now(zone).toEpochDay();
+
+        UserStats stats = new UserStats(user);
+        int[] reviewsPerDay = new int[REVIEW_DAYS];
+        long recalled = 0;
+        long lapsed = 0;
+        for (DeckHeader header : repository.getHeadersOfOwner(user)) {
+            //Passen die Zähler nicht, wird der Stapel eingelesen und neu gezählt
+            if (!repository.countStats(header.getName())
+                    && (repository.getDeck(header.getName()) == null || !repository.countStats(header.getName()))) {
+                continue;
+            }
+            synchronized (this) {
+                DeckStats deckStats = decks.get(header.getName());
+                if (deckStats == null || !deckStats.hasValidCounters) {
+                    //Inzwischen wieder verworfen, wird beim nächsten Öffnen neu gezählt
+                    continue;
+                }
+                stats.add(deckStats.cardCount, deckStats.countDue(now), deckStats.countDueBefore(now, endOfToday),
+                        deckStats.levels);
+            }
+            //Tagessummen statt einzelner Antworten, also höchstens REVIEW_DAYS Einträge pro Stapel
+            for (ReviewLog.Rollup day : repository.getReviewLog(header.getName())
+                    .getRollups(ReviewLog.Resolution.DAY, firstDay, endOfToday)) {
+                reviewsPerDay[(int) (today - toDay(day.getStart()))] += day.getReviews();
+                recalled += day.getRecalled();
+                lapsed += day.getLapsed();
+            }
+        }
+        stats.setReviewsPerDay(reviewsPerDay);
+        stats.setRetention(recalled + lapsed == 0 ? Double.NaN : (double) recalled / (recalled + lapsed));
+        return stats;
+    }
+
+    //Prüft, ob die Zähler des Stapels stimmen; sonst werden sie aus dem geladenen Stapel neu berechnet.
+    //Gibt false zurück, wenn der Stapel dafür erst geladen werden muss.
+    //Wird vom Model.DeckRepository unter der Sperre des Stapels aufgerufen.
+    synchronized boolean install(String name, Deck loadedDeck) {
+
+        DeckStats deckStats = getDeckStats(name);
+        if (deckStats.hasValidCounters) {
+            return true;
+        }
+        if (loadedDeck == null) {
+            return false;
+        }
+        count(deckStats, loadedDeck);
+        return true;
+    }
+
+    //Die folgenden Methoden werden vom Model.DeckRepository nach jeder Änderung unter der Sperre des Stapels
+    //aufgerufen, für verschiedene Stapel also auch gleichzeitig.
+
+    synchronized void cardAdded(Deck deck, Flashcard card) {
+
+        DeckStats deckStats = getDeckStats(deck.getName());
+        if (deckStats.hasValidCounters) {
+            deckStats.add(card.getLevel(), card.getRepetitionDate().getTime());
+        }
+    }
+
+    synchronized void cardRemoved(Deck deck, Flashcard card) {
+
+        DeckStats deckStats = getDeckStats(deck.getName());
+        if (deckStats.hasValidCounters) {
+            deckStats.remove(card.getLevel(), card.getRepetitionDate().getTime());
+        }
+    }
+
+    //oldLevel und oldTime sind Level und Abfragedatum vor dem Abfragen, card hat schon die neuen Werte.
+    synchronized void cardReviewed(Deck deck, int oldLevel, long oldTime, Flashcard card) {
+
+        DeckStats deckStats = getDeckStats(deck.getName());
+        if (deckStats.hasValidCounters) {
+            deckStats.remove(oldLevel, oldTime);
+            deckStats.add(card.getLevel(), card.getRepetitionDate().getTime());
+        }
+    }
+
+    //Der Stapel wurde komplett ersetzt, die Zähler werden aus den Karten neu berechnet.
+    synchronized void deckReplaced(Deck deck) {
+        count(getDeckStats(deck.getName()), deck);
+    }
+
+    //Der Stapel wurde von außen geändert, die Zähler werden beim nächsten Abruf neu berechnet.
+    synchronized void deckInvalidated(String name) {
+        getDeckStats(name).hasValidCounters = false;
+    }
+
+    synchronized void deckRemoved(String name) {
+
+        decks.remove(name);
+        if (!isLoaded) {
+            removedBeforeLoad.add(name);
+        }
+    }
+
+    //Speichert die Statistik aller Stapel. Wird vom Model.DeckRepository beim Beenden aufgerufen, nachdem alle
+    //Stapel und Journaleinträge geschrieben wurden, damit die Dateigrößen zu den Zählern passen.
+    synchronized void save() {
+
+        if (!isLoaded) {
+            return;
+        }
+        Path directory = new Helper().getFlashcardsDirectory();
+        for (Map.Entry<String, DeckStats> entry : decks.entrySet()) {
+            File deckFile = Paths.get(directory.toString(), entry.getKey() + ".txt").toFile();
+            entry.getValue().deckFileSize = deckFile.length();
+            entry.getValue().deckLastModified = deckFile.lastModified();
+            entry.getValue().journalSize = DeckJournal.forDeck(directory, entry.getKey()).getJournalFile().toFile()
+                    .length();
+        }
+        try {
+            DeckWriter.getInstance().writeAtomically(Paths.get(directory.toString(), STATS_FILE_NAME), this::write);
+        } catch (IOException ex) {
+            LogHelper.writeToLog(Level.INFO, "Fehler beim Speichern der Statistik: " + ex);
+        }
+    }
+
+    private void count(DeckStats deckStats, Deck deck) {
+
+        deckStats.clearCounters();
+        for (int i = 0; i < deck.getLength(); i++) {
+            deckStats.add(deck.getLevel(i), deck.getRepetitionTime(i));
+        }
+        deckStats.hasValidCounters = true;
+    }
+
+    //Vor dem Einlesen ist ein neuer Eintrag veraltet, bis er aus dem Stapel gezählt wird
+    private DeckStats getDeckStats(String name) {
+        return decks.computeIfAbsent(name, key -> new DeckStats());
+    }
+
+    private static int clampLevel(int level) {
+        return Math.max(0, Math.min(Scheduler.MAX_LEVEL, level));
+    }
+
+    private static long toDay(long time) {
+        return LocalDate.ofInstant(Instant.ofEpochMilli(time), ZoneId.systemDefault()).toEpochDay();
+    }
+
+    //Aufbau der Datei: int Version, int Anzahl Stapel, danach pro Stapel der Name, Größe und Änderungsdatum der
+    //Stapeldatei, Größe des Journals, Anzahl Karten, Karten pro Level, foldedUntil, overdue und die Abschnitte
+    //(Nummer, Anzahl).
+    private void write(Path file) throws IOException {
+
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file),
+                WRITE_BUFFER_SIZE))) {
+            output.writeInt(FILE_VERSION);
+            output.writeInt(decks.size());
+            for (Map.Entry<String, DeckStats> entry : decks.entrySet()) {
+                DeckStats deckStats = entry.getValue();
+                byte[] name = entry.getKey().getBytes(StandardCharsets.UTF_8);
+                output.writeInt(name.length);
+                output.write(name);
+                output.writeLong(deckStats.deckFileSize);
+                output.writeLong(deckStats.deckLastModified);
+                output.writeLong(deckStats.journalSize);
+                output.writeBoolean(deckStats.hasValidCounters);
+                output.writeInt(deckStats.cardCount);
+                for (int count : deckStats.levels) {
+                    output.writeInt(count);
+                }
+                output.writeLong(deckStats.foldedUntil);
+                output.writeInt(deckStats.overdue);
+                output.writeInt(deckStats.dueBuckets.size());
+                for (Map.Entry<Long, Integer> bucket : deckStats.dueBuckets.entrySet()) {
+                    output.writeLong(bucket.getKey());
+                    output.writeInt(bucket.getValue());
+                }
+            }
+        }
+    }
+
+    //Liest die Statistik aus STATS_FILE_NAME, falls das noch nicht passiert ist. Wird beim Start auf dem Thread des
+    //Model.PersistenceService aufgerufen (siehe Main) und vor jeder Abfrage in getUserStats(). Gelesen wird
+    //außerhalb der Sperre; Stapel, die vorher schon geändert, gezählt oder gelöscht wurden, werden nicht aus der
+    //Datei übernommen.
+    public void load() {
+
+        synchronized (this) {
+            if (isLoaded) {
+                return;
+            }
+        }
+        Map<String, DeckStats> loadedDecks = read();
+        synchronized (this) {
+            if (isLoaded) {
+                return;
+            }
+            for (Map.Entry<String, DeckStats> entry : loadedDecks.entrySet()) {
+                if (!removedBeforeLoad.contains(entry.getKey())) {
+                    decks.putIfAbsent(entry.getKey(), entry.getValue());
+                }
+            }
+            removedBeforeLoad.clear();
+            isLoaded = true;
+        }
+    }
+
+    //Ist die Datei nicht lesbar, wird alles neu gezählt.
+    private static Map<String, DeckStats> read() {
+
+        Map<String, DeckStats> decks = new HashMap<>();
+        Path directory = new Helper().getFlashcardsDirectory();
+        Path file = Paths.get(directory.toString(), STATS_FILE_NAME);
+        if (!Files.exists(file)) {
+            return decks;
+        }
+
+        try {
+            ByteBuffer input = ByteBuffer.wrap(Files.readAllBytes(file));
+            if (input.getInt() != FILE_VERSION) {
+                return decks;
+            }
+            int deckCount = input.getInt();
+            for (int d = 0; d < deckCount; d++) {
+                byte[] name = new byte[input.getInt()];
+                input.get(name);
+                DeckStats deckStats = new DeckStats();
+                deckStats.deckFileSize = input.getLong();
+                deckStats.deckLastModified = input.getLong();
+                deckStats.journalSize = input.getLong();
+                deckStats.hasValidCounters = input.get() != 0;
+                deckStats.cardCount = input.getInt();
+                for (int i = 0; i < deckStats.levels.length; i++) {
+                    deckStats.levels[i] = input.getInt();
+                }
+                deckStats.foldedUntil = input.getLong();
+                deckStats.overdue = input.getInt();
+                int bucketCount = input.getInt();
+                for (int i = 0; i < bucketCount; i++) {
+                    deckStats.dueBuckets.put(input.getLong(), input.getInt());
+                }
+
+                String deckName = new String(name, StandardCharsets.UTF_8);
+                File deckFile = Paths.get(directory.toString(), deckName + ".txt").toFile();
+                File journalFile = DeckJournal.forDeck(directory, deckName).getJournalFile().toFile();
+                deckStats.hasValidCounters &= deckFile.length() == deckStats.deckFileSize
+                        && deckFile.lastModified() == deckStats.deckLastModified
+                        && journalFile.length() == deckStats.journalSize;
+                decks.put(deckName, deckStats);
+            }
+
+        } catch (IOException | RuntimeException ex) {
+            LogHelper.writeToLog(Level.INFO, "Statistik konnte nicht gelesen werden und wird neu erstellt: " + ex);
+            decks.clear();
+        }
+        return decks;
+    }
+}
@@ -0,0 +1,247 @@
+package Model;
+
+import java.util.Arrays;
+
+//Speichert jeden Text nur einmal und vergibt dafür eine Nummer. Wird vom Model.ColumnarCardStore benutzt,
+//damit gleiche Texte (z.B. gleiche Rückseiten) nur einmal im Speicher liegen.
+//
+//Die Zeichen aller Texte liegen hintereinander in einem char[], gefunden werden sie über eine Hashtabelle aus
+//einem int[] (offene Adressierung). Pro Text kostet das rund 24 Bytes plus 2 Bytes pro Zeichen, statt eines
+//String-Objekts, eines Eintrags in einer HashMap und eines Integer.
+//Jeder Text zählt, wie oft er benutzt wird (intern() bzw. release()). Nicht mehr benutzte Texte werden
+//freigegeben, ihre Nummer wird wiederverwendet und der Platz im char[] beim Aufräumen zurückgewonnen.
+//
+//copy() teilt den Speicher mit der Kopie (copy-on-write): Vor der nächsten Änderung muss mutableCopy() eine
+//eigene Kopie anlegen, das übernimmt der Model.ColumnarCardStore.
+class StringPool {
+
+    private static final int MIN_CAPACITY = 16;
+    private static final int MIN_COMPACT_CHARS = 4096;
+    private static final int NO_ENTRY = -1;
+
+    private char[] chars;
+    private int charCount;
+    //Zeichen freigegebener Texte, die noch in chars liegen
+    private int garbageChars;
+
+    //Je Nummer: Anfang und Länge in chars, Hashwert und Anzahl der Benutzungen.
+    //Bei freien Nummern ist die Länge -1 und starts verweist auf die nächste freie Nummer.
+    private int[] starts;
+    private int[] lengths;
+    private int[] hashes;
+    private int[] references;
+    private int entryCount;
+    private int liveCount;
+    private int firstFree = NO_ENTRY;
+
+    //Nummer + 1, 0 = leer. Die Größe ist eine Zweierpotenz und höchstens zur Hälfte belegt.
+    private int[] table;
+
+    //Wird von copy() gesetzt und danach nicht mehr zurückgenommen
+    private volatile boolean shared;
+
+    StringPool() {
+
+        chars = new char[MIN_CAPACITY * 8];
+        starts = new int[MIN_CAPACITY];
+        lengths = new int[MIN_CAPACITY];
+        hashes = new int[MIN_CAPACITY];
+        references = new int[MIN_CAPACITY];
+        table = new int[MIN_CAPACITY * 2];
+    }
+
+    private StringPool(StringPool anotherPool) {
+
+        chars = Arrays.copyOf(anotherPool.chars, anotherPool.chars.length);
+        charCount = anotherPool.charCount;
+        garbageChars = anotherPool.garbageChars;
+        starts = anotherPool.starts.clone();
+        lengths = anotherPool.lengths.clone();
+        hashes = anotherPool.hashes.clone();
+        references = anotherPool.references.clone();
+        entryCount = anotherPool.entryCount;
+        liveCount = anotherPool.liveCount;
+        firstFree = anotherPool.firstFree;
+        table = anotherPool.table.clone();
+    }
+
+    //Gibt die Nummer des Texts zurück und zählt eine Benutzung mehr
+    int intern(String value) {
+
+        int index = indexOf(value);
+        if (index < 0) {
+            index = add(value);
+        }
+        references[index]++;
+        return index;
+    }
+
+    //Zählt eine Benutzung weniger. Wird der Text nicht mehr benutzt, wird er freigegeben.
+    void release(int index) {
+
+        if (--references[index] > 0) {
+            return;
+        }
+        removeFromTable(index);
+        garbageChars += lengths[index];
+        lengths[index] = -1;
+        starts[index] = firstFree;
+        firstFree = index;
+        liveCount--;
+        if (garbageChars > MIN_COMPACT_CHARS && garbageChars > charCount / 2) {
+            compact();
+        }
+    }
+
+    //-1, wenn der Text nicht vorhanden ist
+    int indexOf(String value) {
+
+        int hash = value.hashCode();
+        int mask = table.length - 1;
+        for (int position = spread(hash) & mask; table[position] != 0; position = (position + 1) & mask) {
+            int index = table[position] - 1;
+            if (hashes[index] == hash && equalsEntry(index, value)) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    String get(int index) {
+        return new String(chars, starts[index], lengths[index]);
+    }
+
+    //Anzahl der benutzten Texte
+    int size() {
+        return liveCount;
+    }
+
+    //Teilt den Speicher mit der Kopie. Beide dürfen danach erst nach mutableCopy() geändert werden.
+    StringPool copy() {
+
+        shared = true;
+        return this;
+    }
+
+    boolean isShared() {
+        return shared;
+    }
+
+    //Eigene, änderbare Kopie für einen geteilten Pool
+    StringPool mutableCopy() {
+        return new StringPool(this);
+    }
+
+    private int add(String value) {
+
+        int index;
+        if (firstFree != NO_ENTRY) {
+            index = firstFree;
+            firstFree = starts[index];
+        } else {
+            if (entryCount == starts.length) {
+                int capacity = starts.length * 2;
+                starts = Arrays.copyOf(starts, capacity);
+                lengths = Arrays.copyOf(lengths, capacity);
+                hashes = Arrays.copyOf(hashes, capacity);
+                references = Arrays.copyOf(references, capacity);
+            }
+            index = entryCount++;
+        }
+
+        int length = value.length();
+        if (charCount + length > chars.length) {
+            chars = Arrays.copyOf(chars, Math.max(charCount + length, chars.length * 2));
+        }
+        value.getChars(0, length, chars, charCount);
+        starts[index] = charCount;
+        lengths[index] = length;
+        hashes[index] = value.hashCode();
+        references[index] = 0;
+        charCount += length;
+        liveCount++;
+
+        if (liveCount * 2 > table.length) {
+            rehash(table.length * 2);
+        }
+        insertIntoTable(index);
+        return index;
+    }
+
+    private boolean equalsEntry(int index, String value) {
+
+        int length = lengths[index];
+        if (length != value.length()) {
+            return false;
+        }
+        int start = starts[index];
+        for (int i = 0; i < length; i++) {
+            if (chars[start + i] != value.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int spread(int hash) {
+
+        int spread = hash * 0x9E3779B9;
+        return spread ^ (spread >>> 16);
+    }
+
+    private void insertIntoTable(int index) {
+
+        int mask = table.length - 1;
+        int position = spread(hashes[index]) & mask;
+        while (table[position] != 0) {
+            position = (position + 1) & mask;
+        }
+        table[position] = index + 1;
+    }
+
+    //Lücke schließen, indem nachfolgende Einträge zurückrücken, damit die Suche an keiner Lücke zu früh endet
+    private void removeFromTable(int index) {
+
+        int mask = table.length - 1;
+        int position = spread(hashes[index]) & mask;
+        while (table[position] != index + 1) {
+            position = (position + 1) & mask;
+        }
+        table[position] = 0;
+        for (int next = (position + 1) & mask; table[next] != 0; next = (next + 1) & mask) {
+            int home = spread(hashes[table[next] - 1]) & mask;
+            if (((next - home) & mask) >= ((next - position) & mask)) {
+                table[position] = table[next];
+                table[next] = 0;
+                position = next;
+            }
+        }
+    }
+
+    private void rehash(int capacity) {
+
+        table = new int[capacity];
+        for (int index = 0; index < entryCount; index++) {
+            if (lengths[index] >= 0) {
+                insertIntoTable(index);
+            }
+        }
+    }
+
+    //Schreibt die benutzten Texte neu hintereinander, die Nummern bleiben gleich
+    private void compact() {
+
+        char[] compacted = new char[Math.max(MIN_CAPACITY * 8, (charCount - garbageChars) * 3 / 2)];
+        int count = 0;
+        for (int index = 0; index < entryCount; index++) {
+            if (lengths[index] >= 0) {
+                System.arraycopy(chars, starts[index], compacted, count, lengths[index]);
+                starts[index] = count;
+                count += lengths[index];
+            }
+        }
+        chars = compacted;
+        charCount = count;
+        garbageChars = 0;
+    }
+}
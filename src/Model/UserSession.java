@@ -0,0 +1,61 @@
+package Model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+//Zustand eines Benutzers: aktueller Stapel, aktuelle Karte und die zuletzt geladene Stapelliste. Jeder Benutzer
+//hat genau eine Sitzung (forUser()), mehrere Benutzer können so in einem Prozess gleichzeitig üben und Stapel
+//ändern, ohne sich gegenseitig die Stapelliste zu überschreiben. Die Stapel selbst liegen gemeinsam im
+//Model.DeckRepository, das jeden Stapel mit einer eigenen Sperre schützt.
+//
+//Die Felder werden von mehreren Threads gelesen und immer als Ganzes ersetzt, daher volatile statt Sperren.
+public class UserSession {
+
+    private static final Map<String, UserSession> sessions = new ConcurrentHashMap<>();
+    //Sitzung, solange noch kein Benutzer ausgewählt ist
+    private static final UserSession NO_USER = new UserSession(null);
+
+    private final String user;
+    private volatile String currentDeckName;
+    private volatile Flashcard currentFlashcard;
+    private volatile List<DeckHeader> deckHeaders = new ArrayList<>();
+
+    private UserSession(String user) {
+        this.user = user;
+    }
+
+    public static UserSession forUser(String user) {
+        return user == null ? NO_USER : sessions.computeIfAbsent(user, UserSession::new);
+    }
+
+    public String getUser() {
+        return user;
+    }
+
+    public String getCurrentDeckName() {
+        return currentDeckName;
+    }
+
+    public void setCurrentDeckName(String currentDeckName) {
+        this.currentDeckName = currentDeckName;
+    }
+
+    public Flashcard getCurrentFlashcard() {
+        return currentFlashcard;
+    }
+
+    public void setCurrentFlashcard(Flashcard currentFlashcard) {
+        this.currentFlashcard = currentFlashcard;
+    }
+
+    //Die Liste wird nie verändert, sondern nach jedem Laden ersetzt
+    public List<DeckHeader> getDeckHeaders() {
+        return deckHeaders;
+    }
+
+    void setDeckHeaders(List<DeckHeader> deckHeaders) {
+        this.deckHeaders = deckHeaders;
+    }
+}
@@ -2,14 +2,19 @@ package Model;
 
 import java.io.Serializable;
 
+//Statistik eines Benutzers über alle seine Stapel. Wird vom Model.StatsService aus den mitgezählten Werten der
+//Stapel zusammengesetzt, statt dafür die Stapel einzulesen.
 public class UserStats implements Serializable {
 
   private String name;
   private int numberOfDecks;
   private int numberOfCards;
-  private int lenght;
-  private Helper helper = new Helper();
-  private Data data = new Data();
+  private int dueNow;
+  private int dueToday;
+  private int[] cardsPerLevel = new int[Scheduler.MAX_LEVEL + 1];
+  //Index 0 = heute, 1 = gestern usw.
+  private int[] reviewsPerDay = new int[0];
+  private double retention = Double.NaN;
 
   public UserStats(String name) {
     this.name = name;
@@ -27,19 +32,59 @@ public class UserStats implements Serializable {
     return numberOfDecks;
   }
 
-  public void setNumberOfDecks(int numberOfDecks) {
-    this.numberOfDecks = numberOfDecks;
-  }
-
   public int getNumberOfCards() {
     return numberOfCards;
   }
 
-  public void setNumberOfCards() {
-    for (Deck deck : data.getListOfDecks()) {
-      int l = deck.getLength();
-      lenght += l;
+  public int getDueNow() {
+    return dueNow;
+  }
+
+  public int getDueToday() {
+    return dueToday;
+  }
+
+  public int[] getCardsPerLevel() {
+    return cardsPerLevel.clone();
+  }
+
+  public int[] getReviewsPerDay() {
+    return reviewsPerDay.clone();
+  }
+
+  public void setReviewsPerDay(int[] reviewsPerDay) {
+    this.reviewsPerDay = reviewsPerDay.clone();
+  }
+
+  public int getReviewsToday() {
+    return reviewsPerDay.length > 0 ? reviewsPerDay[0] : 0;
+  }
+
+  public int getReviewsTotal() {
+    int total = 0;
+    for (int reviews : reviewsPerDay) {
+      total += reviews;
+    }
+    return total;
+  }
+
+  //Anteil der gewussten Karten an allen bewerteten Abfragen, NaN wenn es noch keine gibt.
+  public double getRetention() {
+    return retention;
+  }
+
+  public void setRetention(double retention) {
+    this.retention = retention;
+  }
+
+  //Zählt einen Stapel hinzu, wird vom Model.StatsService einmal pro Stapel aufgerufen.
+  void add(int cards, int due, int dueUntilTomorrow, int[] levels) {
+    numberOfDecks++;
+    numberOfCards += cards;
+    dueNow += due;
+    dueToday += dueUntilTomorrow;
+    for (int level = 0; level < cardsPerLevel.length && level < levels.length; level++) {
+      cardsPerLevel[level] += levels[level];
     }
-    numberOfCards = lenght;
   }
-}
\ No newline at end of file
+}
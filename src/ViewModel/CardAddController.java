@@ -1,6 +1,7 @@
 package ViewModel;
 
 import Model.*;
+import javafx.application.Platform;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.geometry.Insets;
@@ -14,7 +15,7 @@ import javafx.scene.layout.HBox;
 import javafx.scene.paint.Color;
 import java.util.logging.Level;
 
-public class CardAddController {
+public class CardAddController implements Refreshable {
 
     public HBox statusbar = new HBox();
     public Label statusbarLabel1 = new Label();
@@ -24,7 +25,6 @@ public class CardAddController {
     private Helper helper = new Helper();
     private Data data = new Data();
     private Deck currentDeck;
-    private boolean cardIsUnique = true;
 
     @FXML
     public void initialize() {
@@ -32,9 +32,31 @@ public class CardAddController {
 
             statusbar.setBackground(new Background(new BackgroundFill(Color.rgb(212, 212, 212), CornerRadii.EMPTY, Insets.EMPTY)));
 
-            if(!Data.getCurrentUser().isEmpty()){
-                currentDeck = data.getCurrentDeck();
-                statusbarLabel1.setText("Aktuelles Deck: " + currentDeck.getName());
+        } catch (Exception ex){
+            LogHelper.writeToLog(Level.INFO, "Beim Initialisieren des CardAddControllers kam es zu einem Fehler: " +ex);
+        }
+    }
+
+    @Override
+    public void refresh() {
+        try{
+            currentDeck = null;
+            questionTextField.clear();
+            answerTextField.clear();
+
+            if(Data.getCurrentUser() != null && !Data.getCurrentUser().isEmpty()){
+                //Bis der Stapel geladen ist, können keine Karten hinzugefügt werden
+                addButton.setDisable(true);
+                statusbarLabel1.setText("Stapel wird geladen...");
+                data.loadCurrentDeck().thenAcceptAsync(deck -> {
+                    currentDeck = deck;
+                    if (currentDeck != null) {
+                        addButton.setDisable(false);
+                        statusbarLabel1.setText("Aktuelles Deck: " + currentDeck.getName());
+                    } else {
+                        statusbarLabel1.setText("Der Stapel konnte nicht geladen werden.");
+                    }
+                }, Platform::runLater);
 
             } else {
                 statusbarLabel1.setText("Aufgrund eines Fehlers konnte der jetzige Benutzer nicht ermittelt werden");
@@ -55,19 +77,11 @@ public class CardAddController {
 
         if(!questionTextField.getText().isEmpty() && !answerTextField.getText().isEmpty()){
 
-            for (Flashcard card: currentDeck.getCards()) {
-                if(card.getFront().equals(questionTextField.getText())){
-                    cardIsUnique = false;
-                }
-            }
-            if(cardIsUnique){
-                Flashcard flashcard = new Flashcard(questionTextField.getText(), answerTextField.getText());
-                currentDeck.addCard(flashcard);
-                helper.saveDeckToFile(currentDeck);
+            Flashcard flashcard = new Flashcard(questionTextField.getText(), answerTextField.getText());
+            if(DeckRepository.getInstance().addCardIfAbsent(currentDeck, flashcard)){
                 statusbarLabel1.setText("Karte hinzugefügt.");
             } else {
                 statusbarLabel1.setText("Karte konnte nicht hinzugefügt werden, da sie nicht einzigartig ist.");
-                cardIsUnique = true; //Muss wieder auf true gestellt werden, da nach einer nicht-einzigartigen Karte dieser Wert wieder zurückgesetzt werden muss.
             }
         } else {
             statusbarLabel1.setText("Karte konnte nicht hinzugefügt werden. (Leere Felder?)");
@@ -1,6 +1,7 @@
 package ViewModel;
 
 import Model.*;
+import javafx.application.Platform;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.geometry.Insets;
@@ -13,7 +14,7 @@ import javafx.scene.layout.HBox;
 import javafx.scene.paint.Color;
 import java.util.logging.Level;
 
-public class CardEditController {
+public class CardEditController implements Refreshable {
 
     public HBox statusbar = new HBox();
     public Label statusbarLabel1 = new Label();
@@ -31,9 +32,20 @@ public class CardEditController {
 
             statusbar.setBackground(new Background(new BackgroundFill(Color.rgb(212, 212, 212), CornerRadii.EMPTY, Insets.EMPTY)));
 
+        } catch (Exception ex) {
+            LogHelper.writeToLog(Level.INFO, "WIRD NOCH" + ex);
+        }
+    }
+
+    @Override
+    public void refresh() {
+        try {
+            currentDeck = null;
+            statusbarLabel1.setText("");
+
             if (Data.getCurrentFlashcard() != null && Data.getCurrentUser() != null) {
                 flashcard = Data.getCurrentFlashcard();
-                currentDeck = data.getCurrentDeck();
+                data.loadCurrentDeck().thenAcceptAsync(deck -> currentDeck = deck, Platform::runLater);
                 questionTextField.setText(flashcard.getFront());
                 answerTextField.setText(flashcard.getBack());
             }
@@ -51,21 +63,25 @@ public class CardEditController {
     @FXML
     public void handlerEdit(ActionEvent event) {
         try{
-            if (!questionTextField.getText().isEmpty() && !answerTextField.getText().isEmpty()) {
+            if (currentDeck == null) {
+                statusbarLabel1.setText("Der Stapel wird noch geladen.");
+            } else if (!questionTextField.getText().isEmpty() && !answerTextField.getText().isEmpty()) {
 
-                Flashcard flashcardEdited = new Flashcard(flashcard);
-                flashcardEdited.setFront(questionTextField.getText());
-                flashcardEdited.setBack(answerTextField.getText());
-
-                for (Flashcard card: currentDeck.getCards()) {
-                    if(card.getFront().equals(flashcard.getFront()) && card.getBack().equals(flashcard.getBack())){
-                        flashcard = card;
-                    }
+                //Über die Id, da die Karte in der Zwischenzeit neu eingelesen worden sein kann
+                Flashcard card = currentDeck.getCardById(flashcard.getId());
+                if (card == null) {
+                    statusbarLabel1.setText("Die Karte existiert nicht mehr.");
+                    return;
+                }
+                if (!card.getFront().equals(questionTextField.getText())
+                        && currentDeck.containsCard(questionTextField.getText())) {
+                    statusbarLabel1.setText("Karte konnte nicht geändert werden, da sie nicht einzigartig ist.");
+                    return;
                 }
+                flashcard = card;
 
-                currentDeck.removeCard(flashcard);
-                currentDeck.addCard(flashcardEdited);
-                helper.saveDeckToFile(currentDeck);
+                DeckRepository.getInstance().editCard(currentDeck, flashcard, questionTextField.getText(),
+                        answerTextField.getText());
                 helper.switchScene(event, "CardOverview.fxml");
             } else {
                 statusbarLabel1.setText("Karte konnte nicht hinzugefügt werden. (Leere Felder?)");
@@ -3,55 +3,180 @@ package ViewModel;
 import Model.*;
 import Model.Flashcard;
 import Model.Helper;
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.geometry.Insets;
+import javafx.scene.Node;
+import javafx.scene.control.Button;
+import javafx.scene.control.ComboBox;
 import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
 import javafx.scene.control.ListView;
+import javafx.scene.control.TextField;
 import javafx.scene.layout.Background;
 import javafx.scene.layout.BackgroundFill;
 import javafx.scene.layout.CornerRadii;
 import javafx.scene.layout.HBox;
 import javafx.scene.paint.Color;
+import javafx.stage.FileChooser;
 
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
 import java.util.logging.Level;
 
-public class CardOverviewController {
+public class CardOverviewController implements Refreshable {
 
     public Data data = new Data();
     public Helper helper = new Helper();
-    public ListView list = new ListView();
+    public ListView<Flashcard> list = new ListView<>();
     public HBox statusbar = new HBox();
     public Label statusbarLabel1 = new Label();
+    public Button cardImport = new Button();
+    public Button cardExport = new Button();
+    public TextField searchField = new TextField();
+    public ComboBox<CardList.Order> orderBox = new ComboBox<>();
+    public ComboBox<String> filterBox = new ComboBox<>();
+
+    private static final int SEARCH_LIMIT = 1000;
+    //Einträge von filterBox vor "Level 0"
+    private static final int FILTER_ALL = 0;
+    private static final int FILTER_DUE = 1;
+    private static final int FILTER_FIRST_LEVEL = 2;
 
     private Deck currentDeck;
-    private ObservableList<String> cardNames = FXCollections.observableArrayList();
+    private final ObservableList<Flashcard> noCards = FXCollections.observableArrayList();
 
     @FXML
     public void initialize() {
         try {
             statusbar.setBackground(new Background(new BackgroundFill(Color.rgb(212, 212, 212), CornerRadii.EMPTY, Insets.EMPTY)));
+            list.setItems(noCards);
+            //Alle Zeilen gleich hoch, damit die ListView bei großen Stapeln nicht jede Zeile ausmessen muss
+            list.setFixedCellSize(24);
+            list.setCellFactory(view -> new ListCell<Flashcard>() {
+                @Override
+                protected void updateItem(Flashcard card, boolean empty) {
+                    super.updateItem(card, empty);
+                    setText(empty || card == null ? null : card.getFront());
+                }
+            });
 
-            if (Data.getCurrentUser() != null) {
+            orderBox.getItems().setAll(CardList.Order.values());
+            orderBox.getSelectionModel().select(CardList.Order.DECK);
+            List<String> filters = new ArrayList<>();
+            filters.add("Alle Karten");
+            filters.add("Fällige Karten");
+            for (int level = 0; level <= Scheduler.MAX_LEVEL; level++) {
+                filters.add("Level " + level);
+            }
+            filterBox.getItems().setAll(filters);
+            filterBox.getSelectionModel().select(FILTER_ALL);
+            searchField.textProperty().addListener((observable, oldText, newText) -> search(newText));
 
-                currentDeck = data.getCurrentDeck();
+        } catch (Exception ex) {
+            LogHelper.writeToLog(Level.INFO, "Fehler beim Initialisieren des CardOverviewControllers: " + ex);
+        }
+    }
 
-                if (currentDeck != null) {
+    @Override
+    public void refresh() {
+        try {
+            currentDeck = null;
+            list.setItems(noCards);
+            searchField.clear();
 
-                    for (Flashcard card : currentDeck.getCards()) {
-                        cardNames.add(card.getFront());
-                    }
-                    //noinspection unchecked
-                    list.setItems(cardNames);
-                }
+            if (Data.getCurrentUser() != null) {
+                statusbarLabel1.setText("Karten werden geladen...");
+                data.loadCurrentDeck().thenAcceptAsync(this::showCards, Platform::runLater);
             }
         } catch (Exception ex) {
             LogHelper.writeToLog(Level.INFO, "Fehler beim Initialisieren des CardOverviewControllers: " + ex);
         }
     }
 
+    //Zeigt die Karten des Stapels über eine Model.CardList an, es werden also nur die sichtbaren Zeilen kopiert.
+    //Ausgesucht werden die Karten wie in refresh() im Hintergrund. Ist inzwischen ein anderer Stapel geladen oder
+    //wird gesucht, wird das Ergebnis verworfen.
+    private CompletableFuture<Void> showCards(Deck deck) {
+
+        currentDeck = deck;
+        statusbarLabel1.setText("");
+        if (currentDeck == null) {
+            list.setItems(noCards);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        int filter = filterBox.getSelectionModel().getSelectedIndex();
+        int level = filter >= FILTER_FIRST_LEVEL ? filter - FILTER_FIRST_LEVEL : CardList.ALL_LEVELS;
+        long dueBefore = filter == FILTER_DUE ? System.currentTimeMillis() : CardList.ALL_DATES;
+        CardList.Order order = orderBox.getValue() == null ? CardList.Order.DECK : orderBox.getValue();
+        return data.selectCards(deck, level, dueBefore, order).thenAcceptAsync(cards -> {
+            if (deck != currentDeck || !searchField.getText().trim().isEmpty()) {
+                return;
+            }
+            list.setItems(cards);
+            statusbarLabel1.setText(cards.size() == deck.getLength() ? ""
+                    : cards.size() + " von " + deck.getLength() + " Karten");
+        }, Platform::runLater);
+    }
+
+    //Reihenfolge oder Filter geändert
+    @FXML
+    public void handlerListOptions() {
+
+        if (currentDeck != null) {
+            if (searchField.getText().trim().isEmpty()) {
+                showCards(currentDeck);
+            } else {
+                searchField.clear();
+            }
+        }
+    }
+
+    //Zeigt die Treffer im aktuellen Stapel an, für die anderen Stapel nur die Anzahl in der Statusleiste.
+    //Ergebnisse einer älteren Suche werden verworfen, falls inzwischen weiter getippt wurde.
+    private void search(String query) {
+
+        if (currentDeck == null) {
+            return;
+        }
+        if (query.trim().isEmpty()) {
+            showCards(currentDeck);
+            return;
+        }
+        data.searchCards(query, SEARCH_LIMIT).thenAcceptAsync(hits -> {
+            if (!query.equals(searchField.getText()) || currentDeck == null) {
+                return;
+            }
+            ObservableList<Flashcard> cards = FXCollections.observableArrayList();
+            Map<String, Integer> otherDecks = new TreeMap<>();
+            for (SearchIndex.Hit hit : hits) {
+                if (hit.getDeckName().equals(currentDeck.getName())) {
+                    Flashcard card = currentDeck.getCardById(hit.getCardId());
+                    if (card != null) {
+                        cards.add(card);
+                    }
+                } else {
+                    otherDecks.merge(hit.getDeckName(), 1, Integer::sum);
+                }
+            }
+            list.setItems(cards);
+            StringBuilder status = new StringBuilder(cards.size() + " Treffer");
+            otherDecks.forEach((deckName, count) -> status.append(", ").append(deckName).append(": ").append(count));
+            if (hits.size() >= SEARCH_LIMIT) {
+                status.append(" (gekürzt)");
+            }
+            statusbarLabel1.setText(status.toString());
+        }, Platform::runLater);
+    }
+
     @FXML
     public void handlerBack(ActionEvent event) {
         Data.setCurrentDeckName(null);
@@ -63,14 +188,81 @@ public class CardOverviewController {
         helper.switchScene(event, "CardAdd.fxml");
     }
 
+    //Importiert eine CSV-, TSV- oder Anki-Textdatei in den aktuellen Stapel
+    @FXML
+    public void handlerCardImport(ActionEvent event) {
+
+        if (currentDeck == null) {
+            statusbarLabel1.setText("Kein Stapel geladen.");
+            return;
+        }
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Karten importieren");
+        fileChooser.getExtensionFilters().addAll(
+                new FileChooser.ExtensionFilter("Textdateien (CSV, TSV, Anki)", "*.csv", "*.tsv", "*.txt"),
+                new FileChooser.ExtensionFilter("Alle Dateien", "*.*"));
+        File file = fileChooser.showOpenDialog(((Node) event.getSource()).getScene().getWindow());
+        if (file == null) {
+            return;
+        }
+
+        cardImport.setDisable(true);
+        statusbarLabel1.setText("Importiere " + file.getName() + "...");
+        data.importCards(file.toPath(), progress -> Platform.runLater(
+                () -> statusbarLabel1.setText("Importiere: " + progress)))
+                .whenCompleteAsync((result, ex) -> {
+                    cardImport.setDisable(false);
+                    if (ex != null) {
+                        statusbarLabel1.setText("Import fehlgeschlagen: " + ex.getCause());
+                        return;
+                    }
+                    //showCards() setzt die Statusleiste, sobald die Karten angezeigt werden
+                    showCards(currentDeck).thenRun(() -> statusbarLabel1.setText(result.getImported()
+                            + " Karten importiert, " + result.getDuplicates() + " doppelt, " + result.getSkipped()
+                            + " übersprungen."));
+                }, Platform::runLater);
+    }
+
+    @FXML
+    public void handlerCardExport(ActionEvent event) {
+
+        if (currentDeck == null) {
+            statusbarLabel1.setText("Kein Stapel geladen.");
+            return;
+        }
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Stapel exportieren");
+        fileChooser.setInitialFileName(currentDeck.getName() + DeckExporter.Format.CSV.getExtension());
+        fileChooser.getExtensionFilters().addAll(
+                new FileChooser.ExtensionFilter("CSV", "*.csv"),
+                new FileChooser.ExtensionFilter("JSON Lines", "*.jsonl"));
+        File file = fileChooser.showSaveDialog(((Node) event.getSource()).getScene().getWindow());
+        if (file == null) {
+            return;
+        }
+
+        cardExport.setDisable(true);
+        statusbarLabel1.setText("Exportiere nach " + file.getName() + "...");
+        data.exportCurrentDeck(file.toPath())
+                .whenCompleteAsync((cards, ex) -> {
+                    cardExport.setDisable(false);
+                    if (ex != null) {
+                        statusbarLabel1.setText("Export fehlgeschlagen: " + ex.getCause());
+                        return;
+                    }
+                    statusbarLabel1.setText(cards + " Karten nach " + file.getName() + " exportiert.");
+                }, Platform::runLater);
+    }
+
     @FXML
     public void handlerCardEdit(ActionEvent event) {
 
-        String selectedItem = (String) list.getSelectionModel().getSelectedItem();
-        if (selectedItem != null) {
+        Flashcard selectedItem = list.getSelectionModel().getSelectedItem();
+        if (selectedItem != null && currentDeck != null) {
 
-            if (currentDeck.getCardByName(selectedItem) != null) {
-                Data.setCurrentFlashcard(currentDeck.getCardByName(selectedItem));
+            Flashcard card = currentDeck.getCardById(selectedItem.getId());
+            if (card != null) {
+                Data.setCurrentFlashcard(card);
                 helper.switchScene(event, "CardEdit.fxml");
             }
         } else {
@@ -81,24 +273,30 @@ public class CardOverviewController {
     @FXML
     public void handlerCardDelete() {
 
-        Deck currentDeck = data.getCurrentDeck();
-
         final int selectedIdx = list.getSelectionModel().getSelectedIndex();
-        if (selectedIdx != -1) {
-            String itemToRemove = list.getSelectionModel().getSelectedItem().toString();
+        Flashcard itemToRemove = list.getSelectionModel().getSelectedItem();
+        if (selectedIdx != -1 && itemToRemove != null && currentDeck != null) {
 
             final int newSelectedIdx = (selectedIdx == list.getItems().size() - 1)
                     ? selectedIdx - 1
                     : selectedIdx;
 
-            list.getItems().remove(selectedIdx);
-            list.getSelectionModel().select(newSelectedIdx);
-            //removes the player for the array
-
-            //Karte löschen
-            currentDeck.removeCard(currentDeck.getCardByName(itemToRemove));
-            helper.saveDeckToFile(currentDeck);
-            statusbarLabel1.setText("Karte gelöscht!");
+            //Karte löschen, über die Id statt über die Vorderseite
+            Flashcard card = currentDeck.getCardById(itemToRemove.getId());
+            if (card != null) {
+                DeckRepository.getInstance().removeCard(currentDeck, card);
+            }
+            if (list.getItems() instanceof CardList) {
+                //Die Model.CardList ist ein Abbild, also neu erstellen; ausgewählt wird, sobald sie angezeigt wird
+                showCards(currentDeck).thenRun(() -> {
+                    list.getSelectionModel().select(newSelectedIdx);
+                    statusbarLabel1.setText("Karte gelöscht!");
+                });
+            } else {
+                list.getItems().remove(selectedIdx);
+                list.getSelectionModel().select(newSelectedIdx);
+                statusbarLabel1.setText("Karte gelöscht!");
+            }
         } else {
             statusbarLabel1.setText("Keine Karte zum Löschen ausgewählt.");
         }
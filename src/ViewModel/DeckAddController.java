@@ -7,11 +7,16 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.logging.Level;
 
-public class DeckAddController {
+public class DeckAddController implements Refreshable {
 
     public TextField StapelText = new TextField();
     private Helper helper = new Helper();
 
+    @Override
+    public void refresh() {
+        StapelText.clear();
+    }
+
     public void handlerConfirm(ActionEvent event) {
 
         String deckName = StapelText.getText();
@@ -1,9 +1,12 @@
 package ViewModel;
 
 import Model.Data;
-import Model.Deck;
+import Model.DeckHeader;
 import Model.Helper;
 import Model.LogHelper;
+import Model.PersistenceService;
+import Model.Refreshable;
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
@@ -16,12 +19,10 @@ import javafx.scene.layout.BackgroundFill;
 import javafx.scene.layout.CornerRadii;
 import javafx.scene.layout.HBox;
 import javafx.scene.paint.Color;
-import java.io.File;
-import java.io.IOException;
-import java.nio.file.Paths;
+import java.util.List;
 import java.util.logging.Level;
 
-public class DeckOverviewController {
+public class DeckOverviewController implements Refreshable {
 
     public HBox statusbar = new HBox();
     public Label statusbarLabel1 = new Label();
@@ -35,26 +36,46 @@ public class DeckOverviewController {
 
         try{
             statusbar.setBackground(new Background(new BackgroundFill(Color.rgb(212, 212, 212), CornerRadii.EMPTY, Insets.EMPTY)));
-            if (!data.isEmpty) {
+            //noinspection unchecked
+            list.setItems(deckNames);
+
+        } catch(Exception ex) {
+            LogHelper.writeToLog(Level.INFO, "Fehler WIRD NCOH");
+        }
+    }
+
+    @Override
+    public void refresh() {
+
+        try{
+            deckNames.clear();
+            statusbarLabel1.setText("Stapel werden geladen...");
+            data.loadDeckHeaders().thenAcceptAsync(this::showDecks, Platform::runLater);
 
-                for (Deck deck : data.getListOfDecks()) {
-                    deckNames.add(deck.getName() + " (" + deck.getOwner() + ")");
-                }
-                //noinspection unchecked
-                list.setItems(deckNames);
-            } else {
-                statusbarLabel1.setText("Es sind momentan noch keine Daten vorhanden.");
-            }
         } catch(Exception ex) {
             LogHelper.writeToLog(Level.INFO, "Fehler WIRD NCOH");
         }
     }
 
+    private void showDecks(List<DeckHeader> headers) {
+
+        statusbarLabel1.setText("");
+        deckNames.clear();
+        if (!data.isEmpty) {
+
+            for (DeckHeader deck : headers) {
+                deckNames.add(deck.getName() + " (" + deck.getOwner() + ")");
+            }
+        } else {
+            statusbarLabel1.setText("Es sind momentan noch keine Daten vorhanden.");
+        }
+    }
+
     public void handlerDeckSelect(ActionEvent event) {
         String selectedItem = (String) list.getSelectionModel().getSelectedItem();
 
         if (selectedItem != null) {
-            for (Deck deck : data.getListOfDecks()) {
+            for (DeckHeader deck : data.getListOfDeckHeaders()) {
                 if (selectedItem.contains(deck.getName()) && selectedItem.contains(deck.getOwner())) {
                     Data.setCurrentDeckName(deck.getName());
                     LogHelper.writeToLog(Level.INFO, "setCurrentDeckname: " + selectedItem);
@@ -65,8 +86,6 @@ public class DeckOverviewController {
     }
 
     public void handlerBack(ActionEvent event) {
-        list.getItems().clear();
-        deckNames.clear();
         helper.switchScene(event,"MainWindow.fxml");
     }
 
@@ -80,7 +99,7 @@ public class DeckOverviewController {
         String selectedItem = (String) list.getSelectionModel().getSelectedItem();
 
         if (selectedItem != null) {
-            for (Deck deck : data.getListOfDecks()) {
+            for (DeckHeader deck : data.getListOfDeckHeaders()) {
                 if (selectedItem.contains(deck.getName()) && selectedItem.contains(deck.getOwner())) {
                     Data.setCurrentDeckName(deck.getName());
                     LogHelper.writeToLog(Level.INFO, "setCurrentDeckname: " + deck.getName());
@@ -91,13 +110,13 @@ public class DeckOverviewController {
         statusbarLabel1.setText("Es wurde kein Deck ausgewählt! - Bitte zuerst ein Deck auswählen.");
     }
 
-    public void handlerDeleteDeck(ActionEvent event) throws IOException {
+    public void handlerDeleteDeck(ActionEvent event) {
 
         String selectedItem = (String) list.getSelectionModel().getSelectedItem();
 
         //Deck auswählen
         if (selectedItem != null) {
-            for (Deck deck : data.getListOfDecks()) {
+            for (DeckHeader deck : data.getListOfDeckHeaders()) {
                 if (selectedItem.contains(deck.getName()) && selectedItem.contains(deck.getOwner())) {
                     Data.setCurrentDeckName(deck.getName());
                     LogHelper.writeToLog(Level.INFO, "setCurrentDeckname: " + selectedItem);
@@ -105,28 +124,21 @@ public class DeckOverviewController {
             }
         }
 
-        //Pfad des Decks finden
-        File deck = new File(Paths.get(System.getenv("LOCALAPPDATA"), "flashcards", Data.getCurrentDeckName()).toString() + ".txt");
-
-        if (!deck.exists()) {
-            statusbarLabel1.setText("Stapel existiert nicht");
-
-        } else if (!deck.canWrite()) {
-            statusbarLabel1.setText("Keine Berechtigung um diesen Stapel zu löschen");
-
-        } else {
-            deck = deck.getCanonicalFile();
-            boolean Isremoved = deck.delete();
+        if (Data.getCurrentDeckName() == null) {
+            statusbarLabel1.setText("Es wurde kein Deck ausgewählt! - Bitte zuerst ein Deck auswählen.");
+            return;
+        }
 
-            if (Isremoved) {
+        //Die Datei wird im Hintergrund gelöscht, danach wird die Liste neu geladen
+        statusbarLabel1.setText("Stapel wird gelöscht...");
+        PersistenceService.getInstance().deleteDeck(Data.getCurrentDeckName()).thenAcceptAsync(isRemoved -> {
 
-                statusbarLabel1.setText("Stapel gelöscht");
+            if (isRemoved) {
+                Data.setCurrentDeckName(null);
                 helper.switchScene(event,"DeckOverview.fxml");
-
             } else {
                 statusbarLabel1.setText("Stapel konnte nicht gelöscht werden");
-
             }
-        }
+        }, Platform::runLater);
     }
 }
@@ -3,6 +3,8 @@ package ViewModel;
 import Model.Data;
 import Model.Helper;
 import Model.LogHelper;
+import Model.Refreshable;
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
@@ -19,7 +21,7 @@ import javafx.scene.paint.Color;
 import java.util.List;
 import java.util.logging.Level;
 
-public class MainWindowController {
+public class MainWindowController implements Refreshable {
 
     //FXML Elemente
     public ComboBox userComboBox = new ComboBox();
@@ -36,10 +38,39 @@ public class MainWindowController {
     public void initialize() {
 
         try {
-            ObservableList<String> usersCollection = FXCollections.observableArrayList();
-            List<String> users = Data.getAllUsers();
             statusbar.setBackground(new Background(new BackgroundFill(Color.rgb(212, 212, 212), CornerRadii.EMPTY, Insets.EMPTY)));
 
+        } catch (Exception ex) {
+            LogHelper.writeToLog(Level.INFO, "Fehler beim Initialisieren des MainWindowControllers " + ex);
+        }
+    }
+
+    //Wird bei jedem Anzeigen aufgerufen
+    @Override
+    public void refresh() {
+
+        try {
+            selectUserButton.setDisable(true);
+            decksButton.setDisable(true);
+            statsButton.setDisable(true);
+            statusbarLabel1.setText("Benutzer werden geladen...");
+
+            //Die Benutzer werden im Hintergrund gelesen und danach auf dem JavaFX-Thread angezeigt
+            Data.loadAllUsers().thenAcceptAsync(this::showUsers, Platform::runLater);
+
+        } catch (Exception ex) {
+            LogHelper.writeToLog(Level.INFO, "Fehler beim Laden der Benutzer " + ex);
+        }
+    }
+
+    private void showUsers(List<String> users) {
+
+        try {
+            ObservableList<String> usersCollection = FXCollections.observableArrayList();
+            selectUserButton.setDisable(false);
+            decksButton.setDisable(false);
+            statsButton.setDisable(false);
+
             if (Data.getCurrentUser() == null) {
                 decksButton.setDisable(true);
                 statsButton.setDisable(true);
@@ -47,7 +78,7 @@ public class MainWindowController {
             } else {
                 statusbarLabel1.setText("Aktuell angemeldet als: " + Data.getCurrentUser());
             }
-            if (Data.getAllUsers().isEmpty()) {
+            if (users.isEmpty()) {
                 selectUserButton.setDisable(true);
                 decksButton.setDisable(true);
                 statsButton.setDisable(true);
@@ -60,7 +91,7 @@ public class MainWindowController {
             }
 
         } catch (Exception ex) {
-            LogHelper.writeToLog(Level.INFO, "Fehler beim Initialisieren des MainWindowControllers " + ex);
+            LogHelper.writeToLog(Level.INFO, "Fehler beim Anzeigen der Benutzer " + ex);
         }
     }
 
@@ -93,6 +124,7 @@ public class MainWindowController {
 
     @FXML
     public void handlerQuit() {
-        System.exit(0);
+        //Platform.exit statt System.exit, damit Main.stop() die Stapel noch abschließen kann
+        Platform.exit();
     }
 }
@@ -1,6 +1,7 @@
 package ViewModel;
 
 import Model.*;
+import javafx.application.Platform;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.geometry.Insets;
@@ -13,7 +14,7 @@ import javafx.scene.layout.HBox;
 import javafx.scene.paint.Color;
 import java.util.logging.Level;
 
-public class PracticeWindowController {
+public class PracticeWindowController implements Refreshable {
 
     //FXML Elemente
     public Label questionLabel = new Label();
@@ -30,11 +31,9 @@ public class PracticeWindowController {
 
     private Data data = new Data();
     private Helper helper = new Helper();
-    private UserStats userStats = new UserStats(Data.getCurrentUser());
-    private int currentcardIndex = 0;
-    private int cardIndexMax;
     private Flashcard currentFlashcard;
-    private Deck deckReady;
+    //Die Logik der Übungsrunde liegt im Model.ReviewSession, der Controller zeigt nur an
+    private ReviewSession session;
     private long countTime;
 
     @FXML
@@ -42,21 +41,58 @@ public class PracticeWindowController {
 
         try {
             statusbar.setBackground(new Background(new BackgroundFill(Color.rgb(212, 212, 212), CornerRadii.EMPTY, Insets.EMPTY)));
+
+        } catch (Exception ex) {
+
+            LogHelper.writeToLog(Level.INFO, "Fehler beim Initialisieren des \"Üben\"-Windows: " + ex);
+        }
+    }
+
+    //Jedes Öffnen ist eine neue Übungsrunde
+    @Override
+    public void refresh() {
+
+        try {
+            session = null;
+            currentFlashcard = null;
+            questionLabel.setText("");
+            answerLabel.setText("");
+            easyTime.setText("");
+            okTime.setText("");
+            hardTime.setText("");
             if (Data.getCurrentDeckName() != null) {
 
-                deckReady = data.getCurrentDeck();
-                deckReady.ready();
-                deckReady.sort();
+                disableControls();
+                statusbarLabel1.setText("Stapel wird geladen...");
+                data.startReviewSession().thenAcceptAsync(this::startPractice, Platform::runLater);
+            } else {
+
+                statusbarLabel1.setText("Es wurde kein Model.Deck ausgewählt!");
+                disableControls();
+                LogHelper.writeToLog(Level.INFO, "Kein Model.Deck ausgewählt.");
+            }
+        } catch (Exception ex) {
+
+            LogHelper.writeToLog(Level.INFO, "Fehler beim Initialisieren des \"Üben\"-Windows: " + ex);
+        }
+    }
+
+    private void startPractice(ReviewSession newSession) {
+
+        try {
+            if (newSession != null) {
+
+                session = newSession;
+                currentFlashcard = session.next();
                 if (Data.getCurrentUser() != null) {
 
                     statusbarLabel1.setText("Aktuell angemeldet als: " + Data.getCurrentUser());
                 }
-                if (deckReady.getLength() > 0) {
+                if (currentFlashcard != null) {
 
-                    deckReady.sort();
-                    cardIndexMax = deckReady.getLength();
-                    currentFlashcard = deckReady.getCards().get(currentcardIndex);
-                    LogHelper.writeToLog(Level.INFO, "Aktuelles Deck: " + deckReady.getName() + " ready mit " + deckReady.getLength() + " Karten");
+                    show.setDisable(false);
+                    LogHelper.writeToLog(Level.INFO, () -> "Aktuelles Deck: " + session.getDeck().getName()
+                            + " ready mit " + session.countRemaining() + " Karten");
                     questionLabel.setText(currentFlashcard.getFront());
 
                 } else {
@@ -67,9 +103,8 @@ public class PracticeWindowController {
                 }
             } else {
 
-                statusbarLabel1.setText("Es wurde kein Model.Deck ausgewählt!");
-                disableControls();
-                LogHelper.writeToLog(Level.INFO, "Kein Model.Deck ausgewählt.");
+                statusbarLabel1.setText(Data.getCurrentDeckName() + " konnte nicht geladen werden!");
+                LogHelper.writeToLog(Level.INFO, "Stapel " + Data.getCurrentDeckName() + " konnte nicht geladen werden.");
             }
         } catch (Exception ex) {
 
@@ -78,17 +113,11 @@ public class PracticeWindowController {
     }
 
     //Eventhandling
+    //Die abgefragten Karten wurden bereits einzeln im Journal vorgemerkt (finishUpCard).
     public void handlerBack(ActionEvent event) {
 
-        try {
-
-            if (Data.getCurrentDeckName() != null) {
-
-                helper.saveDeckToFile(data.getCurrentDeck());
-            }
-        } catch (Exception ex) {
-
-            LogHelper.writeToLog(Level.INFO, "Fehler beim Speichern des aktuellen Decks.");
+        if (session != null) {
+            session.commit();
         }
         helper.switchScene(event, "DeckOverview.fxml");
     }
@@ -113,9 +142,9 @@ public class PracticeWindowController {
             ok.setDisable(false);
             hard.setDisable(false);
             //Nachdem die Rückseite angezeigt wird, sollen die Abfragezeiten über den Buttons angezeigt werden
-            easyTime.setText(currentFlashcard.returnTimeIntervalAsString(currentFlashcard.getLevel() + 2));
-            okTime.setText(currentFlashcard.returnTimeIntervalAsString(currentFlashcard.getLevel() + 1));
-            hardTime.setText(currentFlashcard.returnTimeIntervalAsString(currentFlashcard.getLevel()));
+            easyTime.setText(currentFlashcard.previewTimeInterval(1));
+            okTime.setText(currentFlashcard.previewTimeInterval(2));
+            hardTime.setText(currentFlashcard.previewTimeInterval(3));
 
         } catch(Exception ex){
             LogHelper.writeToLog(Level.INFO, "Fehler beim Anzeigen der Rückseite " +ex);
@@ -131,15 +160,12 @@ public class PracticeWindowController {
             easyTime.setText("");
             okTime.setText("");
             hardTime.setText("");
-            currentFlashcard.setDifficulty(difficulty);
-            currentFlashcard.updateInterval();
-            //deck.getCards().remove(currentcardIndex);
+            session.answer(currentFlashcard.getId(), difficulty);
             answerLabel.setText("");
-            currentcardIndex++;
+            currentFlashcard = session.next();
 
-            if (currentcardIndex < cardIndexMax) {
+            if (currentFlashcard != null) {
 
-                currentFlashcard = deckReady.getCards().get(currentcardIndex);
                 questionLabel.setText(currentFlashcard.getFront());
             } else {
 
@@ -1,41 +1,63 @@
 package ViewModel;
 
 import Model.*;
+import javafx.application.Platform;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
-import javafx.scene.control.Button;
 import javafx.scene.control.Label;
 
-import java.io.IOException;
 import java.util.logging.Level;
 
-public class StatsWindowController {
+public class StatsWindowController implements Refreshable {
 
     //FXML Elemente
     public Label nameLabel = new Label();
     public Label deckCount = new Label();
     public Label cardCount = new Label();
+    public Label dueCount = new Label();
+    public Label levelCount = new Label();
+    public Label reviewCount = new Label();
+    public Label retention = new Label();
 
     public Helper helper = new Helper();
     public Data data = new Data();
-    private UserStats userStats = new UserStats(Data.getCurrentUser());
 
-    @FXML
-    public void initialize() {
+    //Wird bei jedem Anzeigen aufgerufen. Die Zahlen werden vom Model.StatsService mitgezählt, hier also nur
+    //abgeholt, da der Benutzer inzwischen gewechselt haben kann.
+    @Override
+    public void refresh() {
 
         try{
-            userStats.setName(Data.getCurrentUser());
-            userStats.setNumberOfDecks(data.getListOfDecks().size());
-            userStats.setNumberOfCards();
+            nameLabel.setText(Data.getCurrentUser());
+            for (Label label : new Label[]{deckCount, cardCount, dueCount, levelCount, reviewCount, retention}) {
+                label.setText("...");
+            }
 
-            nameLabel.setText(userStats.getName());
-            deckCount.setText("" + userStats.getNumberOfDecks());
-            cardCount.setText("" + userStats.getNumberOfCards());
+            data.loadUserStats().thenAcceptAsync(this::showStats, Platform::runLater);
         } catch(Exception ex){
             LogHelper.writeToLog(Level.INFO, "Fehler beim Initialiseren des StatsWindows " +ex);
         }
     }
 
+    private void showStats(UserStats stats) {
+
+        deckCount.setText("" + stats.getNumberOfDecks());
+        cardCount.setText("" + stats.getNumberOfCards());
+        dueCount.setText(stats.getDueNow() + " jetzt, " + stats.getDueToday() + " heute");
+
+        StringBuilder levels = new StringBuilder();
+        int[] cardsPerLevel = stats.getCardsPerLevel();
+        for (int level = 0; level < cardsPerLevel.length; level++) {
+            levels.append(level == 0 ? "" : "  ").append(level).append(": ").append(cardsPerLevel[level]);
+        }
+        levelCount.setText(levels.toString());
+
+        reviewCount.setText(stats.getReviewsToday() + " heute, " + stats.getReviewsTotal() + " in "
+                + stats.getReviewsPerDay().length + " Tagen");
+        retention.setText(Double.isNaN(stats.getRetention()) ? "-"
+                : Math.round(stats.getRetention() * 100) + " %");
+    }
+
     @FXML
     public void handlerBack(ActionEvent event) {
         helper.switchScene(event,"MainWindow.fxml");
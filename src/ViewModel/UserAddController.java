@@ -3,6 +3,8 @@ package ViewModel;
 import Model.Data;
 import Model.Helper;
 import Model.LogHelper;
+import Model.PersistenceService;
+import Model.Refreshable;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.geometry.Insets;
@@ -16,7 +18,7 @@ import javafx.scene.paint.Color;
 import java.util.List;
 import java.util.logging.Level;
 
-public class UserAddController {
+public class UserAddController implements Refreshable {
 
     public TextField textField = new TextField();
     public HBox statusbar = new HBox();
@@ -34,6 +36,13 @@ public class UserAddController {
         }
     }
 
+    //Die Szene wird wiederverwendet, daher die Eingaben vom letzten Mal entfernen
+    @Override
+    public void refresh() {
+        textField.clear();
+        statusbarLabel1.setText("");
+    }
+
     public void handlerConfirm(ActionEvent event) {
 
         try {
@@ -51,7 +60,7 @@ public class UserAddController {
                 }
                 if (newUser.length() < 30 && newUser.length() > 2 && userNameIsUnique) {
                     allUsers.add(newUser);
-                    helper.saveUsersToFile(allUsers);
+                    PersistenceService.getInstance().saveUsers(allUsers);
                     switchToManageUserView(event);
                 } else {
                     if(!userNameIsUnique){
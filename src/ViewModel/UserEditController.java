@@ -3,6 +3,9 @@ package ViewModel;
 import Model.Data;
 import Model.Helper;
 import Model.LogHelper;
+import Model.PersistenceService;
+import Model.Refreshable;
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
@@ -13,7 +16,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.logging.Level;
 
-public class UserEditController {
+public class UserEditController implements Refreshable {
 
     public ListView list = new ListView();
 
@@ -21,11 +24,12 @@ public class UserEditController {
     private Helper helper = new Helper();
     private ObservableList<String> usersCollection = FXCollections.observableArrayList();
 
-    @FXML
-    public void initialize() {
+    @Override
+    public void refresh() {
 
         try {
-            updateListView();
+            //Beim ersten Aufruf sind die Benutzer evtl. noch nicht gelesen
+            Data.loadAllUsers().thenRunAsync(this::updateListView, Platform::runLater);
 
         } catch (Exception ex) {
             LogHelper.writeToLog(Level.INFO, "Fehler beim Initialisieren des MainWindowControllers " + ex);
@@ -56,7 +60,7 @@ public class UserEditController {
                 allUsersNew.removeAll(toRemove);
                 Data.setAllUsers(allUsersNew);
 
-                helper.saveUsersToFile(allUsersNew);
+                PersistenceService.getInstance().saveUsers(allUsersNew);
                 updateListView();
             }
         } catch (Exception ex) {